@@ -1,20 +1,57 @@
 import sys
+import numpy as np
 import pandas as pd
-from os.path import join
+from os.path import exists, join
 
 BASE_DIR = "./prelim/c/"
 OUT_DIR = join(BASE_DIR, "stats/")
 MATH = "math"
 MPFR = "mpfr"
+TIMER = join(BASE_DIR, "timer.csv")
+Z = 1.96
+
+def read_measurements(base):
+    # Binary: little-endian int64 per sample, as written by fp_test (bin) and
+    # dedis.fp.BinarySampleSink. Falls back to one sample per text line.
+    if exists(base + ".bin"):
+        return pd.DataFrame({'time': np.fromfile(base + ".bin", dtype='<i8')})
+    return pd.read_csv(base + ".csv", header=None, names=['time'])
+
+def write_corrected(fname, frames):
+    # Subtracts fp_test's clock_gettime overhead from each mean, with a 95%
+    # bound from both samples' spread, in the columns of the Java harness's
+    # <op>_corrected.csv. Means under the timer's resolution are rejected as
+    # below_resolution, and those whose bound reaches zero as ci_includes_zero.
+    if not exists(TIMER):
+        return
+    timer = pd.read_csv(TIMER, skipinitialspace=True).iloc[0]
+    f = open(join(OUT_DIR, fname + "_corrected.csv"), "w")
+    f.write("op, backend, count, mean, overhead, corrected, bound, resolution, status\n")
+    for backend, fd in frames:
+        n = len(fd)
+        mean = fd['time'].mean()
+        corrected = mean - timer['overhead']
+        bound = Z * np.sqrt(fd['time'].var() / n + timer['stddev'] ** 2 / timer['count'])
+        if corrected < timer['resolution']:
+            status = "below_resolution"
+        elif corrected - bound <= 0:
+            status = "ci_includes_zero"
+        else:
+            status = "ok"
+        ok = status == "ok"
+        f.write("%s, %s, %d, %.3f, %.3f, %s, %.3f, %d, %s\n" % (fname, backend, n, mean,
+            timer['overhead'], "%.3f" % corrected if ok else "", bound, timer['resolution'],
+            status))
+    f.close()
 
 def compute_stats(fname):
-    in_math = join(BASE_DIR, MATH + "_" + fname + ".csv")
-    in_mpfr = join(BASE_DIR, MPFR + "_" + fname + ".csv")
+    in_math = join(BASE_DIR, MATH + "_" + fname)
+    in_mpfr = join(BASE_DIR, MPFR + "_" + fname)
     # outfile = join(OUT_DIR, fname + ".txt")
     outfile = join(OUT_DIR, fname + ".csv")
 
-    fd_math = pd.read_csv(in_math, header=None, names=['time'])
-    fd_mpfr = pd.read_csv(in_mpfr, header=None, names=['time'])
+    fd_math = read_measurements(in_math)
+    fd_mpfr = read_measurements(in_mpfr)
     m_vals = [fd_math['time'].mean(), fd_math['time'].std()]
     mpfr_vals = [fd_mpfr['time'].mean(), fd_mpfr['time'].std()]
 
@@ -24,6 +61,8 @@ def compute_stats(fname):
         mpfr_vals[1]))
 
     # print("%s %f (%f) %f (%f)" % (fname, m_vals[0], m_vals[1], mpfr_vals[0], mpfr_vals[1]))
+    f.close()
+    write_corrected(fname, [(MATH, fd_math), (MPFR, fd_mpfr)])
 
 def main():
     args = sys.argv
@@ -1,6 +1,7 @@
 #include <stdio.h>
 #include <stdlib.h>
 #include <string.h>
+#include <stdint.h>
 #include <time.h>
 #include <math.h>
 #include <gmp.h>
@@ -10,6 +11,13 @@
 #define EXEC_COUNT 1000000
 #define INPUT_COUNT 1000
 
+int compare_long(const void *a, const void *b)
+{
+    long x = *(const long*) a;
+    long y = *(const long*) b;
+    return (x > y) - (x < y);
+}
+
 void print_measurements(char* op, long *measurements, char* prefix)
 {
     char *ext = ".csv";
@@ -33,7 +41,95 @@ void print_measurements(char* op, long *measurements, char* prefix)
     free(fname);
 }
 
-void run_experiment(char *op)
+/*
+ * Same format as dedis.fp.BinarySampleSink: one little-endian int64 per
+ * sample, no header.
+ */
+void write_measurements_bin(char* op, long *measurements, char* prefix)
+{
+    char *ext = ".bin";
+    char *fname = malloc(strlen(prefix) + strlen(op) + strlen(ext) + 1);
+    strcpy(fname, prefix);
+    strcat(fname, op);
+    strcat(fname, ext);
+    printf("%s\n", fname);
+    FILE *fp;
+    fp = fopen(fname, "wb");
+    if(fp == NULL)
+    {
+        printf("Error!");
+        exit(1);
+    }
+    unsigned char buf[8];
+    for (int i = 0; i < EXEC_COUNT; i++) {
+        uint64_t v = (uint64_t) measurements[i];
+        for (int b = 0; b < 8; b++) {
+            buf[b] = (unsigned char) (v >> (8 * b));
+        }
+        fwrite(buf, 1, sizeof(buf), fp);
+    }
+    fclose(fp);
+    free(fname);
+}
+
+/*
+ * Cost of two back-to-back clock_gettime calls, which every sample below
+ * includes, and the smallest nonzero step between successive readings.
+ * Written to ./prelim/c/timer.csv in the columns of the Java harness's
+ * timer.csv; c_stats.py subtracts the overhead from the means.
+ */
+void calibrate_timer()
+{
+    struct timespec start, end, res;
+    long *times = (long*) malloc(sizeof(long) * EXEC_COUNT);
+    double sum = 0, sq = 0, mean;
+    long min_step = -1, step;
+
+    for (int pass = 0; pass < 2; pass++) {
+        for (int i = 0; i < EXEC_COUNT; i++) {
+            clock_gettime(CLOCK_MONOTONIC_RAW, &start);
+            clock_gettime(CLOCK_MONOTONIC_RAW, &end);
+            times[i] = (end.tv_sec - start.tv_sec) * 1e9;
+            times[i] += (end.tv_nsec - start.tv_nsec);
+        }
+    }
+    for (int i = 0; i < EXEC_COUNT; i++) {
+        sum += times[i];
+    }
+    mean = sum / EXEC_COUNT;
+    for (int i = 0; i < EXEC_COUNT; i++) {
+        sq += (times[i] - mean) * (times[i] - mean);
+    }
+    for (int i = 0; i < 1000; i++) {
+        clock_gettime(CLOCK_MONOTONIC_RAW, &start);
+        do {
+            clock_gettime(CLOCK_MONOTONIC_RAW, &end);
+            step = (end.tv_sec - start.tv_sec) * 1000000000L + (end.tv_nsec - start.tv_nsec);
+        } while (step == 0);
+        if (min_step < 0 || step < min_step) {
+            min_step = step;
+        }
+    }
+    /* The clock's own claim, for comparison; usually 1 ns. */
+    clock_getres(CLOCK_MONOTONIC_RAW, &res);
+    printf("clock_gettime: overhead %.1f ns, resolution %ld ns (clock_getres %ld ns)\n",
+            mean, min_step, res.tv_nsec);
+
+    qsort(times, EXEC_COUNT, sizeof(long), compare_long);
+    FILE *fp = fopen("./prelim/c/timer.csv", "w");
+    if(fp == NULL)
+    {
+        printf("Error!");
+        exit(1);
+    }
+    fprintf(fp, "timer, count, overhead, stddev, p50, resolution\n");
+    fprintf(fp, "clock_gettime, %d, %.3f, %.3f, %ld, %ld\n",
+            EXEC_COUNT, mean, sqrt(sq / (EXEC_COUNT - 1)), times[EXEC_COUNT / 2], min_step);
+    fclose(fp);
+    free(times);
+}
+
+void run_experiment(char *op, int binary)
 {
     int idx;
     double val;
@@ -57,6 +153,7 @@ void run_experiment(char *op)
         mpfr_init_set_d(mys[i], ys[i], MPFR_RNDN);
     }
     mpfr_init(m_val);
+    calibrate_timer();
 
     if (strcmp(op, "add") == 0)
     {
@@ -272,8 +369,13 @@ void run_experiment(char *op)
     {
         printf("Invalid argument\n");
     }
-    print_measurements(op, mathTimes, "./prelim/c/math_");
-    print_measurements(op, mpfrTimes, "./prelim/c/mpfr_");
+    if (binary) {
+        write_measurements_bin(op, mathTimes, "./prelim/c/math_");
+        write_measurements_bin(op, mpfrTimes, "./prelim/c/mpfr_");
+    } else {
+        print_measurements(op, mathTimes, "./prelim/c/math_");
+        print_measurements(op, mpfrTimes, "./prelim/c/mpfr_");
+    }
     // Clean-up
     free(xs);
     free(ys);
@@ -289,11 +391,11 @@ void run_experiment(char *op)
 
 int main(int argc, char **argv)
 {
-    if (argc != 2) {
-        printf("Error: missing command line arguments\n");
+    if (argc != 2 && !(argc == 3 && strcmp(argv[2], "bin") == 0)) {
+        printf("Usage: fp_test <op> [bin]\n");
         return 1;
     }
     char *op = argv[1];
-    run_experiment(op);
+    run_experiment(op, argc == 3);
     return 0;
 }
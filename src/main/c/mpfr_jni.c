@@ -0,0 +1,62 @@
+/*
+ * JNI shim for dedis.fp.MpfrNative: exposes MPFR on preallocated mpfr_t
+ * handles so the Java side can compute into reusable result slots, the same
+ * way fp_test.c calls mpfr_add into a preallocated m_val.
+ */
+#include <stdint.h>
+#include <stdlib.h>
+#include <jni.h>
+#include <gmp.h>
+#include <mpfr.h>
+
+#define H(h) ((mpfr_ptr) (intptr_t) (h))
+
+JNIEXPORT jlong JNICALL Java_dedis_fp_MpfrNative_init(JNIEnv *env, jclass cls, jint precision)
+{
+    mpfr_ptr m = (mpfr_ptr) malloc(sizeof(mpfr_t));
+    if (m == NULL) {
+        return 0;
+    }
+    mpfr_init2(m, precision);
+    return (jlong) (intptr_t) m;
+}
+
+JNIEXPORT void JNICALL Java_dedis_fp_MpfrNative_clear(JNIEnv *env, jclass cls, jlong h)
+{
+    mpfr_clear(H(h));
+    free(H(h));
+}
+
+JNIEXPORT void JNICALL Java_dedis_fp_MpfrNative_set(JNIEnv *env, jclass cls, jlong h, jdouble x)
+{
+    mpfr_set_d(H(h), x, MPFR_RNDN);
+}
+
+JNIEXPORT jdouble JNICALL Java_dedis_fp_MpfrNative_get(JNIEnv *env, jclass cls, jlong h)
+{
+    return mpfr_get_d(H(h), MPFR_RNDN);
+}
+
+#define BINARY_OP(name) \
+JNIEXPORT void JNICALL Java_dedis_fp_MpfrNative_##name(JNIEnv *env, jclass cls, jlong r, jlong x, jlong y) \
+{ \
+    mpfr_##name(H(r), H(x), H(y), MPFR_RNDN); \
+}
+
+#define UNARY_OP(name) \
+JNIEXPORT void JNICALL Java_dedis_fp_MpfrNative_##name(JNIEnv *env, jclass cls, jlong r, jlong x) \
+{ \
+    mpfr_##name(H(r), H(x), MPFR_RNDN); \
+}
+
+BINARY_OP(add)
+BINARY_OP(sub)
+BINARY_OP(mul)
+BINARY_OP(div)
+BINARY_OP(pow)
+UNARY_OP(sqrt)
+UNARY_OP(log)
+UNARY_OP(exp)
+UNARY_OP(sin)
+UNARY_OP(cos)
+UNARY_OP(tan)
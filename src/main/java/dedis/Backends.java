@@ -0,0 +1,116 @@
+package dedis.fp;
+
+import org.kframework.mpfr.BinaryMathContext;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class Backends {
+
+    public static final BinaryMathContext MC = BinaryMathContext.BINARY64.withRoundingMode(RoundingMode.HALF_EVEN);
+
+    public static final FloatBackend<?> MATH = new MathBackend();
+    public static final FloatBackend<?> SMATH = new StrictMathBackend();
+    public static final FloatBackend<?> MPFR = new MpfrBackend(MC);
+    public static final FloatBackend<?> MF = new MicroDoubleBackend();
+    // Needs libfpmpfr (src/main/c/Makefile) on java.library.path; null otherwise.
+    public static final FloatBackend<?> MPFR_SLOTS = MpfrNative.AVAILABLE ? new MpfrSlotBackend(MC.precision) : null;
+
+    public static final FloatBackend<?> DMATH = new DetMathBackend();
+    public static final FloatBackend<?> HYBRID = new HybridBackend(MC);
+    // Needs JDK 22+, the src/main/java22 classes and libmpfr on the library
+    // path; null otherwise.
+    public static final FloatBackend<?> MPFR_FFM = mpfrFfm();
+    public static final FloatBackend<?> FIXED = new FixedBackend();
+    public static final FloatBackend<?> FIXED128 = new Fixed128Backend();
+    public static final FloatBackend<?> SF = new SoftDoubleBackend();
+
+    // -Dfptest.backends=math,mpfr,... limits forOp to those backends; unset
+    // means all available ones.
+    private static final String SELECTED = System.getProperty("fptest.backends", "all");
+
+    private static final List<FloatBackend<?>> ALL = available(MATH, SMATH, MPFR, MF, MPFR_SLOTS, DMATH, HYBRID, MPFR_FFM,
+            FIXED, FIXED128, SF);
+
+    private Backends() {
+    }
+
+    // MpfrFfmBackend is compiled separately with --release 22, so it is only
+    // looked up by name, and only on a JDK that can link java.lang.foreign.
+    private static FloatBackend<?> mpfrFfm() {
+        if (Runtime.version().feature() < 22) {
+            return null;
+        }
+        try {
+            return (FloatBackend<?>) Class.forName("dedis.fp.MpfrFfmBackend")
+                    .getDeclaredMethod("create", int.class)
+                    .invoke(null, MC.precision);
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<FloatBackend<?>> available(FloatBackend<?>... backends) {
+        List<FloatBackend<?>> out = new ArrayList<>();
+        for (FloatBackend<?> b : backends) {
+            if (b != null) {
+                out.add(b);
+            }
+        }
+        return Collections.unmodifiableList(out);
+    }
+
+    public static List<FloatBackend<?>> all() {
+        return ALL;
+    }
+
+    public static FloatBackend<?> byName(String name) {
+        for (FloatBackend<?> b : ALL) {
+            if (b.name().equals(name)) {
+                return b;
+            }
+        }
+        throw new IllegalArgumentException("Unknown backend: " + name);
+    }
+
+    // The add/sub/mul/div of StrictMath, DetMath and the hybrid are the same
+    // bytecodes as Math's, so they are not measured again.
+    public static List<FloatBackend<?>> forOp(Op op) {
+        List<FloatBackend<?>> out = new ArrayList<>();
+        for (FloatBackend<?> b : ALL) {
+            if (op.isPrimitive() && (b == SMATH || b == DMATH || b == HYBRID)) {
+                continue;
+            }
+            if (!b.supports(op)) {
+                continue;
+            }
+            if (!SELECTED.equals("all") && !List.of(SELECTED.split(",")).contains(b.name())) {
+                continue;
+            }
+            out.add(b);
+        }
+        return out;
+    }
+
+    // Backends that implement every op of the kernel and that forOp measures
+    // for at least one of them.
+    public static List<FloatBackend<?>> forKernel(Kernel kernel) {
+        List<FloatBackend<?>> out = new ArrayList<>();
+        for (FloatBackend<?> b : ALL) {
+            boolean measured = false;
+            boolean supported = true;
+            for (Op op : kernel.ops()) {
+                measured |= forOp(op).contains(b);
+                supported &= b.supports(op);
+            }
+            if (measured && supported) {
+                out.add(b);
+            }
+        }
+        return out;
+    }
+}
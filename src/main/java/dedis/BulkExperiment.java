@@ -0,0 +1,69 @@
+package dedis.fp;
+
+import com.google.common.math.Stats;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+// Times one op over whole arrays, for sizes from INPUT_COUNT up to maxSize in
+// steps of 10x, for every BulkOps implementation that supports the op. Each
+// row first runs whole passes under Warmup, counting elements as ops, so small
+// arrays are timed in C2 code too rather than after a fixed few passes.
+final class BulkExperiment {
+
+    static final int MIN_PASSES = 5;
+
+    private BulkExperiment() {
+    }
+
+    public static void run(String fname, int maxSize, InputProfile profile, long seed) throws IOException {
+        final Op op = Op.fromName(fname);
+        final SplittableRandom random = new SplittableRandom(seed);
+        String out = FPTest.statsFile(fname, profile, "_bulk");
+        FileWriter writer = new FileWriter(out);
+        for (long size = FPTest.INPUT_COUNT; size <= maxSize; size *= 10) {
+            final int n = (int) size;
+            final double[] xs = new double[n];
+            final double[] ys = new double[n];
+            final double[] results = new double[n];
+            profile.fill(random, xs, ys);
+            // Enough passes to cover EXEC_COUNT elements at small sizes.
+            final int passes = Math.max(MIN_PASSES, FPTest.EXEC_COUNT / n);
+            for (BulkOps ops : BulkOps.all()) {
+                if (ops.supports(op)) {
+                    writer.write(time(fname, op, ops, xs, ys, results, passes));
+                }
+            }
+        }
+        writer.close();
+    }
+
+    // Columns: op, implementation, array size, ns/element (stddev over
+    // passes), elements/sec.
+    private static String time(String fname, Op op, BulkOps ops, double[] xs, double[] ys, double[] out, int passes) {
+        long start;
+        long end;
+        final long[] times = new long[passes];
+        Warmup.run(ops.name(), (from, count) -> {
+            long t = System.nanoTime();
+            ops.apply(op, xs, ys, out);
+            return System.nanoTime() - t;
+        }, out.length, FPTest.WARMUP_COUNT, out.length);
+        for (int p = 0; p < passes; p++) {
+            start = System.nanoTime();
+            ops.apply(op, xs, ys, out);
+            end = System.nanoTime();
+            times[p] = end - start;
+        }
+        Stats stat = Stats.of(times);
+        double nsPerElem = stat.mean() / out.length;
+        return String.format("%s, %s, %d, %.3f (%f), %.0f\n",
+                fname,
+                ops.name(),
+                out.length,
+                nsPerElem,
+                stat.sampleStandardDeviation() / out.length,
+                1e9 / nsPerElem);
+    }
+}
@@ -0,0 +1,74 @@
+package dedis.fp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The op set applied element-wise over arrays. Every method processes
+// out.length elements; inputs must be at least that long.
+public interface BulkOps {
+
+    String name();
+
+    void add(double[] a, double[] b, double[] out);
+
+    void sub(double[] a, double[] b, double[] out);
+
+    void mul(double[] a, double[] b, double[] out);
+
+    void div(double[] a, double[] b, double[] out);
+
+    void pow(double[] a, double[] b, double[] out);
+
+    void sqrt(double[] in, double[] out);
+
+    void log(double[] in, double[] out);
+
+    void exp(double[] in, double[] out);
+
+    void sin(double[] in, double[] out);
+
+    void cos(double[] in, double[] out);
+
+    void tan(double[] in, double[] out);
+
+    // Ops with a loop of this implementation's own; BulkExperiment skips the
+    // rest rather than report another implementation's loop under this name.
+    default boolean supports(Op op) {
+        return true;
+    }
+
+    default void apply(Op op, double[] a, double[] b, double[] out) {
+        switch (op) {
+            case ADD: add(a, b, out); break;
+            case SUB: sub(a, b, out); break;
+            case MUL: mul(a, b, out); break;
+            case DIV: div(a, b, out); break;
+            case POW: pow(a, b, out); break;
+            case SQRT: sqrt(a, out); break;
+            case LOG: log(a, out); break;
+            case EXP: exp(a, out); break;
+            case SIN: sin(a, out); break;
+            case COS: cos(a, out); break;
+            case TAN: tan(a, out); break;
+            default: throw new IllegalArgumentException("Unknown op: " + op);
+        }
+    }
+
+    static boolean vectorAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    // Everything BulkExperiment compares: the scalar Math and MicroDouble
+    // loops, StrictMath, DetMath, and the Vector API when the module is present.
+    static List<BulkOps> all() {
+        List<BulkOps> out = new ArrayList<>();
+        out.add(new MathBulkOps());
+        out.add(new StrictMathBulkOps());
+        out.add(new DetMathBulkOps());
+        if (vectorAvailable()) {
+            out.add(new VectorBulkOps());
+        }
+        out.add(new MicroDoubleBulkOps());
+        return out;
+    }
+}
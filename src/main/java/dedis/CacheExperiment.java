@@ -0,0 +1,114 @@
+package dedis.fp;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Replays a Zipf-distributed stream over DISTINCT_INPUTS input pairs through
+// each backend, uncached and then behind CachedBackend at capacities from
+// MIN_CAPACITY up to maxCapacity in steps of 4x. Only binary64 backends can
+// be cached, so the others are left out.
+final class CacheExperiment {
+
+    static final int DISTINCT_INPUTS = 1 << 16;
+    static final int STREAM_LENGTH = 1 << 20;
+    static final double ZIPF_EXPONENT = 1.0;
+    static final int MIN_CAPACITY = 1 << 8;
+    static final int BATCH_SIZE = 1000;
+    static final int PASSES = 3;
+
+    private CacheExperiment() {
+    }
+
+    public static void run(String fname, int maxCapacity, InputProfile profile, long seed) throws IOException {
+        final Op op = Op.fromName(fname);
+        final double[][] pool = profile.generate(seed, DISTINCT_INPUTS);
+        final int[] stream = zipf(new SplittableRandom(seed ^ 0x9E3779B97F4A7C15L), DISTINCT_INPUTS, ZIPF_EXPONENT, STREAM_LENGTH);
+        final double[] xs = new double[STREAM_LENGTH];
+        final double[] ys = new double[STREAM_LENGTH];
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            xs[i] = pool[0][stream[i]];
+            ys[i] = pool[1][stream[i]];
+        }
+
+        // Columns: op, backend, capacity (0 = uncached), ns/op, speedup over
+        // uncached, hit rate, evictions.
+        final List<FloatBackend<?>> backends = Backends.forOp(op);
+        String out = FPTest.statsFile(fname, profile, "_cache");
+        FileWriter writer = new FileWriter(out);
+        for (FloatBackend<?> backend : backends) {
+            if (!backend.binary64()) {
+                continue;
+            }
+            double base = time(backend, op, xs, ys, null);
+            writer.write(String.format("%s, %s, %d, %.3f, %.2f, , \n", fname, backend.name(), 0, base, 1.0));
+            for (int capacity = MIN_CAPACITY; capacity <= maxCapacity; capacity *= 4) {
+                long[] stats = new long[3];
+                double nsPerOp = time(CachedBackend.of(backend, capacity), op, xs, ys, stats);
+                writer.write(String.format("%s, %s, %d, %.3f, %.2f, %.4f, %d\n",
+                        fname,
+                        backend.name(),
+                        capacity,
+                        nsPerOp,
+                        base / nsPerOp,
+                        (double) stats[0] / (stats[0] + stats[1]),
+                        stats[2]));
+            }
+        }
+        writer.close();
+    }
+
+    // ns/op over PASSES replays of the stream, after one warmup replay that
+    // also fills the cache. For a CachedBackend, stats gets the hits, misses
+    // and evictions of the timed replays only.
+    private static double time(FloatBackend<?> backend, Op op, double[] xs, double[] ys, long[] stats) {
+        Driver driver = Drivers.create(backend, op, xs, ys);
+        for (int from = 0; from < xs.length; from += BATCH_SIZE) {
+            driver.timeBatch(from, BATCH_SIZE);
+        }
+        long[] warm = stats == null ? null : ((CachedBackend<?>) backend).stats();
+        long total = 0;
+        long ops = 0;
+        for (int p = 0; p < PASSES; p++) {
+            for (int from = 0; from < xs.length; from += BATCH_SIZE) {
+                total += driver.timeBatch(from, BATCH_SIZE);
+                ops += BATCH_SIZE;
+            }
+        }
+        if (stats != null) {
+            long[] end = ((CachedBackend<?>) backend).stats();
+            for (int i = 0; i < stats.length; i++) {
+                stats[i] = end[i] - warm[i];
+            }
+        }
+        return (double) total / ops;
+    }
+
+    // Indices in [0, n) with P(k) proportional to 1 / (k + 1)^exponent, drawn
+    // by inverse CDF.
+    static int[] zipf(SplittableRandom random, int n, double exponent, int length) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / StrictMath.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        int[] out = new int[length];
+        for (int i = 0; i < length; i++) {
+            double u = random.nextDouble() * sum;
+            int lo = 0;
+            int hi = n - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cdf[mid] < u) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            out[i] = lo;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,194 @@
+package dedis.fp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Memoizes the library ops (sqrt and up) of a binary64 backend in a per-thread
+// ResultCache, keyed on the double bits of the inputs. Hits rebuild the
+// result with fromDouble, which is only exact for binary64 backends, so
+// others are refused. add/sub/mul/div are cheaper than a lookup and pass
+// straight through.
+//
+// Each experiment makes its own CachedBackend, so the per-thread instances it
+// hands out, which stats() sums, go away with it.
+final class CachedBackend<T> implements FloatBackend<T> {
+
+    private final FloatBackend<T> backend;
+    private final int capacity;
+    private final ResultCache cache;
+    private final List<CachedBackend<T>> instances;
+
+    CachedBackend(FloatBackend<T> backend, int capacity) {
+        this(backend, capacity, new ArrayList<>());
+    }
+
+    private CachedBackend(FloatBackend<T> backend, int capacity, List<CachedBackend<T>> instances) {
+        if (!backend.binary64()) {
+            throw new IllegalArgumentException(backend.name() + " values do not round-trip through double");
+        }
+        this.backend = backend;
+        this.capacity = capacity;
+        this.cache = new ResultCache(capacity);
+        this.instances = instances;
+        synchronized (instances) {
+            instances.add(this);
+        }
+    }
+
+    static <T> CachedBackend<T> of(FloatBackend<T> backend, int capacity) {
+        return new CachedBackend<>(backend, capacity);
+    }
+
+    @Override
+    public String name() {
+        return backend.name() + "_cache";
+    }
+
+    @Override
+    public boolean supports(Op op) {
+        return backend.supports(op);
+    }
+
+    @Override
+    public FloatBackend<T> perThread() {
+        return new CachedBackend<>(backend.perThread(), capacity, instances);
+    }
+
+    // Hits, misses and evictions over all instances.
+    long[] stats() {
+        long[] out = new long[3];
+        synchronized (instances) {
+            for (CachedBackend<T> b : instances) {
+                out[0] += b.cache.hits;
+                out[1] += b.cache.misses;
+                out[2] += b.cache.evictions;
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public T fromDouble(double x) {
+        return backend.fromDouble(x);
+    }
+
+    @Override
+    public double toDouble(T x) {
+        return backend.toDouble(x);
+    }
+
+    @Override
+    public T[] newArray(int length) {
+        return backend.newArray(length);
+    }
+
+    @Override
+    public long consume(T x) {
+        return backend.consume(x);
+    }
+
+    @Override
+    public T add(T x, T y) {
+        return backend.add(x, y);
+    }
+
+    @Override
+    public T sub(T x, T y) {
+        return backend.sub(x, y);
+    }
+
+    @Override
+    public T mul(T x, T y) {
+        return backend.mul(x, y);
+    }
+
+    @Override
+    public T div(T x, T y) {
+        return backend.div(x, y);
+    }
+
+    @Override
+    public T sqrt(T x) {
+        double dx = backend.toDouble(x);
+        int slot = cache.find(Op.SQRT, dx, 0.0);
+        if (slot >= 0) {
+            return backend.fromDouble(cache.value(slot));
+        }
+        T result = backend.sqrt(x);
+        cache.put(Op.SQRT, dx, 0.0, backend.toDouble(result));
+        return result;
+    }
+
+    @Override
+    public T log(T x) {
+        double dx = backend.toDouble(x);
+        int slot = cache.find(Op.LOG, dx, 0.0);
+        if (slot >= 0) {
+            return backend.fromDouble(cache.value(slot));
+        }
+        T result = backend.log(x);
+        cache.put(Op.LOG, dx, 0.0, backend.toDouble(result));
+        return result;
+    }
+
+    @Override
+    public T exp(T x) {
+        double dx = backend.toDouble(x);
+        int slot = cache.find(Op.EXP, dx, 0.0);
+        if (slot >= 0) {
+            return backend.fromDouble(cache.value(slot));
+        }
+        T result = backend.exp(x);
+        cache.put(Op.EXP, dx, 0.0, backend.toDouble(result));
+        return result;
+    }
+
+    @Override
+    public T pow(T x, T y) {
+        double dx = backend.toDouble(x);
+        double dy = backend.toDouble(y);
+        int slot = cache.find(Op.POW, dx, dy);
+        if (slot >= 0) {
+            return backend.fromDouble(cache.value(slot));
+        }
+        T result = backend.pow(x, y);
+        cache.put(Op.POW, dx, dy, backend.toDouble(result));
+        return result;
+    }
+
+    @Override
+    public T sin(T x) {
+        double dx = backend.toDouble(x);
+        int slot = cache.find(Op.SIN, dx, 0.0);
+        if (slot >= 0) {
+            return backend.fromDouble(cache.value(slot));
+        }
+        T result = backend.sin(x);
+        cache.put(Op.SIN, dx, 0.0, backend.toDouble(result));
+        return result;
+    }
+
+    @Override
+    public T cos(T x) {
+        double dx = backend.toDouble(x);
+        int slot = cache.find(Op.COS, dx, 0.0);
+        if (slot >= 0) {
+            return backend.fromDouble(cache.value(slot));
+        }
+        T result = backend.cos(x);
+        cache.put(Op.COS, dx, 0.0, backend.toDouble(result));
+        return result;
+    }
+
+    @Override
+    public T tan(T x) {
+        double dx = backend.toDouble(x);
+        int slot = cache.find(Op.TAN, dx, 0.0);
+        if (slot >= 0) {
+            return backend.fromDouble(cache.value(slot));
+        }
+        T result = backend.tan(x);
+        cache.put(Op.TAN, dx, 0.0, backend.toDouble(result));
+        return result;
+    }
+}
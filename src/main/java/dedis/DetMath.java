@@ -0,0 +1,884 @@
+package dedis.fp;
+
+// Pure-Java log/exp/pow/sin/cos/tan on primitive doubles. Only IEEE basic
+// ops, Math.fma and Math.rint are used, all of which Java specifies exactly,
+// so results are bit-identical on every JVM and platform.
+//
+// Every function reduces its argument against a 128-entry table, evaluates a
+// short polynomial and carries the result as a double-double until one final
+// rounding. The error before that rounding is below the *_ERROR bounds, so
+// results are correctly rounded except for inputs within that distance of a
+// rounding boundary; Verifier counts those against MPFR. sin/cos/tan hand
+// |x| >= TRIG_LIMIT to StrictMath (fdlibm), which is deterministic but only
+// faithfully rounded.
+//
+// The checked* variants serve HybridBackend: they return UNSAFE instead of a
+// result whenever the error bound around the double-double could straddle a
+// rounding boundary, and for the StrictMath and subnormal cases.
+//
+// Tables hold (hi, lo) splits of the exact values, generated with 80-digit
+// arithmetic.
+public final class DetMath {
+
+    static final int TABLE_BITS = 7;
+    static final int TABLE_SIZE = 1 << TABLE_BITS;
+
+    static final double INV_LN2_N = 0x1.71547652b82fep+7;
+    static final double LN2_N_1 = 0x1.62e42fef80000p-8;
+    static final double LN2_N_2 = 0x1.1cf79abc80000p-43;
+    static final double LN2_N_3 = 0x1.e3b39803f2f6bp-79;
+    static final double LN2_HI = 0x1.62e42fefa3800p-1;
+    static final double LN2_LO = 0x1.ef35793c76730p-45;
+    static final double INV_PIO64 = 0x1.45f306dc9c883p+4;
+    static final double PIO64_1 = 0x1.921fb54400000p-5;
+    static final double PIO64_2 = 0x1.0b4611a600000p-39;
+    static final double PIO64_3 = 0x1.3198a2e000000p-74;
+    static final double PIO64_4 = 0x1.b839a252049c1p-109;
+
+    // exp(x) overflows above EXP_OVERFLOW and rounds to zero below EXP_UNDERFLOW
+    static final double EXP_OVERFLOW = 0x1.62e42fefa39fp+9;
+    static final double EXP_UNDERFLOW = -0x1.74910d52d3052p+9;
+    static final double TRIG_LIMIT = 0x1.92p+15;
+    static final double TWO_52 = 0x1.0p+52;
+    // Relative error of the double-double before its final rounding: worst
+    // cases measured against 70-digit references were 2^-68.9 (exp, log),
+    // 2^-62.6 (sin, cos, tan) and 2^-61.3 (pow), plus two bits of margin
+    static final double EXP_LOG_ERROR = 0x1.0p-66;
+    static final double TRIG_ERROR = 0x1.0p-60;
+    static final double POW_ERROR = 0x1.0p-59;
+    // A quiet NaN payload no arithmetic produces; test with isUnsafe
+    static final long UNSAFE_BITS = 0x7ff80000000dead1L;
+    static final double UNSAFE = Double.longBitsToDouble(UNSAFE_BITS);
+    // Bits of ~0.7071: log normalizes its argument into [LOG_OFF, 2 * LOG_OFF)
+    static final long LOG_OFF = 0x3fe6955500000000L;
+
+    // Taylor coefficients of e^r, log1p(r), sin(r) and cos(r)
+    static final double E2 = 1.0 / 2;
+    static final double E3 = 1.0 / 6;
+    static final double E4 = 1.0 / 24;
+    static final double E5 = 1.0 / 120;
+    static final double E6 = 1.0 / 720;
+    static final double L3 = 1.0 / 3;
+    static final double L4 = -1.0 / 4;
+    static final double L5 = 1.0 / 5;
+    static final double L6 = -1.0 / 6;
+    static final double L7 = 1.0 / 7;
+    static final double L8 = -1.0 / 8;
+    static final double L9 = 1.0 / 9;
+    static final double L10 = -1.0 / 10;
+    static final double S3 = -1.0 / 6;
+    static final double S5 = 1.0 / 120;
+    static final double S7 = -1.0 / 5040;
+    static final double S9 = 1.0 / 362880;
+    static final double C2 = -1.0 / 2;
+    static final double C4 = 1.0 / 24;
+    static final double C6 = -1.0 / 720;
+    static final double C8 = 1.0 / 40320;
+    static final double C10 = -1.0 / 3628800;
+
+    // 2^(j/128) as (hi, lo)
+    static final double[] EXP_TABLE = {
+            0x1.0000000000000p+0, 0.0,
+            0x1.0163da9fb3335p+0, 0x1.b61299ab8cdb7p-54,
+            0x1.02c9a3e778061p+0, -0x1.19083535b085dp-56,
+            0x1.04315e86e7f85p+0, -0x1.0a31c1977c96ep-54,
+            0x1.059b0d3158574p+0, 0x1.d73e2a475b465p-55,
+            0x1.0706b29ddf6dep+0, -0x1.c91dfe2b13c27p-55,
+            0x1.0874518759bc8p+0, 0x1.186be4bb284ffp-57,
+            0x1.09e3ecac6f383p+0, 0x1.1487818316136p-54,
+            0x1.0b5586cf9890fp+0, 0x1.8a62e4adc610bp-54,
+            0x1.0cc922b7247f7p+0, 0x1.01edc16e24f71p-54,
+            0x1.0e3ec32d3d1a2p+0, 0x1.03a1727c57b53p-59,
+            0x1.0fb66affed31bp+0, -0x1.b9bedc44ebd7bp-57,
+            0x1.11301d0125b51p+0, -0x1.6c51039449b3ap-54,
+            0x1.12abdc06c31ccp+0, -0x1.1b514b36ca5c7p-58,
+            0x1.1429aaea92de0p+0, -0x1.32fbf9af1369ep-54,
+            0x1.15a98c8a58e51p+0, 0x1.2406ab9eeab0ap-55,
+            0x1.172b83c7d517bp+0, -0x1.19041b9d78a76p-55,
+            0x1.18af9388c8deap+0, -0x1.11023d1970f6cp-54,
+            0x1.1a35beb6fcb75p+0, 0x1.e5b4c7b4968e4p-55,
+            0x1.1bbe084045cd4p+0, -0x1.95386352ef607p-54,
+            0x1.1d4873168b9aap+0, 0x1.e016e00a2643cp-54,
+            0x1.1ed5022fcd91dp+0, -0x1.1df98027bb78cp-54,
+            0x1.2063b88628cd6p+0, 0x1.dc775814a8495p-55,
+            0x1.21f49917ddc96p+0, 0x1.2a97e9494a5eep-55,
+            0x1.2387a6e756238p+0, 0x1.9b07eb6c70573p-54,
+            0x1.251ce4fb2a63fp+0, 0x1.ac155bef4f4a4p-55,
+            0x1.26b4565e27cddp+0, 0x1.2bd339940e9d9p-55,
+            0x1.284dfe1f56381p+0, -0x1.a4c3a8c3f0d7ep-54,
+            0x1.29e9df51fdee1p+0, 0x1.612e8afad1255p-55,
+            0x1.2b87fd0dad990p+0, -0x1.10adcd6381aa4p-59,
+            0x1.2d285a6e4030bp+0, 0x1.0024754db41d5p-54,
+            0x1.2ecafa93e2f56p+0, 0x1.1ca0f45d52383p-56,
+            0x1.306fe0a31b715p+0, 0x1.6f46ad23182e4p-55,
+            0x1.32170fc4cd831p+0, 0x1.a9ce78e18047cp-55,
+            0x1.33c08b26416ffp+0, 0x1.32721843659a6p-54,
+            0x1.356c55f929ff1p+0, -0x1.b5cee5c4e4628p-55,
+            0x1.371a7373aa9cbp+0, -0x1.63aeabf42eae2p-54,
+            0x1.38cae6d05d866p+0, -0x1.e958d3c9904bdp-54,
+            0x1.3a7db34e59ff7p+0, -0x1.5e436d661f5e3p-56,
+            0x1.3c32dc313a8e5p+0, -0x1.efff8375d29c3p-54,
+            0x1.3dea64c123422p+0, 0x1.ada0911f09ebcp-55,
+            0x1.3fa4504ac801cp+0, -0x1.7d023f956f9f3p-54,
+            0x1.4160a21f72e2ap+0, -0x1.ef3691c309278p-58,
+            0x1.431f5d950a897p+0, -0x1.1c7dde35f7999p-55,
+            0x1.44e086061892dp+0, 0x1.89b7a04ef80d0p-59,
+            0x1.46a41ed1d0057p+0, 0x1.c944bd1648a76p-54,
+            0x1.486a2b5c13cd0p+0, 0x1.3c1a3b69062f0p-56,
+            0x1.4a32af0d7d3dep+0, 0x1.9cb62f3d1be56p-54,
+            0x1.4bfdad5362a27p+0, 0x1.d4397afec42e2p-56,
+            0x1.4dcb299fddd0dp+0, 0x1.8ecdbbc6a7833p-54,
+            0x1.4f9b2769d2ca7p+0, -0x1.4b309d25957e3p-54,
+            0x1.516daa2cf6642p+0, -0x1.f768569bd93efp-55,
+            0x1.5342b569d4f82p+0, -0x1.07abe1db13cadp-55,
+            0x1.551a4ca5d920fp+0, -0x1.d689cefede59bp-55,
+            0x1.56f4736b527dap+0, 0x1.9bb2c011d93adp-54,
+            0x1.58d12d497c7fdp+0, 0x1.295e15b9a1de8p-55,
+            0x1.5ab07dd485429p+0, 0x1.6324c054647adp-54,
+            0x1.5c9268a5946b7p+0, 0x1.c4b1b816986a2p-60,
+            0x1.5e76f15ad2148p+0, 0x1.ba6f93080e65ep-54,
+            0x1.605e1b976dc09p+0, -0x1.3e2429b56de47p-54,
+            0x1.6247eb03a5585p+0, -0x1.383c17e40b497p-54,
+            0x1.6434634ccc320p+0, -0x1.c483c759d8933p-55,
+            0x1.6623882552225p+0, -0x1.bb60987591c34p-54,
+            0x1.68155d44ca973p+0, 0x1.038ae44f73e65p-57,
+            0x1.6a09e667f3bcdp+0, -0x1.bdd3413b26456p-54,
+            0x1.6c012750bdabfp+0, -0x1.2895667ff0b0dp-56,
+            0x1.6dfb23c651a2fp+0, -0x1.bbe3a683c88abp-57,
+            0x1.6ff7df9519484p+0, -0x1.83c0f25860ef6p-55,
+            0x1.71f75e8ec5f74p+0, -0x1.16e4786887a99p-55,
+            0x1.73f9a48a58174p+0, -0x1.0a8d96c65d53cp-54,
+            0x1.75feb564267c9p+0, -0x1.0245957316dd3p-54,
+            0x1.780694fde5d3fp+0, 0x1.866b80a02162dp-54,
+            0x1.7a11473eb0187p+0, -0x1.41577ee04992fp-55,
+            0x1.7c1ed0130c132p+0, 0x1.f124cd1164dd6p-54,
+            0x1.7e2f336cf4e62p+0, 0x1.05d02ba15797ep-56,
+            0x1.80427543e1a12p+0, -0x1.27c86626d972bp-54,
+            0x1.82589994cce13p+0, -0x1.d4c1dd41532d8p-54,
+            0x1.8471a4623c7adp+0, -0x1.8d684a341cdfbp-55,
+            0x1.868d99b4492edp+0, -0x1.fc6f89bd4f6bap-54,
+            0x1.88ac7d98a6699p+0, 0x1.994c2f37cb53ap-54,
+            0x1.8ace5422aa0dbp+0, 0x1.6e9f156864b27p-54,
+            0x1.8cf3216b5448cp+0, -0x1.0d55e32e9e3aap-56,
+            0x1.8f1ae99157736p+0, 0x1.5cc13a2e3976cp-55,
+            0x1.9145b0b91ffc6p+0, -0x1.dd6792e582524p-54,
+            0x1.93737b0cdc5e5p+0, -0x1.75fc781b57ebcp-57,
+            0x1.95a44cbc8520fp+0, -0x1.64b7c96a5f039p-56,
+            0x1.97d829fde4e50p+0, -0x1.d185b7c1b85d1p-54,
+            0x1.9a0f170ca07bap+0, -0x1.173bd91cee632p-54,
+            0x1.9c49182a3f090p+0, 0x1.c7c46b071f2bep-56,
+            0x1.9e86319e32323p+0, 0x1.824ca78e64c6ep-56,
+            0x1.a0c667b5de565p+0, -0x1.359495d1cd533p-54,
+            0x1.a309bec4a2d33p+0, 0x1.6305c7ddc36abp-54,
+            0x1.a5503b23e255dp+0, -0x1.d2f6edb8d41e1p-54,
+            0x1.a799e1330b358p+0, 0x1.bcb7ecac563c7p-54,
+            0x1.a9e6b5579fdbfp+0, 0x1.0fac90ef7fd31p-54,
+            0x1.ac36bbfd3f37ap+0, -0x1.f9234cae76cd0p-55,
+            0x1.ae89f995ad3adp+0, 0x1.7a1cd345dcc81p-54,
+            0x1.b0e07298db666p+0, -0x1.bdef54c80e425p-54,
+            0x1.b33a2b84f15fbp+0, -0x1.2805e3084d708p-57,
+            0x1.b59728de5593ap+0, -0x1.c71dfbbba6de3p-54,
+            0x1.b7f76f2fb5e47p+0, -0x1.5584f7e54ac3bp-56,
+            0x1.ba5b030a1064ap+0, -0x1.efcd30e54292ep-54,
+            0x1.bcc1e904bc1d2p+0, 0x1.23dd07a2d9e84p-55,
+            0x1.bf2c25bd71e09p+0, -0x1.efdca3f6b9c73p-54,
+            0x1.c199bdd85529cp+0, 0x1.11065895048ddp-55,
+            0x1.c40ab5fffd07ap+0, 0x1.b4537e083c60ap-54,
+            0x1.c67f12e57d14bp+0, 0x1.2884dff483cadp-54,
+            0x1.c8f6d9406e7b5p+0, 0x1.1acbc48805c44p-56,
+            0x1.cb720dcef9069p+0, 0x1.503cbd1e949dbp-56,
+            0x1.cdf0b555dc3fap+0, -0x1.dd83b53829d72p-55,
+            0x1.d072d4a07897cp+0, -0x1.cbc3743797a9cp-54,
+            0x1.d2f87080d89f2p+0, -0x1.d487b719d8578p-54,
+            0x1.d5818dcfba487p+0, 0x1.2ed02d75b3707p-55,
+            0x1.d80e316c98398p+0, -0x1.11ec18beddfe8p-54,
+            0x1.da9e603db3285p+0, 0x1.c2300696db532p-54,
+            0x1.dd321f301b460p+0, 0x1.2da5778f018c3p-54,
+            0x1.dfc97337b9b5fp+0, -0x1.1a5cd4f184b5cp-54,
+            0x1.e264614f5a129p+0, -0x1.7b627817a1496p-54,
+            0x1.e502ee78b3ff6p+0, 0x1.39e8980a9cc8fp-55,
+            0x1.e7a51fbc74c83p+0, 0x1.2d522ca0c8de2p-54,
+            0x1.ea4afa2a490dap+0, -0x1.e9c23179c2893p-54,
+            0x1.ecf482d8e67f1p+0, -0x1.c93f3b411ad8cp-54,
+            0x1.efa1bee615a27p+0, 0x1.dc7f486a4b6b0p-54,
+            0x1.f252b376bba97p+0, 0x1.3a1a5bf0d8e43p-54,
+            0x1.f50765b6e4540p+0, 0x1.9d3e12dd8a18bp-54,
+            0x1.f7bfdad9cbe14p+0, -0x1.dbb12d006350ap-54,
+            0x1.fa7c1819e90d8p+0, 0x1.74853f3a5931ep-55,
+            0x1.fd3c22b8f71f1p+0, 0x1.2eb74966579e7p-57,
+    };
+
+    // Per bin i of [LOG_OFF, 2 * LOG_OFF): invc ~ 1/c for c near the middle of
+    // the bin (exactly 1 for the bin holding 1.0), and -log(invc) as (hi, lo)
+    static final double[] LOG_TABLE = {
+            0x1.69be8c81fb00cp+0, -0x1.620ef9ac6aa7cp-2, 0x1.7d5edf2436028p-56,
+            0x1.67c22fe4dcddap+0, -0x1.5c6bfa1131b89p-2, 0x1.5accf53e0fb97p-56,
+            0x1.65cb6049c63c4p+0, -0x1.56d0e0c69c3a3p-2, 0x1.c6ff348765107p-57,
+            0x1.63da068aeb033p+0, -0x1.513d97c718e7ep-2, 0x1.dd1b3b0521ed4p-57,
+            0x1.61ee0c0281abbp+0, -0x1.4bb20968ac7e1p-2, 0x1.b1c420e7eb68ep-56,
+            0x1.60075a87531dbp+0, -0x1.462e205af89a2p-2, -0x1.32656a7abcfe8p-65,
+            0x1.5e25dc6966c26p+0, -0x1.40b1c7a55020fp-2, -0x1.da8ee8453da74p-56,
+            0x1.5c497c6ec9c1ap+0, -0x1.3b3ceaa4d8c01p-2, -0x1.175a194083e99p-62,
+            0x1.5a7225d070680p+0, -0x1.35cf750ab91c3p-2, -0x1.3b97926470308p-56,
+            0x1.589fc43730bf1p+0, -0x1.306952da53478p-2, -0x1.bf85e2d1f17a3p-56,
+            0x1.56d243b8d56c2p+0, -0x1.2b0a70678b1d0p-2, 0x1.aa5563d85c314p-56,
+            0x1.550990d547f30p+0, -0x1.25b2ba551821cp-2, 0x1.7ea05254c1a16p-56,
+            0x1.53459873d182dp+0, -0x1.20621d92e28ddp-2, -0x1.1798dfe721091p-56,
+            0x1.518647e0717edp+0, -0x1.1b18875c6b297p-2, -0x1.0e046c50d116ep-56,
+            0x1.4fcb8cc948f96p+0, -0x1.15d5e5373da29p-2, -0x1.1a371bf0ea155p-56,
+            0x1.4e15553c1a639p+0, -0x1.109a24f16d0e1p-2, -0x1.a3c61fb6a32a4p-58,
+            0x1.4c638fa3dcb8ep+0, -0x1.0b6534a01a428p-2, -0x1.37c1238e8b88bp-58,
+            0x1.4ab62ac66176cp+0, -0x1.0637029e03bf8p-2, -0x1.42b5d01e45f31p-57,
+            0x1.490d15c20cb76p+0, -0x1.010f7d8a1ed9dp-2, 0x1.0734ab1b69901p-56,
+            0x1.4768400b9ecd3p+0, -0x1.f7dd288c73c7dp-3, -0x1.355c9ac6293ddp-57,
+            0x1.45c7996c0ec27p+0, -0x1.eda86beb4e196p-3, -0x1.40ffc2a7e6d71p-59,
+            0x1.442b11fe75285p+0, -0x1.e380a3f7df699p-3, -0x1.862248039fdf5p-58,
+            0x1.42929a2e06a4dp+0, -0x1.d965aff71ff0bp-3, 0x1.4620b777f6583p-57,
+            0x1.40fe22b41db5ep+0, -0x1.cf576fa97461cp-3, -0x1.fccfea63fc024p-57,
+            0x1.3f6d9c965323ep+0, -0x1.c555c34844615p-3, -0x1.782b790e0a62bp-57,
+            0x1.3de0f924a4a53p+0, -0x1.bb608b83a0031p-3, 0x1.d9b800b01a214p-57,
+            0x1.3c5829f7a9375p+0, -0x1.b177a97ff3db0p-3, -0x1.a6d00bc3af246p-58,
+            0x1.3ad320eed2b70p+0, -0x1.a79afed3cb32dp-3, 0x1.6ec8f5499c79cp-57,
+            0x1.3951d02ebc479p+0, -0x1.9dca6d85a004bp-3, -0x1.ed1e85911c4a0p-57,
+            0x1.37d42a1f851a3p+0, -0x1.9405d809b84c5p-3, 0x1.4b038a142b56bp-58,
+            0x1.365a216b372dap+0, -0x1.8a4d214010533p-3, -0x1.6b818e66a5769p-59,
+            0x1.34e3a8fc39a0ap+0, -0x1.80a02c7251993p-3, -0x1.b4304ad16f8a7p-57,
+            0x1.3370b3fbce360p+0, -0x1.76fedd51d5fd8p-3, 0x1.05611f9784a98p-60,
+            0x1.320135d099ac2p+0, -0x1.6d6917f5b6cd2p-3, -0x1.549a64c679070p-65,
+            0x1.3095221d368ecp+0, -0x1.63dec0d8e7691p-3, 0x1.be5fe31a14be8p-58,
+            0x1.2f2c6cbed22b0p+0, -0x1.5a5fbcd85b285p-3, -0x1.39affd8c6a2a7p-58,
+            0x1.2dc709cbd3534p+0, -0x1.50ebf131362fbp-3, -0x1.ef67c0f42aa21p-57,
+            0x1.2c64ed928aa10p+0, -0x1.4783437f08e8dp-3, 0x1.1ea191ada8bbfp-60,
+            0x1.2b060c97ebe82p+0, -0x1.3e2599ba15d49p-3, 0x1.64522fe3737adp-57,
+            0x1.29aa5b9650907p+0, -0x1.34d2da35a16f4p-3, -0x1.04e39c61b7e42p-57,
+            0x1.2851cf7c428cdp+0, -0x1.2b8aeb9e4bdbdp-3, 0x1.f68c8827b01d1p-59,
+            0x1.26fc5d6b4fab4p+0, -0x1.224db4f87417bp-3, 0x1.e710e8a29df01p-57,
+            0x1.25a9fab6e4facp+0, -0x1.191b1d9ea4760p-3, -0x1.90257918c1533p-58,
+            0x1.245a9ce332056p+0, -0x1.0ff30d40081afp-3, 0x1.4dfd3e1b3ad2ep-59,
+            0x1.230e39a413a1bp+0, -0x1.06d56bdee9439p-3, -0x1.e2c47ed4c6eccp-59,
+            0x1.21c4c6dc061e2p+0, -0x1.fb84439e702d1p-4, 0x1.b7f69d2819213p-59,
+            0x1.207e3a9b1e8d3p+0, -0x1.e9722f6a33913p-4, 0x1.c26f521d03b6ep-59,
+            0x1.1f3a8b1e0af9dp+0, -0x1.d7746d06ffb25p-4, 0x1.d56376a0acdb6p-63,
+            0x1.1df9aecd194e9p+0, -0x1.c58acef58e68fp-4, 0x1.28c4213df87bap-59,
+            0x1.1cbb9c3b44badp+0, -0x1.b3b5284ebe043p-4, -0x1.671a3f8312014p-58,
+            0x1.1b804a2549645p+0, -0x1.a1f34cc0ede39p-4, 0x1.2b44ab64fb0e4p-58,
+            0x1.1a47af70be33ap+0, -0x1.9045108d699c6p-4, 0x1.2ab01f5a5978ep-61,
+            0x1.1911c32b348dcp+0, -0x1.7eaa4885e25e2p-4, 0x1.b55bfcdd3c710p-59,
+            0x1.17de7c895dcc0p+0, -0x1.6d22ca09f61fap-4, -0x1.ebb3580d31000p-61,
+            0x1.16add2e63647fp+0, -0x1.5bae6b04c452ep-4, 0x1.ceb706f61e3a3p-59,
+            0x1.157fbdc235cffp+0, -0x1.4a4d01ea8fb65p-4, -0x1.c196436ab3d12p-60,
+            0x1.145434c2855c5p+0, -0x1.38fe65b66cfb2p-4, -0x1.0da207c54396ep-59,
+            0x1.132b2fb039dc6p+0, -0x1.27c26de7fddc6p-4, -0x1.c013d13cde5e0p-59,
+            0x1.1204a67793f6ap+0, -0x1.1698f281386bap-4, -0x1.014614e0e096bp-61,
+            0x1.10e0912744966p+0, -0x1.0581cc043a393p-4, 0x1.2a6cb9cc7a32fp-58,
+            0x1.0fbee7efb622ep+0, -0x1.e8f9a6e24e118p-5, 0x1.5ba90449ac832p-59,
+            0x1.0e9fa3225a3e1p+0, -0x1.c713c48825a49p-5, -0x1.ee25d828e3ba6p-59,
+            0x1.0d82bb30fbe96p+0, -0x1.a551a4e5ed89ep-5, 0x1.e694e77e75d05p-59,
+            0x1.0c6828ad15f01p+0, -0x1.83b2fcd762045p-5, 0x1.91d69959eaea5p-59,
+            0x1.0b4fe4472d780p+0, -0x1.623782241da36p-5, -0x1.c2ff468d1f31fp-59,
+            0x1.0a39e6ce309acp+0, -0x1.40deeb7bc2178p-5, -0x1.6ada9c0fbe8dep-60,
+            0x1.0926292ed8e9ep+0, -0x1.1fa8f07234fb2p-5, 0x1.dd1d46a7618b3p-59,
+            0x1.0814a47311c1ap+0, -0x1.fd2a92f7e0072p-6, 0x1.fb21098c02293p-60,
+            0x1.070551c1624f2p+0, -0x1.bb475fd4c8618p-6, -0x1.7c8345628b32fp-63,
+            0x1.05f82a5c5b2f9p+0, -0x1.79a7bbd0df0e5p-6, -0x1.f270f12ef5506p-66,
+            0x1.04ed27a2078e3p+0, -0x1.384b1cedc9a50p-6, -0x1.99710299adbd1p-60,
+            0x1.03e4430b61a92p+0, -0x1.ee61f5a49475bp-7, 0x1.78ad5411fa1d5p-63,
+            0x1.02dd762bcaa3fp+0, -0x1.6cb19d87294d0p-7, 0x1.bb98528ff019ep-61,
+            0x1.01d8bab085916p+0, -0x1.d7084e7b15da2p-8, 0x1.cf7a22a6fcac8p-64,
+            0x1.00d60a60359dbp+0, -0x1.ab622e93ce64bp-9, 0x1.468080bd33f77p-63,
+            0x1.0000000000000p+0, 0.0, 0.0,
+            0x1.fb602a2f91e1fp-1, 0x1.294daebc01564p-7, 0x1.4ba451f8ac5a0p-66,
+            0x1.f77a4dd695191p-1, 0x1.1301d448a0b00p-6, -0x1.bd7b1244a97cfp-61,
+            0x1.f3a3a89273f9ep-1, 0x1.906542de674f9p-6, 0x1.59199846e2d5ap-61,
+            0x1.efdbe1f975defp-1, 0x1.066a72e47273fp-5, -0x1.c3eb3d678b4ddp-61,
+            0x1.ec22a449beb96p-1, 0x1.442a34f660bdep-5, -0x1.359bd583a7670p-62,
+            0x1.e8779c4ff8ee3p-1, 0x1.8173b38841751p-5, 0x1.5baa264c73457p-59,
+            0x1.e4da794f1f1e5p-1, 0x1.be48b03e90f71p-5, -0x1.828e29edc3690p-61,
+            0x1.e14aece9570c6p-1, 0x1.faaae2cc5a017p-5, 0x1.f19e21d368317p-59,
+            0x1.ddc8ab09cfb09p-1, 0x1.1b4dfc9edb27fp-4, -0x1.7a3a09c5322acp-58,
+            0x1.da5369cf9557bp-1, 0x1.390ecc1fcd474p-4, 0x1.a1cb77c488e98p-60,
+            0x1.d6eae1794f6f3p-1, 0x1.5698adb285bd4p-4, -0x1.1cac9690a620ep-58,
+            0x1.d38ecc51dc50bp-1, 0x1.73ec6ab4ec63cp-4, 0x1.a12ccb19eaba9p-58,
+            0x1.d03ee69dc00cap-1, 0x1.910ac8397c5fdp-4, -0x1.0469b06e5d776p-59,
+            0x1.ccfaee895bcefp-1, 0x1.adf487264f359p-4, 0x1.beaf1f2509d6dp-58,
+            0x1.c9c2a417e40ffp-1, 0x1.caaa645311532p-4, 0x1.75d2300410594p-58,
+            0x1.c695c9130c4d5p-1, 0x1.e72d18a5ebb68p-4, 0x1.d07e388643b01p-58,
+            0x1.c37420fb5f8a6p-1, 0x1.01beac97b6e0cp-3, 0x1.a2bd521001a0dp-58,
+            0x1.c05d70f93d515p-1, 0x1.0fcdeba2c0e23p-3, 0x1.1c7f0787f348bp-64,
+            0x1.bd517fce73629p-1, 0x1.1dc4a04ebb231p-3, 0x1.0d5c175e1e973p-57,
+            0x1.ba5015c86caaap-1, 0x1.2ba31fb292d05p-3, 0x1.ea496147f7a4dp-57,
+            0x1.b758fcb2ee7e3p-1, 0x1.3969bd2da2806p-3, 0x1.46f451211a274p-59,
+            0x1.b46bffcb5d798p-1, 0x1.4718ca7371c2ap-3, 0x1.6b5749c099af3p-58,
+            0x1.b188ebb483bc1p-1, 0x1.54b0979710ddcp-3, -0x1.d1078baa02229p-57,
+            0x1.aeaf8e6ad28c6p-1, 0x1.6231731614b2ep-3, 0x1.afad35c61c340p-57,
+            0x1.abdfb73919c0fp-1, 0x1.6f9ba9e33686ap-3, 0x1.544cfaa039789p-57,
+            0x1.a91936adaf945p-1, 0x1.7cef87709b4cdp-3, 0x1.f65b09415eef4p-58,
+            0x1.a65bde9003d33p-1, 0x1.8a2d55b9c5e17p-3, 0x1.3cbdfde7dde9cp-58,
+            0x1.a3a781d69993ap-1, 0x1.97555d4d3779fp-3, 0x1.027bd6130df9ep-57,
+            0x1.a0fbf49d62e51p-1, 0x1.a467e555c16dcp-3, 0x1.86ea130e14454p-58,
+            0x1.9e590c1c7a228p-1, 0x1.b16533a38b570p-3, 0x1.d680b8bfacfc8p-59,
+            0x1.9bbe9e9f34c91p-1, 0x1.be4d8cb4d0662p-3, 0x1.0373ad54a0ab2p-58,
+            0x1.992c837b8be99p-1, 0x1.cb2133be56a3dp-3, -0x1.4ef1f5c32d2dfp-59,
+            0x1.96a29309d67c9p-1, 0x1.d7e06ab3a2c25p-3, 0x1.23c023db441c8p-59,
+            0x1.9420a69cd210dp-1, 0x1.e48b724eeafb9p-3, 0x1.cf3eb9b5029b3p-60,
+            0x1.91a69879f676ap-1, 0x1.f1228a18cb65ap-3, -0x1.75bec5178f06dp-57,
+            0x1.8f3443d211372p-1, 0x1.fda5f06fbe011p-3, -0x1.d3ba4905db3cfp-63,
+            0x1.8cc984ba25cabp-1, 0x1.050af147ac5e4p-2, -0x1.cbf6c618cc399p-60,
+            0x1.8a6638248faa5p-1, 0x1.0b394e4ba9c08p-2, -0x1.9c1f9e095f6cap-57,
+            0x1.880a3bda6379bp-1, 0x1.115e2cc92c26ap-2, -0x1.6666bb21cac30p-56,
+            0x1.85b56e750ca95p-1, 0x1.1779a9be4fa76p-2, -0x1.2d78f8f728fe7p-58,
+            0x1.8367af582510cp-1, 0x1.1d8be1a52c67dp-2, 0x1.147ddea1d4bbep-56,
+            0x1.8120deab841dcp-1, 0x1.2394f076f3618p-2, 0x1.760791395f8d2p-56,
+            0x1.7ee0dd558352dp-1, 0x1.2994f1aef3d0ap-2, 0x1.5e4d6256cfd54p-57,
+            0x1.7ca78cf575ea8p-1, 0x1.2f8c004d8a1a6p-2, 0x1.590ca8dce923ap-57,
+            0x1.7a74cfde518dap-1, 0x1.357a36daf8f5cp-2, -0x1.3b6477d6c3513p-58,
+            0x1.7848891186241p-1, 0x1.3b5faf6a2d950p-2, 0x1.26ecf1489e666p-61,
+            0x1.76229c3a02dd9p-1, 0x1.413c839b6f8adp-2, -0x1.e6471c3e16b15p-56,
+            0x1.7402eda766a7bp-1, 0x1.4710cc9efd18dp-2, -0x1.4d5a4f28ae725p-60,
+            0x1.71e962495a585p-1, 0x1.4cdca33794964p-2, -0x1.938c5cdb44450p-56,
+            0x1.6fd5dfab12e9ep-1, 0x1.52a01fbceb8f3p-2, 0x1.8ac4a85833954p-57,
+            0x1.6dc84beefa396p-1, 0x1.585b5a1e1438dp-2, -0x1.f90c322f56de5p-61,
+            0x1.6bc08dca7cc53p-1, 0x1.5e0e69e3d1d5ap-2, -0x1.77b180c1a7a75p-57,
+    };
+
+    // sin(j*pi/64) and cos(j*pi/64) as (hi, lo) pairs
+    static final double[] TRIG_TABLE = {
+            0.0, 0.0, 0x1.0000000000000p+0, 0.0,
+            0x1.91f65f10dd814p-5, -0x1.912bd0d569a90p-61, 0x1.ff621e3796d7ep-1, -0x1.c57bc2e24aa15p-57,
+            0x1.917a6bc29b42cp-4, -0x1.e2718d26ed688p-60, 0x1.fd88da3d12526p-1, -0x1.87df6378811c7p-55,
+            0x1.2c8106e8e613ap-3, 0x1.13000a89a11e0p-58, 0x1.fa7557f08a517p-1, -0x1.7a0a8ca13571fp-55,
+            0x1.8f8b83c69a60bp-3, -0x1.26d19b9ff8d82p-57, 0x1.f6297cff75cb0p-1, 0x1.562172a361fd3p-56,
+            0x1.f19f97b215f1bp-3, -0x1.42deef11da2c4p-57, 0x1.f0a7efb9230d7p-1, 0x1.52c7adc6b4989p-56,
+            0x1.294062ed59f06p-2, -0x1.5d28da2c4612dp-56, 0x1.e9f4156c62ddap-1, 0x1.760b1e2e3f81ep-55,
+            0x1.58f9a75ab1fddp-2, -0x1.efdc0d58cf620p-62, 0x1.e212104f686e5p-1, -0x1.014c76c126527p-55,
+            0x1.87de2a6aea963p-2, -0x1.72cedd3d5a610p-57, 0x1.d906bcf328d46p-1, 0x1.457e610231ac2p-56,
+            0x1.b5d1009e15cc0p-2, 0x1.5b362cb974183p-57, 0x1.ced7af43cc773p-1, -0x1.e7b6bb5ab58aep-58,
+            0x1.e2b5d3806f63bp-2, 0x1.e0d891d3c6841p-58, 0x1.c38b2f180bdb1p-1, -0x1.6e0b1757c8d07p-56,
+            0x1.073879922ffeep-1, -0x1.a5a014347406cp-55, 0x1.b728345196e3ep-1, -0x1.bc69f324e6d61p-55,
+            0x1.1c73b39ae68c8p-1, 0x1.b25dd267f6600p-55, 0x1.a9b66290ea1a3p-1, 0x1.9f630e8b6dac8p-60,
+            0x1.30ff7fce17035p-1, -0x1.efcc626f74a6fp-57, 0x1.9b3e047f38741p-1, -0x1.30ee286712474p-55,
+            0x1.44cf325091dd6p-1, 0x1.8076a2cfdc6b3p-57, 0x1.8bc806b151741p-1, -0x1.2c5e12ed1336dp-55,
+            0x1.57d69348ceca0p-1, -0x1.75720992bfbb2p-55, 0x1.7b5df226aafafp-1, -0x1.0f537acdf0ad7p-56,
+            0x1.6a09e667f3bcdp-1, -0x1.bdd3413b26456p-55, 0x1.6a09e667f3bcdp-1, -0x1.bdd3413b26456p-55,
+            0x1.7b5df226aafafp-1, -0x1.0f537acdf0ad7p-56, 0x1.57d69348ceca0p-1, -0x1.75720992bfbb2p-55,
+            0x1.8bc806b151741p-1, -0x1.2c5e12ed1336dp-55, 0x1.44cf325091dd6p-1, 0x1.8076a2cfdc6b3p-57,
+            0x1.9b3e047f38741p-1, -0x1.30ee286712474p-55, 0x1.30ff7fce17035p-1, -0x1.efcc626f74a6fp-57,
+            0x1.a9b66290ea1a3p-1, 0x1.9f630e8b6dac8p-60, 0x1.1c73b39ae68c8p-1, 0x1.b25dd267f6600p-55,
+            0x1.b728345196e3ep-1, -0x1.bc69f324e6d61p-55, 0x1.073879922ffeep-1, -0x1.a5a014347406cp-55,
+            0x1.c38b2f180bdb1p-1, -0x1.6e0b1757c8d07p-56, 0x1.e2b5d3806f63bp-2, 0x1.e0d891d3c6841p-58,
+            0x1.ced7af43cc773p-1, -0x1.e7b6bb5ab58aep-58, 0x1.b5d1009e15cc0p-2, 0x1.5b362cb974183p-57,
+            0x1.d906bcf328d46p-1, 0x1.457e610231ac2p-56, 0x1.87de2a6aea963p-2, -0x1.72cedd3d5a610p-57,
+            0x1.e212104f686e5p-1, -0x1.014c76c126527p-55, 0x1.58f9a75ab1fddp-2, -0x1.efdc0d58cf620p-62,
+            0x1.e9f4156c62ddap-1, 0x1.760b1e2e3f81ep-55, 0x1.294062ed59f06p-2, -0x1.5d28da2c4612dp-56,
+            0x1.f0a7efb9230d7p-1, 0x1.52c7adc6b4989p-56, 0x1.f19f97b215f1bp-3, -0x1.42deef11da2c4p-57,
+            0x1.f6297cff75cb0p-1, 0x1.562172a361fd3p-56, 0x1.8f8b83c69a60bp-3, -0x1.26d19b9ff8d82p-57,
+            0x1.fa7557f08a517p-1, -0x1.7a0a8ca13571fp-55, 0x1.2c8106e8e613ap-3, 0x1.13000a89a11e0p-58,
+            0x1.fd88da3d12526p-1, -0x1.87df6378811c7p-55, 0x1.917a6bc29b42cp-4, -0x1.e2718d26ed688p-60,
+            0x1.ff621e3796d7ep-1, -0x1.c57bc2e24aa15p-57, 0x1.91f65f10dd814p-5, -0x1.912bd0d569a90p-61,
+            0x1.0000000000000p+0, -0x1.802b9cd7deef1p-260, 0.0, 0.0,
+            0x1.ff621e3796d7ep-1, -0x1.c57bc2e24aa15p-57, -0x1.91f65f10dd814p-5, 0x1.912bd0d569a90p-61,
+            0x1.fd88da3d12526p-1, -0x1.87df6378811c7p-55, -0x1.917a6bc29b42cp-4, 0x1.e2718d26ed688p-60,
+            0x1.fa7557f08a517p-1, -0x1.7a0a8ca13571fp-55, -0x1.2c8106e8e613ap-3, -0x1.13000a89a11e0p-58,
+            0x1.f6297cff75cb0p-1, 0x1.562172a361fd3p-56, -0x1.8f8b83c69a60bp-3, 0x1.26d19b9ff8d82p-57,
+            0x1.f0a7efb9230d7p-1, 0x1.52c7adc6b4989p-56, -0x1.f19f97b215f1bp-3, 0x1.42deef11da2c4p-57,
+            0x1.e9f4156c62ddap-1, 0x1.760b1e2e3f81ep-55, -0x1.294062ed59f06p-2, 0x1.5d28da2c4612dp-56,
+            0x1.e212104f686e5p-1, -0x1.014c76c126527p-55, -0x1.58f9a75ab1fddp-2, 0x1.efdc0d58cf620p-62,
+            0x1.d906bcf328d46p-1, 0x1.457e610231ac2p-56, -0x1.87de2a6aea963p-2, 0x1.72cedd3d5a610p-57,
+            0x1.ced7af43cc773p-1, -0x1.e7b6bb5ab58aep-58, -0x1.b5d1009e15cc0p-2, -0x1.5b362cb974183p-57,
+            0x1.c38b2f180bdb1p-1, -0x1.6e0b1757c8d07p-56, -0x1.e2b5d3806f63bp-2, -0x1.e0d891d3c6841p-58,
+            0x1.b728345196e3ep-1, -0x1.bc69f324e6d61p-55, -0x1.073879922ffeep-1, 0x1.a5a014347406cp-55,
+            0x1.a9b66290ea1a3p-1, 0x1.9f630e8b6dac8p-60, -0x1.1c73b39ae68c8p-1, -0x1.b25dd267f6600p-55,
+            0x1.9b3e047f38741p-1, -0x1.30ee286712474p-55, -0x1.30ff7fce17035p-1, 0x1.efcc626f74a6fp-57,
+            0x1.8bc806b151741p-1, -0x1.2c5e12ed1336dp-55, -0x1.44cf325091dd6p-1, -0x1.8076a2cfdc6b3p-57,
+            0x1.7b5df226aafafp-1, -0x1.0f537acdf0ad7p-56, -0x1.57d69348ceca0p-1, 0x1.75720992bfbb2p-55,
+            0x1.6a09e667f3bcdp-1, -0x1.bdd3413b26456p-55, -0x1.6a09e667f3bcdp-1, 0x1.bdd3413b26456p-55,
+            0x1.57d69348ceca0p-1, -0x1.75720992bfbb2p-55, -0x1.7b5df226aafafp-1, 0x1.0f537acdf0ad7p-56,
+            0x1.44cf325091dd6p-1, 0x1.8076a2cfdc6b3p-57, -0x1.8bc806b151741p-1, 0x1.2c5e12ed1336dp-55,
+            0x1.30ff7fce17035p-1, -0x1.efcc626f74a6fp-57, -0x1.9b3e047f38741p-1, 0x1.30ee286712474p-55,
+            0x1.1c73b39ae68c8p-1, 0x1.b25dd267f6600p-55, -0x1.a9b66290ea1a3p-1, -0x1.9f630e8b6dac8p-60,
+            0x1.073879922ffeep-1, -0x1.a5a014347406cp-55, -0x1.b728345196e3ep-1, 0x1.bc69f324e6d61p-55,
+            0x1.e2b5d3806f63bp-2, 0x1.e0d891d3c6841p-58, -0x1.c38b2f180bdb1p-1, 0x1.6e0b1757c8d07p-56,
+            0x1.b5d1009e15cc0p-2, 0x1.5b362cb974183p-57, -0x1.ced7af43cc773p-1, 0x1.e7b6bb5ab58aep-58,
+            0x1.87de2a6aea963p-2, -0x1.72cedd3d5a610p-57, -0x1.d906bcf328d46p-1, -0x1.457e610231ac2p-56,
+            0x1.58f9a75ab1fddp-2, -0x1.efdc0d58cf620p-62, -0x1.e212104f686e5p-1, 0x1.014c76c126527p-55,
+            0x1.294062ed59f06p-2, -0x1.5d28da2c4612dp-56, -0x1.e9f4156c62ddap-1, -0x1.760b1e2e3f81ep-55,
+            0x1.f19f97b215f1bp-3, -0x1.42deef11da2c4p-57, -0x1.f0a7efb9230d7p-1, -0x1.52c7adc6b4989p-56,
+            0x1.8f8b83c69a60bp-3, -0x1.26d19b9ff8d82p-57, -0x1.f6297cff75cb0p-1, -0x1.562172a361fd3p-56,
+            0x1.2c8106e8e613ap-3, 0x1.13000a89a11e0p-58, -0x1.fa7557f08a517p-1, 0x1.7a0a8ca13571fp-55,
+            0x1.917a6bc29b42cp-4, -0x1.e2718d26ed688p-60, -0x1.fd88da3d12526p-1, 0x1.87df6378811c7p-55,
+            0x1.91f65f10dd814p-5, -0x1.912bd0d569a90p-61, -0x1.ff621e3796d7ep-1, 0x1.c57bc2e24aa15p-57,
+            0.0, 0.0, -0x1.0000000000000p+0, 0x1.c750222f411b5p-264,
+            -0x1.91f65f10dd814p-5, 0x1.912bd0d569a90p-61, -0x1.ff621e3796d7ep-1, 0x1.c57bc2e24aa15p-57,
+            -0x1.917a6bc29b42cp-4, 0x1.e2718d26ed688p-60, -0x1.fd88da3d12526p-1, 0x1.87df6378811c7p-55,
+            -0x1.2c8106e8e613ap-3, -0x1.13000a89a11e0p-58, -0x1.fa7557f08a517p-1, 0x1.7a0a8ca13571fp-55,
+            -0x1.8f8b83c69a60bp-3, 0x1.26d19b9ff8d82p-57, -0x1.f6297cff75cb0p-1, -0x1.562172a361fd3p-56,
+            -0x1.f19f97b215f1bp-3, 0x1.42deef11da2c4p-57, -0x1.f0a7efb9230d7p-1, -0x1.52c7adc6b4989p-56,
+            -0x1.294062ed59f06p-2, 0x1.5d28da2c4612dp-56, -0x1.e9f4156c62ddap-1, -0x1.760b1e2e3f81ep-55,
+            -0x1.58f9a75ab1fddp-2, 0x1.efdc0d58cf620p-62, -0x1.e212104f686e5p-1, 0x1.014c76c126527p-55,
+            -0x1.87de2a6aea963p-2, 0x1.72cedd3d5a610p-57, -0x1.d906bcf328d46p-1, -0x1.457e610231ac2p-56,
+            -0x1.b5d1009e15cc0p-2, -0x1.5b362cb974183p-57, -0x1.ced7af43cc773p-1, 0x1.e7b6bb5ab58aep-58,
+            -0x1.e2b5d3806f63bp-2, -0x1.e0d891d3c6841p-58, -0x1.c38b2f180bdb1p-1, 0x1.6e0b1757c8d07p-56,
+            -0x1.073879922ffeep-1, 0x1.a5a014347406cp-55, -0x1.b728345196e3ep-1, 0x1.bc69f324e6d61p-55,
+            -0x1.1c73b39ae68c8p-1, -0x1.b25dd267f6600p-55, -0x1.a9b66290ea1a3p-1, -0x1.9f630e8b6dac8p-60,
+            -0x1.30ff7fce17035p-1, 0x1.efcc626f74a6fp-57, -0x1.9b3e047f38741p-1, 0x1.30ee286712474p-55,
+            -0x1.44cf325091dd6p-1, -0x1.8076a2cfdc6b3p-57, -0x1.8bc806b151741p-1, 0x1.2c5e12ed1336dp-55,
+            -0x1.57d69348ceca0p-1, 0x1.75720992bfbb2p-55, -0x1.7b5df226aafafp-1, 0x1.0f537acdf0ad7p-56,
+            -0x1.6a09e667f3bcdp-1, 0x1.bdd3413b26456p-55, -0x1.6a09e667f3bcdp-1, 0x1.bdd3413b26456p-55,
+            -0x1.7b5df226aafafp-1, 0x1.0f537acdf0ad7p-56, -0x1.57d69348ceca0p-1, 0x1.75720992bfbb2p-55,
+            -0x1.8bc806b151741p-1, 0x1.2c5e12ed1336dp-55, -0x1.44cf325091dd6p-1, -0x1.8076a2cfdc6b3p-57,
+            -0x1.9b3e047f38741p-1, 0x1.30ee286712474p-55, -0x1.30ff7fce17035p-1, 0x1.efcc626f74a6fp-57,
+            -0x1.a9b66290ea1a3p-1, -0x1.9f630e8b6dac8p-60, -0x1.1c73b39ae68c8p-1, -0x1.b25dd267f6600p-55,
+            -0x1.b728345196e3ep-1, 0x1.bc69f324e6d61p-55, -0x1.073879922ffeep-1, 0x1.a5a014347406cp-55,
+            -0x1.c38b2f180bdb1p-1, 0x1.6e0b1757c8d07p-56, -0x1.e2b5d3806f63bp-2, -0x1.e0d891d3c6841p-58,
+            -0x1.ced7af43cc773p-1, 0x1.e7b6bb5ab58aep-58, -0x1.b5d1009e15cc0p-2, -0x1.5b362cb974183p-57,
+            -0x1.d906bcf328d46p-1, -0x1.457e610231ac2p-56, -0x1.87de2a6aea963p-2, 0x1.72cedd3d5a610p-57,
+            -0x1.e212104f686e5p-1, 0x1.014c76c126527p-55, -0x1.58f9a75ab1fddp-2, 0x1.efdc0d58cf620p-62,
+            -0x1.e9f4156c62ddap-1, -0x1.760b1e2e3f81ep-55, -0x1.294062ed59f06p-2, 0x1.5d28da2c4612dp-56,
+            -0x1.f0a7efb9230d7p-1, -0x1.52c7adc6b4989p-56, -0x1.f19f97b215f1bp-3, 0x1.42deef11da2c4p-57,
+            -0x1.f6297cff75cb0p-1, -0x1.562172a361fd3p-56, -0x1.8f8b83c69a60bp-3, 0x1.26d19b9ff8d82p-57,
+            -0x1.fa7557f08a517p-1, 0x1.7a0a8ca13571fp-55, -0x1.2c8106e8e613ap-3, -0x1.13000a89a11e0p-58,
+            -0x1.fd88da3d12526p-1, 0x1.87df6378811c7p-55, -0x1.917a6bc29b42cp-4, 0x1.e2718d26ed688p-60,
+            -0x1.ff621e3796d7ep-1, 0x1.c57bc2e24aa15p-57, -0x1.91f65f10dd814p-5, 0x1.912bd0d569a90p-61,
+            -0x1.0000000000000p+0, 0x1.50bdee9d9d7c3p-260, 0.0, 0.0,
+            -0x1.ff621e3796d7ep-1, 0x1.c57bc2e24aa15p-57, 0x1.91f65f10dd814p-5, -0x1.912bd0d569a90p-61,
+            -0x1.fd88da3d12526p-1, 0x1.87df6378811c7p-55, 0x1.917a6bc29b42cp-4, -0x1.e2718d26ed688p-60,
+            -0x1.fa7557f08a517p-1, 0x1.7a0a8ca13571fp-55, 0x1.2c8106e8e613ap-3, 0x1.13000a89a11e0p-58,
+            -0x1.f6297cff75cb0p-1, -0x1.562172a361fd3p-56, 0x1.8f8b83c69a60bp-3, -0x1.26d19b9ff8d82p-57,
+            -0x1.f0a7efb9230d7p-1, -0x1.52c7adc6b4989p-56, 0x1.f19f97b215f1bp-3, -0x1.42deef11da2c4p-57,
+            -0x1.e9f4156c62ddap-1, -0x1.760b1e2e3f81ep-55, 0x1.294062ed59f06p-2, -0x1.5d28da2c4612dp-56,
+            -0x1.e212104f686e5p-1, 0x1.014c76c126527p-55, 0x1.58f9a75ab1fddp-2, -0x1.efdc0d58cf620p-62,
+            -0x1.d906bcf328d46p-1, -0x1.457e610231ac2p-56, 0x1.87de2a6aea963p-2, -0x1.72cedd3d5a610p-57,
+            -0x1.ced7af43cc773p-1, 0x1.e7b6bb5ab58aep-58, 0x1.b5d1009e15cc0p-2, 0x1.5b362cb974183p-57,
+            -0x1.c38b2f180bdb1p-1, 0x1.6e0b1757c8d07p-56, 0x1.e2b5d3806f63bp-2, 0x1.e0d891d3c6841p-58,
+            -0x1.b728345196e3ep-1, 0x1.bc69f324e6d61p-55, 0x1.073879922ffeep-1, -0x1.a5a014347406cp-55,
+            -0x1.a9b66290ea1a3p-1, -0x1.9f630e8b6dac8p-60, 0x1.1c73b39ae68c8p-1, 0x1.b25dd267f6600p-55,
+            -0x1.9b3e047f38741p-1, 0x1.30ee286712474p-55, 0x1.30ff7fce17035p-1, -0x1.efcc626f74a6fp-57,
+            -0x1.8bc806b151741p-1, 0x1.2c5e12ed1336dp-55, 0x1.44cf325091dd6p-1, 0x1.8076a2cfdc6b3p-57,
+            -0x1.7b5df226aafafp-1, 0x1.0f537acdf0ad7p-56, 0x1.57d69348ceca0p-1, -0x1.75720992bfbb2p-55,
+            -0x1.6a09e667f3bcdp-1, 0x1.bdd3413b26456p-55, 0x1.6a09e667f3bcdp-1, -0x1.bdd3413b26456p-55,
+            -0x1.57d69348ceca0p-1, 0x1.75720992bfbb2p-55, 0x1.7b5df226aafafp-1, -0x1.0f537acdf0ad7p-56,
+            -0x1.44cf325091dd6p-1, -0x1.8076a2cfdc6b3p-57, 0x1.8bc806b151741p-1, -0x1.2c5e12ed1336dp-55,
+            -0x1.30ff7fce17035p-1, 0x1.efcc626f74a6fp-57, 0x1.9b3e047f38741p-1, -0x1.30ee286712474p-55,
+            -0x1.1c73b39ae68c8p-1, -0x1.b25dd267f6600p-55, 0x1.a9b66290ea1a3p-1, 0x1.9f630e8b6dac8p-60,
+            -0x1.073879922ffeep-1, 0x1.a5a014347406cp-55, 0x1.b728345196e3ep-1, -0x1.bc69f324e6d61p-55,
+            -0x1.e2b5d3806f63bp-2, -0x1.e0d891d3c6841p-58, 0x1.c38b2f180bdb1p-1, -0x1.6e0b1757c8d07p-56,
+            -0x1.b5d1009e15cc0p-2, -0x1.5b362cb974183p-57, 0x1.ced7af43cc773p-1, -0x1.e7b6bb5ab58aep-58,
+            -0x1.87de2a6aea963p-2, 0x1.72cedd3d5a610p-57, 0x1.d906bcf328d46p-1, 0x1.457e610231ac2p-56,
+            -0x1.58f9a75ab1fddp-2, 0x1.efdc0d58cf620p-62, 0x1.e212104f686e5p-1, -0x1.014c76c126527p-55,
+            -0x1.294062ed59f06p-2, 0x1.5d28da2c4612dp-56, 0x1.e9f4156c62ddap-1, 0x1.760b1e2e3f81ep-55,
+            -0x1.f19f97b215f1bp-3, 0x1.42deef11da2c4p-57, 0x1.f0a7efb9230d7p-1, 0x1.52c7adc6b4989p-56,
+            -0x1.8f8b83c69a60bp-3, 0x1.26d19b9ff8d82p-57, 0x1.f6297cff75cb0p-1, 0x1.562172a361fd3p-56,
+            -0x1.2c8106e8e613ap-3, -0x1.13000a89a11e0p-58, 0x1.fa7557f08a517p-1, -0x1.7a0a8ca13571fp-55,
+            -0x1.917a6bc29b42cp-4, 0x1.e2718d26ed688p-60, 0x1.fd88da3d12526p-1, -0x1.87df6378811c7p-55,
+            -0x1.91f65f10dd814p-5, 0x1.912bd0d569a90p-61, 0x1.ff621e3796d7ep-1, -0x1.c57bc2e24aa15p-57,
+    };
+
+    private DetMath() {
+    }
+
+    public static double exp(double x) {
+        return exp(x, 0.0, false, 0.0);
+    }
+
+    public static double log(double x) {
+        return log(x, false);
+    }
+
+    public static double pow(double x, double y) {
+        return pow(x, y, false);
+    }
+
+    public static double sin(double x) {
+        return sin(x, false);
+    }
+
+    public static double cos(double x) {
+        return cos(x, false);
+    }
+
+    public static double tan(double x) {
+        return tan(x, false);
+    }
+
+    static double checkedExp(double x) {
+        return exp(x, 0.0, true, EXP_LOG_ERROR);
+    }
+
+    static double checkedLog(double x) {
+        return log(x, true);
+    }
+
+    static double checkedPow(double x, double y) {
+        return pow(x, y, true);
+    }
+
+    static double checkedSin(double x) {
+        return sin(x, true);
+    }
+
+    static double checkedCos(double x) {
+        return cos(x, true);
+    }
+
+    static double checkedTan(double x) {
+        return tan(x, true);
+    }
+
+    static boolean isUnsafe(double r) {
+        return Double.doubleToRawLongBits(r) == UNSAFE_BITS;
+    }
+
+    // hi + lo, rounded once. When checked, UNSAFE if the rounding could differ
+    // anywhere within a relative distance bound of hi + lo.
+    private static double finish(double hi, double lo, boolean checked, double bound) {
+        double s = hi + lo;
+        if (checked) {
+            double bb = s - hi;
+            double t = (hi - (s - bb)) + (lo - bb);
+            double e = Math.abs(s) * bound;
+            if (s + (t + e) != s + (t - e)) {
+                return UNSAFE;
+            }
+        }
+        return s;
+    }
+
+    // e^(hi + lo), for |lo| well below ulp(hi)
+    private static double exp(double hi, double lo, boolean checked, double bound) {
+        if (!(hi < EXP_OVERFLOW)) {
+            return Double.isNaN(hi) ? hi : Double.POSITIVE_INFINITY;
+        }
+        if (hi < EXP_UNDERFLOW) {
+            return 0.0;
+        }
+        // hi = (128k + j) * ln2/128 + r, |r| <= ln2/256
+        double nf = Math.rint(hi * INV_LN2_N);
+        int n = (int) nf;
+        int k = n >> TABLE_BITS;
+        int t = (n & (TABLE_SIZE - 1)) << 1;
+        // The first product is exact and so is the subtraction
+        double a = hi - nf * LN2_N_1;
+        double b = nf * LN2_N_2;
+        double rh = a - b;
+        double bb = rh - a;
+        double rl = (a - (rh - bb)) - (b + bb) - nf * LN2_N_3 + lo;
+
+        double th = EXP_TABLE[t];
+        double tl = EXP_TABLE[t + 1];
+        // e^r - 1 - r
+        double q = rh * rh * (E2 + rh * (E3 + rh * (E4 + rh * (E5 + rh * E6))));
+        double ph = th * rh;
+        double pl = Math.fma(th, rh, -ph);
+        double sh = th + ph;
+        double sl = (th - sh) + ph;
+        return scale(sh, sl + pl + tl + tl * rh + th * (rl + rh * rl + q), k, checked, bound);
+    }
+
+    // (hi + lo) * 2^k with a single rounding, for hi in [0.5, 2]
+    private static double scale(double hi, double lo, int k, boolean checked, double bound) {
+        if (k > -1022) {
+            double v = finish(hi, lo, checked, bound);
+            if (isUnsafe(v)) {
+                return v;
+            }
+            if (k < 1024) {
+                return v * twoPow(k);
+            }
+            return v * 2.0 * twoPow(k - 1);
+        }
+        // Subnormal (or barely normal) result: rounding to 53 bits and then
+        // scaling would round twice, so round on the 2^-1074 grid directly.
+        if (checked) {
+            return UNSAFE;
+        }
+        double v = hi + lo;
+        double vl = lo - (v - hi);
+        double f = twoPow(k + 1074);
+        double m = v * f;
+        double ml = vl * f;
+        double r = Math.rint(m);
+        double d = m - r;
+        if (d == 0.5 && ml > 0) {
+            r += 1;
+        } else if (d == -0.5 && ml < 0) {
+            r -= 1;
+        }
+        return r * Double.MIN_VALUE;
+    }
+
+    private static double twoPow(int k) {
+        return Double.longBitsToDouble((long) (k + 1023) << 52);
+    }
+
+    private static double log(double x, boolean checked) {
+        long ix = Double.doubleToRawLongBits(x);
+        int k = 0;
+        if (ix < Double.doubleToRawLongBits(Double.MIN_NORMAL) || ix >= 0x7ff0000000000000L) {
+            if (x == 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            if (ix < 0 || x != x) {
+                return Double.NaN;
+            }
+            if (x == Double.POSITIVE_INFINITY) {
+                return x;
+            }
+            ix = Double.doubleToRawLongBits(x * TWO_52);
+            k = -52;
+        }
+        // x = 2^k * z, z in [LOG_OFF, 2 * LOG_OFF), z in bin i
+        long tmp = ix - LOG_OFF;
+        int t = 3 * ((int) (tmp >>> (52 - TABLE_BITS)) & (TABLE_SIZE - 1));
+        k += (int) (tmp >> 52);
+        double z = Double.longBitsToDouble(ix - (tmp & (0xfffL << 52)));
+        double invc = LOG_TABLE[t];
+
+        // r = z * invc - 1 exactly, as rh + rl
+        double ph = z * invc;
+        double pl = Math.fma(z, invc, -ph);
+        double a = ph - 1.0;
+        double rh = a + pl;
+        double bb = rh - a;
+        double rl = (a - (rh - bb)) + (pl - bb);
+
+        // log(x) = k*ln2 - log(invc) + log1p(r), log1p(r) = r - r^2/2 + r^3 P(r)
+        double hr = -0.5 * rh;
+        double qh = rh * hr;
+        double ql = Math.fma(rh, hr, -qh);
+        double p = rh * rh * rh * (L3 + rh * (L4 + rh * (L5 + rh * (L6 + rh * (L7 + rh * (L8 + rh * (L9 + rh * L10)))))));
+        double kf = k;
+
+        double w = kf * LN2_HI;
+        double s1 = w + LOG_TABLE[t + 1];
+        bb = s1 - w;
+        double e1 = (w - (s1 - bb)) + (LOG_TABLE[t + 1] - bb);
+        double s2 = s1 + rh;
+        bb = s2 - s1;
+        double e2 = (s1 - (s2 - bb)) + (rh - bb);
+        double s3 = s2 + qh;
+        bb = s3 - s2;
+        double e3 = (s2 - (s3 - bb)) + (qh - bb);
+        return finish(s3, e1 + e2 + e3 + kf * LN2_LO + LOG_TABLE[t + 2] + rl + ql - rh * rl + p, checked, EXP_LOG_ERROR);
+    }
+
+    private static double pow(double x, double y, boolean checked) {
+        // Special cases, in the order Math.pow specifies them
+        if (y == 0) {
+            return 1.0;
+        }
+        if (y == 1) {
+            return x;
+        }
+        if (y != y || x != x) {
+            return Double.NaN;
+        }
+        double ax = Math.abs(x);
+        if (Double.isInfinite(y)) {
+            if (ax == 1) {
+                return Double.NaN;
+            }
+            return (ax > 1) == (y > 0) ? Double.POSITIVE_INFINITY : 0.0;
+        }
+        boolean negative = Double.doubleToRawLongBits(x) < 0;
+        int kind = integerKind(y);
+        if (x == 0 || Double.isInfinite(x)) {
+            double mag = (x == 0) == (y > 0) ? 0.0 : Double.POSITIVE_INFINITY;
+            return negative && kind == ODD ? -mag : mag;
+        }
+        if (negative && kind == NOT_INTEGER) {
+            return Double.NaN;
+        }
+
+        // log(|x|) as a double-double, as in log() but keeping the low part
+        long ix = Double.doubleToRawLongBits(ax);
+        int k = 0;
+        if (ix < Double.doubleToRawLongBits(Double.MIN_NORMAL)) {
+            ix = Double.doubleToRawLongBits(ax * TWO_52);
+            k = -52;
+        }
+        long tmp = ix - LOG_OFF;
+        int t = 3 * ((int) (tmp >>> (52 - TABLE_BITS)) & (TABLE_SIZE - 1));
+        k += (int) (tmp >> 52);
+        double z = Double.longBitsToDouble(ix - (tmp & (0xfffL << 52)));
+        double invc = LOG_TABLE[t];
+        double ph = z * invc;
+        double pl = Math.fma(z, invc, -ph);
+        double a = ph - 1.0;
+        double rh = a + pl;
+        double bb = rh - a;
+        double rl = (a - (rh - bb)) + (pl - bb);
+        double hr = -0.5 * rh;
+        double qh = rh * hr;
+        double ql = Math.fma(rh, hr, -qh);
+        double p = rh * rh * rh * (L3 + rh * (L4 + rh * (L5 + rh * (L6 + rh * (L7 + rh * (L8 + rh * (L9 + rh * L10)))))));
+        double kf = k;
+        double w = kf * LN2_HI;
+        double s1 = w + LOG_TABLE[t + 1];
+        bb = s1 - w;
+        double e1 = (w - (s1 - bb)) + (LOG_TABLE[t + 1] - bb);
+        double s2 = s1 + rh;
+        bb = s2 - s1;
+        double e2 = (s1 - (s2 - bb)) + (rh - bb);
+        double s3 = s2 + qh;
+        bb = s3 - s2;
+        double e3 = (s2 - (s3 - bb)) + (qh - bb);
+        double lo = e1 + e2 + e3 + kf * LN2_LO + LOG_TABLE[t + 2] + rl + ql - rh * rl + p;
+        double logHi = s3 + lo;
+        double logLo = lo - (logHi - s3);
+
+        // y * log(|x|), then e^that
+        double yh = y * logHi;
+        double yl = Math.fma(y, logHi, -yh) + y * logLo;
+        double result = exp(yh, yl, checked, POW_ERROR);
+        if (isUnsafe(result)) {
+            return result;
+        }
+        return kind == ODD && negative ? -result : result;
+    }
+
+    static final int NOT_INTEGER = 0;
+    static final int ODD = 1;
+    static final int EVEN = 2;
+
+    private static int integerKind(double y) {
+        double ay = Math.abs(y);
+        if (ay >= TWO_52 * 2) {
+            return EVEN;
+        }
+        if (Math.rint(y) != y) {
+            return NOT_INTEGER;
+        }
+        return ((long) ay & 1) != 0 ? ODD : EVEN;
+    }
+
+    private static double sin(double x, boolean checked) {
+        if (!(Math.abs(x) < TRIG_LIMIT)) {
+            return checked && Double.isFinite(x) ? UNSAFE : StrictMath.sin(x);
+        }
+        if (x == 0) {
+            return x;
+        }
+        // x = n * pi/64 + r, |r| <= pi/128, with sin and cos of n * pi/64 from the table
+        double nf = Math.rint(x * INV_PIO64);
+        int t = ((int) nf & (TABLE_SIZE - 1)) << 2;
+        double a = x - nf * PIO64_1;
+        double b = nf * PIO64_2;
+        double s = a - b;
+        double bb = s - a;
+        double e = (a - (s - bb)) - (b + bb);
+        double c = nf * PIO64_3;
+        double s2 = s - c;
+        bb = s2 - s;
+        e += (s - (s2 - bb)) - (c + bb);
+        double tail = e - nf * PIO64_4;
+        double rh = s2 + tail;
+        double rl = tail - (rh - s2);
+
+        double r2 = rh * rh;
+        double sinTail = rh * r2 * (S3 + r2 * (S5 + r2 * (S7 + r2 * S9)));
+        double cosm1 = r2 * (C2 + r2 * (C4 + r2 * (C6 + r2 * (C8 + r2 * C10))));
+        double sh = TRIG_TABLE[t];
+        double sl = TRIG_TABLE[t + 1];
+        double ch = TRIG_TABLE[t + 2];
+        double cl = TRIG_TABLE[t + 3];
+
+        // sin(x) = sin(a) cos(r) + cos(a) sin(r)
+        double ph = ch * rh;
+        double pl = Math.fma(ch, rh, -ph);
+        double hi = sh + ph;
+        bb = hi - sh;
+        double lo = (sh - (hi - bb)) + (ph - bb);
+        return finish(hi, lo + pl + sl + cl * rh + ch * (rl + sinTail) + sh * (cosm1 - rh * rl), checked, TRIG_ERROR);
+    }
+
+    private static double cos(double x, boolean checked) {
+        if (!(Math.abs(x) < TRIG_LIMIT)) {
+            return checked && Double.isFinite(x) ? UNSAFE : StrictMath.cos(x);
+        }
+        double nf = Math.rint(x * INV_PIO64);
+        int t = ((int) nf & (TABLE_SIZE - 1)) << 2;
+        double a = x - nf * PIO64_1;
+        double b = nf * PIO64_2;
+        double s = a - b;
+        double bb = s - a;
+        double e = (a - (s - bb)) - (b + bb);
+        double c = nf * PIO64_3;
+        double s2 = s - c;
+        bb = s2 - s;
+        e += (s - (s2 - bb)) - (c + bb);
+        double tail = e - nf * PIO64_4;
+        double rh = s2 + tail;
+        double rl = tail - (rh - s2);
+
+        double r2 = rh * rh;
+        double sinTail = rh * r2 * (S3 + r2 * (S5 + r2 * (S7 + r2 * S9)));
+        double cosm1 = r2 * (C2 + r2 * (C4 + r2 * (C6 + r2 * (C8 + r2 * C10))));
+        double sh = TRIG_TABLE[t];
+        double sl = TRIG_TABLE[t + 1];
+        double ch = TRIG_TABLE[t + 2];
+        double cl = TRIG_TABLE[t + 3];
+
+        // cos(x) = cos(a) cos(r) - sin(a) sin(r)
+        double ph = -sh * rh;
+        double pl = Math.fma(-sh, rh, -ph);
+        double hi = ch + ph;
+        bb = hi - ch;
+        double lo = (ch - (hi - bb)) + (ph - bb);
+        return finish(hi, lo + pl + cl - sl * rh - sh * (rl + sinTail) + ch * (cosm1 - rh * rl), checked, TRIG_ERROR);
+    }
+
+    private static double tan(double x, boolean checked) {
+        if (!(Math.abs(x) < TRIG_LIMIT)) {
+            return checked && Double.isFinite(x) ? UNSAFE : StrictMath.tan(x);
+        }
+        if (x == 0) {
+            return x;
+        }
+        double nf = Math.rint(x * INV_PIO64);
+        int t = ((int) nf & (TABLE_SIZE - 1)) << 2;
+        double a = x - nf * PIO64_1;
+        double b = nf * PIO64_2;
+        double s = a - b;
+        double bb = s - a;
+        double e = (a - (s - bb)) - (b + bb);
+        double c = nf * PIO64_3;
+        double s2 = s - c;
+        bb = s2 - s;
+        e += (s - (s2 - bb)) - (c + bb);
+        double tail = e - nf * PIO64_4;
+        double rh = s2 + tail;
+        double rl = tail - (rh - s2);
+
+        double r2 = rh * rh;
+        double sinTail = rh * r2 * (S3 + r2 * (S5 + r2 * (S7 + r2 * S9)));
+        double cosm1 = r2 * (C2 + r2 * (C4 + r2 * (C6 + r2 * (C8 + r2 * C10))));
+        double sh = TRIG_TABLE[t];
+        double sl = TRIG_TABLE[t + 1];
+        double ch = TRIG_TABLE[t + 2];
+        double cl = TRIG_TABLE[t + 3];
+
+        // sin(x) and cos(x) as double-doubles, as in sin() and cos()
+        double ph = ch * rh;
+        double pl = Math.fma(ch, rh, -ph);
+        double hi = sh + ph;
+        bb = hi - sh;
+        double lo = (sh - (hi - bb)) + (ph - bb)
+                + pl + sl + cl * rh + ch * (rl + sinTail) + sh * (cosm1 - rh * rl);
+        double sinHi = hi + lo;
+        double sinLo = lo - (sinHi - hi);
+
+        ph = -sh * rh;
+        pl = Math.fma(-sh, rh, -ph);
+        hi = ch + ph;
+        bb = hi - ch;
+        lo = (ch - (hi - bb)) + (ph - bb)
+                + pl + cl - sl * rh - sh * (rl + sinTail) + ch * (cosm1 - rh * rl);
+        double cosHi = hi + lo;
+        double cosLo = lo - (cosHi - hi);
+
+        // Double-double quotient with one correction step
+        double q = sinHi / cosHi;
+        double rem = Math.fma(-q, cosHi, sinHi) + sinLo - q * cosLo;
+        return finish(q, rem / cosHi, checked, TRIG_ERROR);
+    }
+}
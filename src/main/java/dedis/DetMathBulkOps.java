@@ -0,0 +1,65 @@
+package dedis.fp;
+
+// Math.sqrt is correctly rounded, so only the library calls change.
+class DetMathBulkOps extends MathBulkOps {
+
+    @Override
+    public String name() {
+        return FPTest.DMATH;
+    }
+
+    // The rest would be MathBulkOps' bytecode again.
+    @Override
+    public boolean supports(Op op) {
+        return !op.isPrimitive() && op != Op.SQRT;
+    }
+
+    @Override
+    public void pow(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = DetMath.pow(a[i], b[i]);
+        }
+    }
+
+    @Override
+    public void sqrt(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.sqrt(in[i]);
+        }
+    }
+
+    @Override
+    public void log(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = DetMath.log(in[i]);
+        }
+    }
+
+    @Override
+    public void exp(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = DetMath.exp(in[i]);
+        }
+    }
+
+    @Override
+    public void sin(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = DetMath.sin(in[i]);
+        }
+    }
+
+    @Override
+    public void cos(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = DetMath.cos(in[i]);
+        }
+    }
+
+    @Override
+    public void tan(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = DetMath.tan(in[i]);
+        }
+    }
+}
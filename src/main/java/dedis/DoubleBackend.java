@@ -0,0 +1,127 @@
+package dedis.fp;
+
+// A backend whose values are plain doubles. Implementations write the
+// primitive ops; the boxed FloatBackend<Double> methods are bridges to them
+// for generic code (Verifier, CachedBackend, KernelLoops). OpDriver binds the
+// primitive ops, so its timed loops never box a result.
+public interface DoubleBackend extends FloatBackend<Double> {
+
+    double add(double x, double y);
+
+    double sub(double x, double y);
+
+    double mul(double x, double y);
+
+    double div(double x, double y);
+
+    double sqrt(double x);
+
+    double log(double x);
+
+    double exp(double x);
+
+    double pow(double x, double y);
+
+    double sin(double x);
+
+    double cos(double x);
+
+    double tan(double x);
+
+    default long consume(double x) {
+        return Double.doubleToRawLongBits(x);
+    }
+
+    @Override
+    default Double fromDouble(double x) {
+        return x;
+    }
+
+    @Override
+    default double toDouble(Double x) {
+        return x;
+    }
+
+    @Override
+    default Double[] newArray(int length) {
+        return new Double[length];
+    }
+
+    @Override
+    default long consume(Double x) {
+        return consume(x.doubleValue());
+    }
+
+    @Override
+    default Double add(Double x, Double y) {
+        return add(x.doubleValue(), y.doubleValue());
+    }
+
+    @Override
+    default Double sub(Double x, Double y) {
+        return sub(x.doubleValue(), y.doubleValue());
+    }
+
+    @Override
+    default Double mul(Double x, Double y) {
+        return mul(x.doubleValue(), y.doubleValue());
+    }
+
+    @Override
+    default Double div(Double x, Double y) {
+        return div(x.doubleValue(), y.doubleValue());
+    }
+
+    @Override
+    default Double sqrt(Double x) {
+        return sqrt(x.doubleValue());
+    }
+
+    @Override
+    default Double log(Double x) {
+        return log(x.doubleValue());
+    }
+
+    @Override
+    default Double exp(Double x) {
+        return exp(x.doubleValue());
+    }
+
+    @Override
+    default Double pow(Double x, Double y) {
+        return pow(x.doubleValue(), y.doubleValue());
+    }
+
+    @Override
+    default Double sin(Double x) {
+        return sin(x.doubleValue());
+    }
+
+    @Override
+    default Double cos(Double x) {
+        return cos(x.doubleValue());
+    }
+
+    @Override
+    default Double tan(Double x) {
+        return tan(x.doubleValue());
+    }
+
+    @Override
+    default double apply(Op op, double x, double y) {
+        switch (op) {
+            case ADD: return add(x, y);
+            case SUB: return sub(x, y);
+            case MUL: return mul(x, y);
+            case DIV: return div(x, y);
+            case POW: return pow(x, y);
+            case SQRT: return sqrt(x);
+            case LOG: return log(x);
+            case EXP: return exp(x);
+            case SIN: return sin(x);
+            case COS: return cos(x);
+            case TAN: return tan(x);
+            default: throw new IllegalArgumentException("Unknown op: " + op);
+        }
+    }
+}
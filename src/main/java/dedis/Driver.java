@@ -0,0 +1,19 @@
+package dedis.fp;
+
+import org.HdrHistogram.Histogram;
+
+// Runs one op on one backend. Instances come from Drivers.create, which gives
+// every (backend, op) pair its own copy of the loop code.
+public interface Driver {
+
+    void init(FloatBackend<?> backend, Op op, double[] xs, double[] ys);
+
+    void warmup(int count);
+
+    // Per-call latency: one sample per op, count ops in total. Every sample is
+    // also streamed to raw, outside the timed region.
+    void measure(int count, Histogram histogram, SampleSink raw);
+
+    // Throughput: elapsed ns for batchSize ops starting at input `from`.
+    long timeBatch(int from, int batchSize);
+}
@@ -0,0 +1,77 @@
+package dedis.fp;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public final class Drivers {
+
+    // -Dfptest.sharedDriver=true runs every pair through the same driver class,
+    // for environments that cannot define classes at runtime. A native image is
+    // one, and compiled ahead of time there are no type profiles to keep apart.
+    static final boolean SHARED = Boolean.getBoolean("fptest.sharedDriver")
+            || System.getProperty("org.graalvm.nativeimage.imagecode") != null;
+
+    private Drivers() {
+    }
+
+    public static Driver create(FloatBackend<?> backend, Op op, double[] xs, double[] ys) {
+        Driver driver = SHARED ? new OpDriver<>() : (Driver) newIsolated(OpDriver.class);
+        driver.init(backend.perThread(), op, xs, ys);
+        return driver;
+    }
+
+    public static KernelDriver createKernel(FloatBackend<?> backend, Kernel kernel, int size, double[] xs,
+                                            double[] ys) {
+        KernelDriver driver = SHARED ? new KernelLoops<>() : (KernelDriver) newIsolated(KernelLoops.class);
+        driver.init(backend.perThread(), kernel, size, xs, ys);
+        return driver;
+    }
+
+    private static Object newIsolated(Class<?> type) {
+        try {
+            Class<?> c = new IsolatingLoader(Drivers.class.getClassLoader(), type.getName()).loadClass(type.getName());
+            return c.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load an isolated driver", e);
+        }
+    }
+
+    // Defines a private copy of one driver class and its nested classes;
+    // everything else is delegated to the parent. Separate bytecode means
+    // separate type profiles.
+    private static final class IsolatingLoader extends ClassLoader {
+
+        private final String isolated;
+
+        IsolatingLoader(ClassLoader parent, String isolated) {
+            super(parent);
+            this.isolated = isolated;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(isolated) && !name.startsWith(isolated + "$")) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    String resource = name.replace('.', '/') + ".class";
+                    try (InputStream in = getParent().getResourceAsStream(resource)) {
+                        if (in == null) {
+                            throw new ClassNotFoundException(name);
+                        }
+                        byte[] bytes = in.readAllBytes();
+                        c = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+    }
+}
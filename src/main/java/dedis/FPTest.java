@@ -1,707 +1,330 @@
 package dedis.fp;
 
 import com.google.common.math.Stats;
-import org.kframework.mpfr.BigFloat;
-import org.kframework.mpfr.BinaryMathContext;
+import jdk.jfr.Recording;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
 
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.math.RoundingMode;
-import java.util.Random;
-
-import net.dclausen.microfloat.MicroDouble;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 public class FPTest {
 
-    static final int WARMUP_COUNT = 1000000;
-    static final int EXEC_COUNT = 1000000;
-    static final int INPUT_COUNT = 1000;
-    static final String EXP_PREFIX = "/Users/alp/workspace/dedis/determ-sandbox/experiments/prelim/";
+    // Read once at startup; Runner passes its command line through these, and
+    // on to forked cells. WARMUP_COUNT is the fixed warmup
+    // (-Dfptest.fixedWarmup=true); the adaptive Warmup is capped by
+    // -Dfptest.warmupMax instead.
+    static final int WARMUP_COUNT = Integer.getInteger("fptest.warmup", 1000000);
+    static final int EXEC_COUNT = Integer.getInteger("fptest.exec", 1000000);
+    static final int INPUT_COUNT = Integer.getInteger("fptest.inputs", 1000);
+    static final String EXP_PREFIX = System.getProperty("fptest.out", "results") + "/";
     static final String STATS_PREFIX = EXP_PREFIX + "java/";
     static final String MATH = "math";
     static final String SMATH = "smath";
     static final String MPFR = "mpfr";
     static final String MF = "mf";
+    static final String MPFR_SLOTS = "mpfr_slots";
+    static final String DMATH = "dmath";
+    static final String HYBRID = "hybrid";
+    static final String MPFR_FFM = "mpfr_ffm";
+    static final String FIXED = "fixed";
+    static final String FIXED128 = "fixed128";
+    static final String SF = "sf";
+    static final long DEFAULT_SEED = 42;
+    static final long HIGHEST_TRACKABLE_NS = 10_000_000_000L;
+    static final int SIGNIFICANT_DIGITS = 3;
+
+    // Stats files for the unit profile keep their original names.
+    static String statsFile(String fname, InputProfile profile, String suffix) {
+        return statsFile(fname, profile, suffix, ".csv");
+    }
+
+    static String statsFile(String fname, InputProfile profile, String suffix, String ext) {
+        String p = profile == InputProfile.UNIT ? "" : "_" + profile.profileName();
+        return STATS_PREFIX + fname + p + suffix + ext;
+    }
+
+    static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_NS, SIGNIFICANT_DIGITS);
+    }
 
-    public static void logPrimitiveStats(String fname, long[] mathMeas, long[] mpfrMeas, long[] mfMeas) throws IOException {
-        String out = STATS_PREFIX + fname + ".csv";
-        Stats statMath = Stats.of(mathMeas);
-        Stats statMpfr = Stats.of(mpfrMeas);
-        Stats statMf = Stats.of(mfMeas);
+    // One "mean (stddev)" column per backend, under a header naming them,
+    // since which backends run depends on the op and -Dfptest.backends.
+    public static void logStats(String fname, InputProfile profile, List<FloatBackend<?>> backends,
+                                Histogram... hists) throws IOException {
+        String out = statsFile(fname, profile, "");
+        StringBuilder header = new StringBuilder("op");
+        StringBuilder line = new StringBuilder(fname);
+        for (int b = 0; b < hists.length; b++) {
+            header.append(", ").append(backends.get(b).name());
+            line.append(String.format(", %.1f (%f)", hists[b].getMean(), hists[b].getStdDeviation()));
+        }
         FileWriter writer = new FileWriter(out);
-        writer.write(String.format("%s, %.1f (%f), %.1f (%f), %.1f (%f)\n",
-                fname,
-                statMath.mean(),
-                statMath.sampleStandardDeviation(),
-                statMpfr.mean(),
-                statMpfr.sampleStandardDeviation(),
-                statMf.mean(),
-                statMf.sampleStandardDeviation()));
+        writer.write(header.append("\n").toString());
+        writer.write(line.append("\n").toString());
         writer.close();
     }
 
-    public static void logStats(String fname, long[] mathMeas, long[] smathMeas, long[] mpfrMeas, long[] mfMeas) throws IOException {
-        String out = STATS_PREFIX + fname + ".csv";
-        Stats statMath = Stats.of(mathMeas);
-        Stats statSmath = Stats.of(smathMeas);
-        Stats statMpfr = Stats.of(mpfrMeas);
-        Stats statMf = Stats.of(mfMeas);
+    // A percentile table for all backends, plus per backend a human-readable
+    // .hgrm distribution and a .hlog that HistogramLogReader can merge across runs.
+    public static void logHistograms(String fname, InputProfile profile, List<FloatBackend<?>> backends,
+                                     Histogram... hists) throws IOException {
+        String out = statsFile(fname, profile, "_pct");
         FileWriter writer = new FileWriter(out);
-        writer.write(String.format("%s, %.1f (%f), %.1f (%f), %.1f (%f), %.1f (%f)\n",
-                fname,
-                statMath.mean(),
-                statMath.sampleStandardDeviation(),
-                statSmath.mean(),
-                statSmath.sampleStandardDeviation(),
-                statMpfr.mean(),
-                statMpfr.sampleStandardDeviation(),
-                statMf.mean(),
-                statMf.sampleStandardDeviation()));
+        writer.write("op, backend, count, p50, p90, p99, p99.9, p99.99, max\n");
+        for (int b = 0; b < hists.length; b++) {
+            Histogram h = hists[b];
+            String name = backends.get(b).name();
+            writer.write(String.format("%s, %s, %d, %d, %d, %d, %d, %d, %d\n",
+                    fname,
+                    name,
+                    h.getTotalCount(),
+                    h.getValueAtPercentile(50),
+                    h.getValueAtPercentile(90),
+                    h.getValueAtPercentile(99),
+                    h.getValueAtPercentile(99.9),
+                    h.getValueAtPercentile(99.99),
+                    h.getMaxValue()));
+
+            PrintStream hgrm = new PrintStream(new FileOutputStream(statsFile(fname, profile, "_" + name, ".hgrm")));
+            h.outputPercentileDistribution(hgrm, 1.0);
+            hgrm.close();
+
+            h.setTag(name + "/" + fname + "/" + profile.profileName());
+            HistogramLogWriter hlog = new HistogramLogWriter(statsFile(fname, profile, "_" + name, ".hlog"));
+            hlog.outputLogFormatVersion();
+            hlog.outputStartTime(h.getStartTimeStamp());
+            hlog.outputLegend();
+            hlog.outputIntervalHistogram(h);
+            hlog.close();
+        }
         writer.close();
     }
 
-    public static void logMeasurements(String outfile, long[] measurements) throws IOException {
-        FileWriter writer = new FileWriter(outfile);
-        for (long m : measurements) {
-            writer.write(m + "\n");
+    // How often the hybrid backend fell back to BigFloat since its last reset.
+    static void logFallbacks(String fname, InputProfile profile) throws IOException {
+        Op op = Op.fromName(fname);
+        long[][] stats = ((HybridBackend) Backends.HYBRID).stats();
+        long calls = stats[0][op.ordinal()];
+        long fallbacks = stats[1][op.ordinal()];
+        if (calls == 0) {
+            return;
         }
+        FileWriter writer = new FileWriter(statsFile(fname, profile, "_fallback"));
+        writer.write("op, profile, calls, fallbacks, rate\n");
+        writer.write(String.format("%s, %s, %d, %d, %g\n",
+                fname, profile.profileName(), calls, fallbacks, (double) fallbacks / calls));
         writer.close();
     }
 
-    public static void runExperiment(String fname) throws IOException {
-        int idx;
-        long start;
-        long end;
-        double val;
-        boolean isPrimitive = false;
+    public static void logMeasurements(String outfile, long[] measurements) throws IOException {
+        try (SampleSink sink = SampleSink.text(Paths.get(outfile))) {
+            for (long m : measurements) {
+                sink.accept(m);
+            }
+        }
+    }
 
-        final double[] xs = new double[INPUT_COUNT];
-        final double[] ys = new double[INPUT_COUNT];
-        final BigFloat[] bfXs = new BigFloat[INPUT_COUNT];
-        final BigFloat[] bfYs = new BigFloat[INPUT_COUNT];
-        final Random random = new Random();
+    // Raw samples for one backend, named like the C harness output
+    // (<backend>_<op>.csv or .bin under EXP_PREFIX).
+    static SampleSink rawSink(String format, String backend, String fname, InputProfile profile) throws IOException {
+        if (format == null) {
+            return SampleSink.NONE;
+        }
+        String p = profile == InputProfile.UNIT ? "" : "_" + profile.profileName();
+        String base = EXP_PREFIX + backend + "_" + fname + p;
+        switch (format) {
+            case "bin": return SampleSink.binary(Paths.get(base + ".bin"));
+            case "text": return SampleSink.text(Paths.get(base + ".csv"));
+            case "mapped": return SampleSink.mapped(Paths.get(base + ".bin"), EXEC_COUNT);
+            default: throw new IllegalArgumentException("Unknown raw format: " + format);
+        }
+    }
+
+    public static void logBatchStats(String fname, InputProfile profile, int batchSize, long[]... batchMeas) throws IOException {
+        String out = statsFile(fname, profile, "_batch" + batchSize);
+        StringBuilder line = new StringBuilder(fname).append(", ").append(batchSize);
+        for (long[] meas : batchMeas) {
+            Stats stat = Stats.of(meas);
+            double nsPerOp = stat.mean() / batchSize;
+            line.append(String.format(", %.3f (%f) %.0f",
+                    nsPerOp,
+                    stat.sampleStandardDeviation() / batchSize,
+                    1e9 / nsPerOp));
+        }
+        FileWriter writer = new FileWriter(out);
+        writer.write(line.append("\n").toString());
+        writer.close();
+    }
 
-        long lx, ly, lval;
-        BigFloat bfVal;
-        BinaryMathContext mc = BinaryMathContext.BINARY64.withRoundingMode(RoundingMode.HALF_EVEN);
+    public static void runExperiment(String fname, InputProfile profile, long seed, String rawFormat) throws IOException {
+        final Op op = Op.fromName(fname);
+        final double[][] inputs = profile.generate(seed, INPUT_COUNT);
+        final List<FloatBackend<?>> backends = Backends.forOp(op);
+        final Histogram[] hists = new Histogram[backends.size()];
+        final Warmup[] warmups = new Warmup[backends.size()];
 
-        final long[] mathTimes = new long[EXEC_COUNT];
-        final long[] smathTimes = new long[EXEC_COUNT];
-        final long[] mpfrTimes = new long[EXEC_COUNT];
-        final long[] mfTimes = new long[EXEC_COUNT];
-        String outMath = EXP_PREFIX + MATH + "_" + fname + ".csv";
-        String outSmath = EXP_PREFIX + SMATH + "_" + fname + ".csv";
-        String outMpfr = EXP_PREFIX + MPFR + "_" + fname + ".csv";
-        String outMf = EXP_PREFIX + MF + "_" + fname + ".csv";
+        final TimerCalibration timer = TimerCalibration.measure();
 
-        for (int i = 0; i < INPUT_COUNT; i++) {
-            xs[i] = random.nextDouble();
-            ys[i] = random.nextDouble();
-            bfXs[i] = new BigFloat(xs[i], mc);
-            bfYs[i] = new BigFloat(ys[i], mc);
+        for (int b = 0; b < backends.size(); b++) {
+            Driver driver = Drivers.create(backends.get(b), op, inputs[0], inputs[1]);
+            PhaseEvent phase = PhaseEvent.begin(PhaseEvent.WARMUP, backends.get(b), op, profile);
+            warmups[b] = Warmup.run(backends.get(b).name(), driver, INPUT_COUNT, WARMUP_COUNT);
+            phase.finish(warmups[b].ops());
+            hists[b] = newHistogram();
+            try (SampleSink raw = ResultsStore.sink(rawSink(rawFormat, backends.get(b).name(), fname, profile),
+                    ResultsStore.CALL, backends.get(b).name(), fname, profile, EXEC_COUNT)) {
+                hists[b].setStartTimeStamp(System.currentTimeMillis());
+                phase = PhaseEvent.begin(PhaseEvent.MEASURE, backends.get(b), op, profile);
+                driver.measure(EXEC_COUNT, hists[b], raw);
+                phase.finish(EXEC_COUNT);
+                hists[b].setEndTimeStamp(System.currentTimeMillis());
+            }
         }
-        switch (fname) {
-            case "add":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = xs[idx] + ys[idx];
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = xs[idx] + ys[idx];
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].add(bfYs[idx], mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].add(bfYs[idx], mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    lval = MicroDouble.add(lx, ly);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.add(lx, ly);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                isPrimitive = true;
-                break;
-            case "sub":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = xs[idx] - ys[idx];
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = xs[idx] - ys[idx];
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].subtract(bfYs[idx], mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].subtract(bfYs[idx], mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    lval = MicroDouble.sub(lx, ly);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.sub(lx, ly);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                isPrimitive = true;
-                break;
-            case "mul":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = xs[idx] * ys[idx];
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = xs[idx] * ys[idx];
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].multiply(bfYs[idx], mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].multiply(bfYs[idx], mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    lval = MicroDouble.mul(lx, ly);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.mul(lx, ly);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                isPrimitive = true;
-                break;
-            case "div":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = xs[idx] / ys[idx];
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = xs[idx] / ys[idx];
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].divide(bfYs[idx], mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].divide(bfYs[idx], mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    lval = MicroDouble.div(lx, ly);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.div(lx, ly);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                isPrimitive = true;
-                break;
-            case "sqrt":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = Math.sqrt(xs[idx]);
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = Math.sqrt(xs[idx]);
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for StrictMath
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = StrictMath.sqrt(xs[idx]);
-                }
-                // Measure StrictMath
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = StrictMath.sqrt(xs[idx]);
-                    end = System.nanoTime();
-                    smathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].sqrt(mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].sqrt(mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    lval = MicroDouble.sqrt(lx);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.sqrt(lx);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                break;
-            case "log":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = Math.log(xs[idx]);
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = Math.log(xs[idx]);
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for StrictMath
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = StrictMath.log(xs[idx]);
-                }
-                // Measure StrictMath
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = StrictMath.log(xs[idx]);
-                    end = System.nanoTime();
-                    smathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].log(mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].log(mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    lval = MicroDouble.log(lx);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.log(lx);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                break;
-            case "exp":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = Math.exp(xs[idx]);
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = Math.exp(xs[idx]);
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for StrictMath
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = StrictMath.exp(xs[idx]);
-                }
-                // Measure StrictMath
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = StrictMath.exp(xs[idx]);
-                    end = System.nanoTime();
-                    smathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].exp(mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].exp(mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    lval = MicroDouble.exp(lx);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.exp(lx);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                break;
-            case "pow":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = Math.pow(xs[idx], ys[idx]);
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = Math.pow(xs[idx], ys[idx]);
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for StrictMath
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = StrictMath.pow(xs[idx], ys[idx]);
-                }
-                // Measure StrictMath
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = StrictMath.pow(xs[idx], ys[idx]);
-                    end = System.nanoTime();
-                    smathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].pow(bfYs[idx], mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].pow(bfYs[idx], mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    lval = MicroDouble.pow(lx, ly);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    ly = Double.doubleToLongBits(ys[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.pow(lx, ly);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                break;
-            case "sin":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = Math.sin(xs[idx]);
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = Math.sin(xs[idx]);
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for StrictMath
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = StrictMath.sin(xs[idx]);
-                }
-                // Measure StrictMath
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = StrictMath.sin(xs[idx]);
-                    end = System.nanoTime();
-                    smathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].sin(mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].sin(mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    lval = MicroDouble.sin(lx);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.sin(lx);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                break;
-            case "cos":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = Math.cos(xs[idx]);
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = Math.cos(xs[idx]);
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for StrictMath
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = StrictMath.cos(xs[idx]);
-                }
-                // Measure StrictMath
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = StrictMath.cos(xs[idx]);
-                    end = System.nanoTime();
-                    smathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].cos(mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].cos(mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    lval = MicroDouble.cos(lx);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.cos(lx);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                break;
-            case "tan":
-                // Warmup for Math
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = Math.tan(xs[idx]);
-                }
-                // Measure Math
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = Math.tan(xs[idx]);
-                    end = System.nanoTime();
-                    mathTimes[i] = end - start;
-                }
-                // Warmup for StrictMath
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    val = StrictMath.tan(xs[idx]);
-                }
-                // Measure StrictMath
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    val = StrictMath.tan(xs[idx]);
-                    end = System.nanoTime();
-                    smathTimes[i] = end - start;
-                }
-                // Warmup for MPFR
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    bfVal = bfXs[idx].tan(mc);
-                }
-                // Measure MPFR
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    start = System.nanoTime();
-                    bfVal = bfXs[idx].tan(mc);
-                    end = System.nanoTime();
-                    mpfrTimes[i] = end - start;
-                }
-                // Warmup for MicroFloat
-                for (int i = 0; i < WARMUP_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    lval = MicroDouble.tan(lx);
-                }
-                // Measure MicroFloat
-                for (int i = 0; i < EXEC_COUNT; i++) {
-                    idx = i % INPUT_COUNT;
-                    lx = Double.doubleToLongBits(xs[idx]);
-                    start = System.nanoTime();
-                    lval = MicroDouble.tan(lx);
-                    end = System.nanoTime();
-                    mfTimes[i] = end - start;
-                }
-                break;
-            default:
-                break;
+        logStats(fname, profile, backends, hists);
+        timer.log();
+        timer.log(fname, profile, backends, hists);
+        logHistograms(fname, profile, backends, hists);
+        logFallbacks(fname, profile);
+        Warmup.log(fname, profile, warmups);
+    }
+
+    // Throughput mode: times blocks of batchSize ops instead of single calls, so
+    // only EXEC_COUNT / batchSize timestamps per backend are kept.
+    public static void runBatchedExperiment(String fname, int batchSize, InputProfile profile, long seed) throws IOException {
+        final Op op = Op.fromName(fname);
+        final int batches = Math.max(1, EXEC_COUNT / batchSize);
+        final double[][] inputs = profile.generate(seed, INPUT_COUNT);
+        final List<FloatBackend<?>> backends = Backends.forOp(op);
+        final long[][] times = new long[backends.size()][batches];
+
+        for (int b = 0; b < backends.size(); b++) {
+            Driver driver = Drivers.create(backends.get(b), op, inputs[0], inputs[1]);
+            PhaseEvent phase = PhaseEvent.begin(PhaseEvent.WARMUP, backends.get(b), op, profile);
+            phase.finish(Warmup.run(backends.get(b).name(), driver, INPUT_COUNT, WARMUP_COUNT).ops());
+            phase = PhaseEvent.begin(PhaseEvent.MEASURE, backends.get(b), op, profile);
+            for (int k = 0; k < batches; k++) {
+                times[b][k] = driver.timeBatch((int) ((long) k * batchSize % INPUT_COUNT), batchSize);
+            }
+            phase.finish((long) batches * batchSize);
+            ResultsStore.record("batch" + batchSize, backends.get(b).name(), fname, profile, times[b]);
         }
+        logBatchStats(fname, profile, batchSize, times);
+    }
+
+    static void usage() {
+        System.out.println("Usage: FPTest <op> [--batch <size> | --threads <max>|<n,n,...> | --bulk <max size>"
+                + " | --verify <count>"
+                + " | --cache <max capacity>]"
+                + " [--profile <name>|all] [--seed <seed>] [--raw bin|text|mapped] [--store <dir>]");
+        System.out.println("       FPTest dot|horner|matmul|softmax|nbody --kernel <size> [--profile <name>|all] [--seed <seed>]");
+        System.out.println("       FPTest sum|dot|norm --reduce <size> [--profile <name>|all] [--seed <seed>]");
+        System.out.println("       FPTest <op> --startup <mode label> [--profile <name>|all] [--seed <seed>]");
+        System.exit(1);
+    }
 
-        if (isPrimitive) {
-            logPrimitiveStats(fname, mathTimes, mpfrTimes, mfTimes);
-        } else {
-            logStats(fname, mathTimes, smathTimes, mpfrTimes, mfTimes);
+    // OpDriver.timeBatch unrolls by four over the inputs, so fewer would
+    // index past the end.
+    static void checkInputCount() {
+        if (INPUT_COUNT < 4) {
+            System.out.println("fptest.inputs must be at least 4, got " + INPUT_COUNT);
+            System.exit(1);
         }
     }
 
     public static void main(String[] args) {
         int argCount = args.length;
-        if (argCount != 1) {
-            System.out.println("Missing argument");
-            System.exit(1);
+        if (argCount < 1 || argCount % 2 != 1) {
+            usage();
         }
+        checkInputCount();
 
         String funcName = args[0];
+        String mode = null;
+        String modeArg = null;
+        List<InputProfile> profiles = new ArrayList<>();
+        long seed = DEFAULT_SEED;
+        String rawFormat = null;
+        Path storeDir = null;
+        for (int i = 1; i < argCount; i += 2) {
+            switch (args[i]) {
+                case "--profile":
+                    if (args[i + 1].equals("all")) {
+                        profiles.addAll(List.of(InputProfile.values()));
+                    } else {
+                        profiles.add(InputProfile.fromName(args[i + 1]));
+                    }
+                    break;
+                case "--raw":
+                    rawFormat = args[i + 1];
+                    break;
+                case "--store":
+                    storeDir = Paths.get(args[i + 1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                case "--batch":
+                case "--threads":
+                case "--bulk":
+                case "--verify":
+                case "--cache":
+                case "--kernel":
+                case "--reduce":
+                case "--startup":
+                    mode = args[i];
+                    modeArg = args[i + 1];
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+                    usage();
+            }
+        }
+        if (rawFormat != null && mode != null) {
+            System.out.println("--raw only applies to plain runs, not " + mode);
+            usage();
+        }
+        if (storeDir != null && !"--verify".equals(mode)) {
+            System.out.println("--store only applies to --verify");
+            usage();
+        }
+        if (profiles.isEmpty()) {
+            profiles.add(InputProfile.UNIT);
+        }
+
         try {
-            runExperiment(funcName);
+            Files.createDirectories(Paths.get(STATS_PREFIX));
+            for (InputProfile profile : profiles) {
+                Recording recording = PhaseReport.start();
+                ((HybridBackend) Backends.HYBRID).resetStats();
+                if (mode == null) {
+                    runExperiment(funcName, profile, seed, rawFormat);
+                } else if (mode.equals("--batch")) {
+                    runBatchedExperiment(funcName, Integer.parseInt(modeArg), profile, seed);
+                } else if (mode.equals("--threads")) {
+                    ScalingExperiment.run(funcName, ScalingExperiment.threadCounts(modeArg), profile, seed);
+                } else if (mode.equals("--bulk")) {
+                    BulkExperiment.run(funcName, Integer.parseInt(modeArg), profile, seed);
+                } else if (mode.equals("--cache")) {
+                    CacheExperiment.run(funcName, Integer.parseInt(modeArg), profile, seed);
+                } else if (mode.equals("--kernel")) {
+                    KernelExperiment.run(funcName, Integer.parseInt(modeArg), profile, seed);
+                } else if (mode.equals("--reduce")) {
+                    ReductionExperiment.run(funcName, Integer.parseInt(modeArg), profile, seed);
+                } else if (mode.equals("--startup")) {
+                    StartupExperiment.run(funcName, modeArg, profile, seed);
+                } else {
+                    Verifier.run(funcName, Long.parseLong(modeArg), profile, seed, storeDir);
+                }
+                PhaseReport.finish(recording, funcName, profile, mode == null ? "" : "_" + mode.substring(2));
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
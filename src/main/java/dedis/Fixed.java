@@ -0,0 +1,403 @@
+package dedis.fp;
+
+// Q32.32 fixed point in a long: the value is raw / 2^32, so the range is
+// [-MAX, MAX], about +-2^31, at an absolute resolution of 2^-32 (about 2.3e-10). Every op
+// uses only integer instructions and allocates nothing, so results are
+// bit-identical on any JVM and hardware, JIT or interpreter.
+//
+// There are no NaNs or infinities. Results too large in magnitude saturate
+// to +-MAX, domain errors (division by zero, sqrt of x < 0, log of x <= 0,
+// pow of x < 0) return ERROR, and ERROR is not propagated by later ops, so
+// callers must check for it. mul, div and sqrt round to nearest. The
+// transcendentals work in Q62 (two integer bits) internally, with small
+// tables that are built at class init by integer-only series. Against a
+// 90-digit reference, log, sin and cos are within one unit of 2^-32, as is
+// exp below 2^20; above that exp is good to about 2^-53 relative (16 units
+// near 2^31). pow is exp(y log x) with log x carried in Q57, which adds a
+// relative error of up to about |y| 2^-56: 2^-45, some 64000 units, for
+// x = 1.003 and y = 6629.5. tan is sin/cos, so its absolute error grows as
+// about tan^2 2^-60 towards the poles: past one unit once |tan| > 2^14, and
+// thousands of units within 2^-20 of a pole.
+public final class Fixed {
+
+    public static final int FRAC = 32;
+    public static final long ONE = 1L << FRAC;
+    public static final long MAX = Long.MAX_VALUE;
+    public static final long ERROR = Long.MIN_VALUE;
+
+    static final long ONE62 = 1L << 62;
+    // ln2, ln2/32, pi/2 and 2/pi in Q62; the _LO words are the next 64 bits, signed.
+    static final long LN2_62 = 0x2C5C85FDF473DE6BL;
+    private static final long LN2_32_62 = 0x162E42FEFA39EF3L;
+    private static final long LN2_32_LO = 0x5793C7673007E5EDL;
+    static final long PIO2_62 = 0x6487ED5110B4611AL;
+    static final long PIO2_LO = 0x62633145C06E0E69L;
+    static final long TWO_OVER_PI_62 = 0x28BE60DB9391054AL;
+    // 32/ln2 in Q56.
+    private static final long INV_LN2_32_56 = 0x2E2A8ECA5705FC2FL;
+    // exp(x) saturates above ln(2^31) and rounds to 0 below ln(2^-33); in Q32.32 and Q57.
+    private static final long EXP_MAX = 0x157CD0E702L;
+    private static final long EXP_MIN = -0x16DFB516F2L;
+    private static final long EXP_MAX_57 = 0x2AF9A1CE04D03F78L;
+    private static final long EXP_MIN_57 = -0x2DBF6A2DE4177D5EL;
+
+    // 1/n! in Q62, for the exp, sin and cos polynomials; Fixed128 uses the
+    // longer ones.
+    private static final long[] INV_FACT = new long[21];
+    // 2^(j/32) in Q62.
+    private static final long[] EXP2 = new long[32];
+    // log(1 + j/16 + 1/32), the midpoints of the log table intervals, in Q62.
+    private static final long[] LOG_MID = new long[16];
+    // 1/(2n+1) in Q62, for the atanh series.
+    private static final long[] INV_ODD = new long[6];
+
+    static {
+        long f = 1;
+        for (int n = 0; n < INV_FACT.length; n++) {
+            f *= Math.max(n, 1);
+            INV_FACT[n] = ONE62 / f;
+        }
+        for (int n = 0; n < INV_ODD.length; n++) {
+            INV_ODD[n] = ONE62 / (2 * n + 1);
+        }
+        for (int j = 0; j < EXP2.length; j++) {
+            // e^r = 1 + r(1 + r/2(1 + r/3(...))), to far beyond 2^-62 for r < ln2.
+            long r = j * LN2_32_62;
+            long p = ONE62;
+            for (int n = 30; n >= 1; n--) {
+                p = ONE62 + mul62(p, r) / n;
+            }
+            EXP2[j] = p;
+        }
+        for (int j = 0; j < LOG_MID.length; j++) {
+            long c = ONE62 + ((long) j << 58) + (1L << 57);
+            long s = div62(c - ONE62, c + ONE62);
+            long z = mul62(s, s);
+            long sum = 0;
+            long zn = ONE62;
+            for (int n = 0; n < 40; n++) {
+                sum += zn / (2 * n + 1);
+                zn = mul62(zn, z);
+            }
+            LOG_MID[j] = 2 * mul62(s, sum);
+        }
+    }
+
+    private Fixed() {
+    }
+
+    public static long fromDouble(double x) {
+        if (x != x) {
+            return ERROR;
+        }
+        double scaled = x * 0x1p32;
+        if (scaled >= 0x1p63) {
+            return MAX;
+        }
+        if (scaled <= -0x1p63) {
+            return -MAX;
+        }
+        return Math.round(scaled);
+    }
+
+    public static double toDouble(long x) {
+        return x == ERROR ? Double.NaN : x * 0x1p-32;
+    }
+
+    // Long.MIN_VALUE is ERROR, so a result that lands on it exactly clamps
+    // to -MAX like any other negative overflow.
+    public static long add(long x, long y) {
+        long r = x + y;
+        return ((x ^ r) & (y ^ r)) < 0 || r == ERROR ? saturate(x) : r;
+    }
+
+    public static long sub(long x, long y) {
+        long r = x - y;
+        return ((x ^ y) & (x ^ r)) < 0 || r == ERROR ? saturate(x) : r;
+    }
+
+    // The 128-bit product shifted right by 32, rounding half up.
+    public static long mul(long x, long y) {
+        long hi = Math.multiplyHigh(x, y);
+        long lo = x * y;
+        if (hi >> 31 != hi >> 63) {
+            return saturate(x ^ y);
+        }
+        long r = (hi << 32) | (lo >>> 32);
+        if (r == ERROR) {
+            return -MAX;
+        }
+        return r == MAX ? r : r + ((lo >>> 31) & 1);
+    }
+
+    // (x << 32) / y as a 128-by-64 division, rounding half away from zero.
+    public static long div(long x, long y) {
+        if (y == 0) {
+            return ERROR;
+        }
+        long ux = x < 0 ? -x : x;
+        long uy = y < 0 ? -y : y;
+        long u1 = ux >>> 32;
+        long u0 = ux << 32;
+        if (Long.compareUnsigned(u1, uy) >= 0) {
+            return saturate(x ^ y);
+        }
+        long q = divlu(u1, u0, uy);
+        long rem = u0 - q * uy;
+        if (Long.compareUnsigned(rem, uy - rem) >= 0) {
+            q++;
+        }
+        if (q < 0) {
+            return saturate(x ^ y);
+        }
+        return (x ^ y) < 0 ? -q : q;
+    }
+
+    // sqrt(x * 2^32) as an integer: Newton's method from above on the 96-bit
+    // radicand, then rounded to nearest.
+    public static long sqrt(long x) {
+        if (x <= 0) {
+            return x == 0 ? 0 : ERROR;
+        }
+        long hi = x >>> 32;
+        long lo = x << 32;
+        int bits = hi != 0 ? 128 - Long.numberOfLeadingZeros(hi) : 64 - Long.numberOfLeadingZeros(lo);
+        long y = 1L << ((bits + 1) / 2);
+        while (true) {
+            long z = (y + divlu(hi, lo, y)) >>> 1;
+            if (z >= y) {
+                break;
+            }
+            y = z;
+        }
+        long rem = lo - y * y;
+        return rem > y ? y + 1 : y;
+    }
+
+    public static long exp(long x) {
+        if (x > EXP_MAX) {
+            return MAX;
+        }
+        if (x < EXP_MIN) {
+            return 0;
+        }
+        return exp57(x << 25);
+    }
+
+    public static long log(long x) {
+        if (x <= 0) {
+            return ERROR;
+        }
+        long l = log57(x);
+        return (l + (1L << 24)) >> 25;
+    }
+
+    // exp(y log x). x == 0 gives 0 for y > 0 and ERROR for y < 0.
+    public static long pow(long x, long y) {
+        if (y == 0) {
+            return ONE;
+        }
+        if (x <= 0) {
+            return x == 0 && y > 0 ? 0 : ERROR;
+        }
+        long l = log57(x);
+        long hi = Math.multiplyHigh(y, l);
+        long lo = y * l;
+        if (hi >> 31 != hi >> 63) {
+            return hi < 0 ? 0 : MAX;
+        }
+        long t = (hi << 32) | (lo >>> 32);
+        if (t > EXP_MAX_57) {
+            return MAX;
+        }
+        if (t < EXP_MIN_57) {
+            return 0;
+        }
+        return exp57(t);
+    }
+
+    public static long sin(long x) {
+        long k = quadrant(x);
+        long r = reduce(x, k);
+        switch ((int) k & 3) {
+            case 0: return toQ32(sin62(r));
+            case 1: return toQ32(cos62(r));
+            case 2: return toQ32(-sin62(r));
+            default: return toQ32(-cos62(r));
+        }
+    }
+
+    public static long cos(long x) {
+        long k = quadrant(x);
+        long r = reduce(x, k);
+        switch ((int) k & 3) {
+            case 0: return toQ32(cos62(r));
+            case 1: return toQ32(-sin62(r));
+            case 2: return toQ32(-cos62(r));
+            default: return toQ32(sin62(r));
+        }
+    }
+
+    // Q62 sine over Q62 cosine is the Q32.32 quotient, which div computes.
+    public static long tan(long x) {
+        long k = quadrant(x);
+        long r = reduce(x, k);
+        if ((k & 1) == 0) {
+            return div(sin62(r), cos62(r));
+        }
+        long s = sin62(r);
+        return s == 0 ? MAX : div(-cos62(r), s);
+    }
+
+    // Q57 (|t| < 64, within [EXP_MIN_57, EXP_MAX_57]) to a Q32.32 e^t.
+    private static long exp57(long t) {
+        long k = expIndex(t);
+        long p = expScaled62(t, k);
+        int shift = 30 - (int) (k >> 5);
+        if (shift > 63) {
+            return 0;
+        }
+        if (shift > 0) {
+            return ((p >> (shift - 1)) + 1) >> 1;
+        }
+        return p > MAX >> -shift ? MAX : p << -shift;
+    }
+
+    // With t = k ln2/32 + r, e^t = 2^(k >> 5) * 2^((k & 31)/32) * e^r and
+    // |r| <= ln2/64: k for a Q57 t.
+    static long expIndex(long t) {
+        return (Math.multiplyHigh(t, INV_LN2_32_56) + (1L << 48)) >> 49;
+    }
+
+    // 2^((k & 31)/32) * e^r in Q62, in [2^-1/64, 2); a degree 7 polynomial is
+    // good to 2^-66 for e^r.
+    static long expScaled62(long t, long k) {
+        // The exact r is tiny, so wrapping arithmetic still yields it.
+        long r = (t << 5) - k * LN2_32_62 - Math.multiplyHigh(k, LN2_32_LO);
+        long p = INV_FACT[7];
+        for (int n = 6; n >= 0; n--) {
+            p = INV_FACT[n] + mul62(p, r);
+        }
+        return mul62(EXP2[(int) k & 31], p);
+    }
+
+    // log x in Q57 for x > 0, as e ln2 + log m for x = 2^e * m.
+    private static long log57(long x) {
+        int lz = Long.numberOfLeadingZeros(x);
+        long e = 31 - lz;
+        long hi = Math.multiplyHigh(e, LN2_62);
+        long lo = e * LN2_62;
+        return ((hi << 59) | (lo >>> 5)) + (log62(x << (lz - 1)) >> 5);
+    }
+
+    // log m in Q62 for m in [1, 2) in Q62. With c the midpoint of m's table
+    // interval, log m = log c + 2 atanh(s) for s = (m - c)/(m + c),
+    // |s| <= 1/64.
+    static long log62(long m) {
+        int j = (int) (m >>> 58) & 15;
+        long c = ONE62 + ((long) j << 58) + (1L << 57);
+        long s = div62(m - c, m + c);
+        long z = mul62(s, s);
+        long q = INV_ODD[5];
+        for (int n = 4; n >= 0; n--) {
+            q = INV_ODD[n] + mul62(q, z);
+        }
+        return LOG_MID[j] + 2 * mul62(s, q);
+    }
+
+    // round(x * 2/pi), the multiple of pi/2 closest to x.
+    private static long quadrant(long x) {
+        return (Math.multiplyHigh(x, TWO_OVER_PI_62) + (1L << 29)) >> 30;
+    }
+
+    // x - k pi/2 in Q62, with pi/2 to 126 bits so that the error stays
+    // below 2^-90 for every representable x.
+    private static long reduce(long x, long k) {
+        return (x << 30) - k * PIO2_62 - Math.multiplyHigh(k, PIO2_LO);
+    }
+
+    // |r| <= pi/4 + 2^-30; Taylor series through r^15 and r^16, both good
+    // to about 2^-54, as r(1/1! - z(1/3! - z(1/5! - ...))) with z = r^2.
+    private static long sin62(long r) {
+        return sin62(r, 15);
+    }
+
+    private static long cos62(long r) {
+        return cos62(r, 16);
+    }
+
+    // The same series through r^last; through r^19 and r^20 they are good to
+    // the last bits of Q62.
+    static long sin62(long r, int last) {
+        long z = mul62(r, r);
+        long p = INV_FACT[last];
+        for (int n = last - 2; n >= 1; n -= 2) {
+            p = INV_FACT[n] - mul62(p, z);
+        }
+        return mul62(r, p);
+    }
+
+    static long cos62(long r, int last) {
+        long z = mul62(r, r);
+        long p = INV_FACT[last];
+        for (int n = last - 2; n >= 0; n -= 2) {
+            p = INV_FACT[n] - mul62(p, z);
+        }
+        return p;
+    }
+
+    private static long toQ32(long v62) {
+        return (v62 + (1L << 29)) >> 30;
+    }
+
+    // Q62 product, truncated; the result must lie in [-2, 2).
+    static long mul62(long x, long y) {
+        return (Math.multiplyHigh(x, y) << 2) | ((x * y) >>> 62);
+    }
+
+    // Q62 quotient, truncated toward zero; |x| < y, with y read as unsigned.
+    private static long div62(long x, long y) {
+        long ux = x < 0 ? -x : x;
+        long q = divlu(ux >>> 2, ux << 62, y);
+        return x < 0 ? -q : q;
+    }
+
+    private static long saturate(long sign) {
+        return sign < 0 ? -MAX : MAX;
+    }
+
+    // The unsigned 128-by-64 division u1:u0 / v for u1 < v, with two 64-by-32
+    // steps on a normalized divisor (Hacker's Delight, divlu).
+    static long divlu(long u1, long u0, long v) {
+        final long b = 1L << 32;
+        int s = Long.numberOfLeadingZeros(v);
+        v <<= s;
+        long vn1 = v >>> 32;
+        long vn0 = v & 0xFFFFFFFFL;
+        long un32 = (u1 << s) | (s == 0 ? 0 : u0 >>> (64 - s));
+        long un10 = u0 << s;
+        long un1 = un10 >>> 32;
+        long un0 = un10 & 0xFFFFFFFFL;
+
+        long q1 = Long.divideUnsigned(un32, vn1);
+        long rhat = un32 - q1 * vn1;
+        while (q1 >= b || Long.compareUnsigned(q1 * vn0, (rhat << 32) | un1) > 0) {
+            q1--;
+            rhat += vn1;
+            if (rhat >= b) {
+                break;
+            }
+        }
+        long un21 = (un32 << 32) + un1 - q1 * v;
+        long q0 = Long.divideUnsigned(un21, vn1);
+        rhat = un21 - q0 * vn1;
+        while (q0 >= b || Long.compareUnsigned(q0 * vn0, (rhat << 32) | un0) > 0) {
+            q0--;
+            rhat += vn1;
+            if (rhat >= b) {
+                break;
+            }
+        }
+        return (q1 << 32) + q0;
+    }
+}
@@ -0,0 +1,560 @@
+package dedis.fp;
+
+import java.util.Arrays;
+
+// Q64.64 fixed point: a register file of 128-bit values, each kept as a
+// signed integer word in hi[] and an unsigned fraction word in lo[]. The range
+// is about +-2^63 at a resolution of 2^-64; -2^63 itself is ERROR, so results
+// that land on it saturate. Ops read and write slots, so nothing is
+// allocated; like Fixed they use only integer instructions, saturate on
+// overflow and return ERROR on domain errors. mul and div round
+// to nearest, sqrt rounds down. Not thread-safe: the division keeps its
+// intermediate words in fields.
+//
+// exp, log, pow, sin, cos and tan reuse Fixed's Q62 kernels, with longer sin
+// and cos series. Against a 90-digit reference, sin and cos are within 2^-61
+// absolute, log within 2^-58, and exp within 2^-58 relative (absolute below
+// 1). pow is exp(y log x), so its relative error grows with y as about
+// 2^-58 + |y| 2^-60: 2^-49 for x = 1.003 and y = 6629.5. tan is sin/cos, so
+// its absolute error grows as about (1 + tan^2) 2^-62 towards the poles.
+final class Fixed128 {
+
+    // ln(2^63) and ln(2^-65) in Q57: exp saturates above the first and rounds
+    // to 0 below the second.
+    private static final long EXP_MAX_57 = 0x575627CBF9441DE3L;
+    private static final long EXP_MIN_57 = -0x5A1BF02BD88B5BC9L;
+    // The 64 bits after Fixed's Q62 ln2 and 2/pi, signed.
+    private static final long LN2_LO = -0xD871319FF034254L;
+    private static final long TWO_OVER_PI_LO = 0x7F09D5F47D4D3770L;
+
+    private long[] hi;
+    private long[] lo;
+    // Quotient and remainder of the last udiv.
+    private long q1;
+    private long q0;
+    private long r1;
+    private long r0;
+
+    Fixed128(int slots) {
+        hi = new long[slots];
+        lo = new long[slots];
+    }
+
+    int slots() {
+        return hi.length;
+    }
+
+    // Appends count zero slots and returns the first.
+    int grow(int count) {
+        int first = hi.length;
+        hi = Arrays.copyOf(hi, first + count);
+        lo = Arrays.copyOf(lo, first + count);
+        return first;
+    }
+
+    long hi(int a) {
+        return hi[a];
+    }
+
+    long lo(int a) {
+        return lo[a];
+    }
+
+    boolean isError(int a) {
+        return hi[a] == Long.MIN_VALUE && lo[a] == 0;
+    }
+
+    void set(int r, double x) {
+        if (x != x) {
+            error(r);
+            return;
+        }
+        if (Math.abs(x) >= 0x1p63) {
+            saturate(r, x < 0);
+            return;
+        }
+        long bits = Double.doubleToRawLongBits(x);
+        int e = (int) (bits >>> 52) & 0x7FF;
+        long m = bits & 0xFFFFFFFFFFFFFL;
+        if (e == 0) {
+            e = 1;
+        } else {
+            m |= 1L << 52;
+        }
+        // |x| = m * 2^(e - 1075), so the raw value is m << (e - 1011).
+        int shift = e - 1011;
+        long h;
+        long l;
+        if (shift >= 64) {
+            h = m << (shift - 64);
+            l = 0;
+        } else if (shift > 0) {
+            h = m >>> (64 - shift);
+            l = m << shift;
+        } else if (shift == 0) {
+            h = 0;
+            l = m;
+        } else if (shift > -64) {
+            h = 0;
+            l = (m >>> -shift) + ((m >>> (-shift - 1)) & 1);
+        } else {
+            h = 0;
+            l = 0;
+        }
+        store(r, h, l, x < 0);
+    }
+
+    // Correctly rounded, with the bits below the top 64 folded into a
+    // sticky bit.
+    double get(int a) {
+        if (isError(a)) {
+            return Double.NaN;
+        }
+        long h = hi[a];
+        long l = lo[a];
+        boolean neg = h < 0;
+        if (neg) {
+            l = -l;
+            h = ~h + (l == 0 ? 1 : 0);
+        }
+        double d;
+        if (h == 0) {
+            d = unsignedToDouble(l) * 0x1p-64;
+        } else {
+            int s = Long.numberOfLeadingZeros(h);
+            long top = s == 0 ? h : (h << s) | (l >>> (64 - s));
+            long rest = s == 0 ? l : l << s;
+            d = Math.scalb(unsignedToDouble(top | (rest != 0 ? 1 : 0)), -s);
+        }
+        return neg ? -d : d;
+    }
+
+    void add(int r, int a, int b) {
+        long l = lo[a] + lo[b];
+        long carry = Long.compareUnsigned(l, lo[a]) < 0 ? 1 : 0;
+        long h = hi[a] + hi[b] + carry;
+        if (((hi[a] ^ h) & (hi[b] ^ h)) < 0 || h == Long.MIN_VALUE && l == 0) {
+            saturate(r, hi[a] < 0);
+            return;
+        }
+        hi[r] = h;
+        lo[r] = l;
+    }
+
+    void sub(int r, int a, int b) {
+        long l = lo[a] - lo[b];
+        long borrow = Long.compareUnsigned(lo[a], lo[b]) < 0 ? 1 : 0;
+        long h = hi[a] - hi[b] - borrow;
+        if (((hi[a] ^ hi[b]) & (hi[a] ^ h)) < 0 || h == Long.MIN_VALUE && l == 0) {
+            saturate(r, hi[a] < 0);
+            return;
+        }
+        hi[r] = h;
+        lo[r] = l;
+    }
+
+    void mul(int r, int a, int b) {
+        mul(r, hi[a], lo[a], hi[b], lo[b]);
+    }
+
+    // Bits 64 to 191 of the 256-bit product of the magnitudes, rounding half up.
+    private void mul(int r, long a1, long a0, long b1, long b0) {
+        boolean neg = (a1 ^ b1) < 0;
+        if (a1 < 0) {
+            a0 = -a0;
+            a1 = ~a1 + (a0 == 0 ? 1 : 0);
+        }
+        if (b1 < 0) {
+            b0 = -b0;
+            b1 = ~b1 + (b0 == 0 ? 1 : 0);
+        }
+        long h00 = umulh(a0, b0);
+        long l00 = a0 * b0;
+        long h01 = umulh(a0, b1);
+        long l01 = a0 * b1;
+        long h10 = umulh(a1, b0);
+        long l10 = a1 * b0;
+        long h11 = umulh(a1, b1);
+        long l11 = a1 * b1;
+
+        long s0 = h00 + l01;
+        long c0 = Long.compareUnsigned(s0, h00) < 0 ? 1 : 0;
+        long p0 = s0 + l10;
+        c0 += Long.compareUnsigned(p0, s0) < 0 ? 1 : 0;
+        long s1 = h01 + h10;
+        long c1 = Long.compareUnsigned(s1, h01) < 0 ? 1 : 0;
+        long t1 = s1 + l11;
+        c1 += Long.compareUnsigned(t1, s1) < 0 ? 1 : 0;
+        long p1 = t1 + c0;
+        c1 += Long.compareUnsigned(p1, t1) < 0 ? 1 : 0;
+        if (l00 < 0) {
+            p0++;
+            if (p0 == 0) {
+                p1++;
+                c1 += p1 == 0 ? 1 : 0;
+            }
+        }
+        if (h11 != 0 || c1 != 0 || p1 < 0) {
+            saturate(r, neg);
+            return;
+        }
+        store(r, p1, p0, neg);
+    }
+
+    void div(int r, int a, int b) {
+        div(r, hi[a], lo[a], hi[b], lo[b]);
+    }
+
+    // (|a| << 64) / |b|, a 192-by-128 division.
+    private void div(int r, long a1, long a0, long b1, long b0) {
+        if (b1 == 0 && b0 == 0) {
+            error(r);
+            return;
+        }
+        boolean neg = (a1 ^ b1) < 0;
+        if (a1 < 0) {
+            a0 = -a0;
+            a1 = ~a1 + (a0 == 0 ? 1 : 0);
+        }
+        if (b1 < 0) {
+            b0 = -b0;
+            b1 = ~b1 + (b0 == 0 ? 1 : 0);
+        }
+        if (!udiv(a1, a0, 0, b1, b0)) {
+            saturate(r, neg);
+            return;
+        }
+        // Round half up: compare the remainder with divisor - remainder.
+        long e0 = b0 - r0;
+        long e1 = b1 - r1 - (Long.compareUnsigned(b0, r0) < 0 ? 1 : 0);
+        int cmp = Long.compareUnsigned(r1, e1);
+        if (cmp > 0 || cmp == 0 && Long.compareUnsigned(r0, e0) >= 0) {
+            q0++;
+            if (q0 == 0) {
+                q1++;
+            }
+        }
+        if (q1 < 0) {
+            saturate(r, neg);
+            return;
+        }
+        store(r, q1, q0, neg);
+    }
+
+    // floor(sqrt(|a| << 64)) by Newton's method from above on the 192-bit
+    // radicand.
+    void sqrt(int r, int a) {
+        long n1 = hi[a];
+        long n0 = lo[a];
+        if (n1 < 0) {
+            error(r);
+            return;
+        }
+        if (n1 == 0 && n0 == 0) {
+            hi[r] = 0;
+            lo[r] = 0;
+            return;
+        }
+        int bits = 64 + (n1 != 0 ? 128 - Long.numberOfLeadingZeros(n1) : 64 - Long.numberOfLeadingZeros(n0));
+        int half = (bits + 1) / 2;
+        long y1 = half >= 64 ? 1L << (half - 64) : 0;
+        long y0 = half >= 64 ? 0 : 1L << half;
+        while (true) {
+            udiv(n1, n0, 0, y1, y0);
+            // z = (y + n / y) / 2; y + n / y < 2^129 when y >= sqrt(n)
+            long s0 = y0 + q0;
+            long carry = Long.compareUnsigned(s0, y0) < 0 ? 1 : 0;
+            long s1 = y1 + q1 + carry;
+            long top = Long.compareUnsigned(s1, y1) < 0 || (carry == 1 && s1 == y1) ? 1 : 0;
+            long z1 = (s1 >>> 1) | (top << 63);
+            long z0 = (s0 >>> 1) | (s1 << 63);
+            int cmp = Long.compareUnsigned(z1, y1);
+            if (cmp > 0 || cmp == 0 && Long.compareUnsigned(z0, y0) >= 0) {
+                break;
+            }
+            y1 = z1;
+            y0 = z0;
+        }
+        hi[r] = y1;
+        lo[r] = y0;
+    }
+
+    void exp(int r, int a) {
+        long h = hi[a];
+        if (h >= 44) {
+            saturate(r, false);
+            return;
+        }
+        if (h < -46) {
+            hi[r] = 0;
+            lo[r] = 0;
+            return;
+        }
+        exp57(r, (h << 57) + (lo[a] >>> 7) + ((lo[a] >>> 6) & 1));
+    }
+
+    // With x = 2^e * m for m in [1, 2), e ln2 + log m; e ln2 is exact to
+    // 2^-64 from the two words of ln2.
+    void log(int r, int a) {
+        long h = hi[a];
+        long l = lo[a];
+        if (h < 0 || h == 0 && l == 0) {
+            error(r);
+            return;
+        }
+        long e;
+        long m;
+        if (h != 0) {
+            int lz = Long.numberOfLeadingZeros(h);
+            e = 63 - lz;
+            m = lz == 1 ? h : (h << (lz - 1)) | (l >>> (65 - lz));
+        } else {
+            int lz = Long.numberOfLeadingZeros(l);
+            e = -1 - lz;
+            m = lz == 0 ? l >>> 1 : l << (lz - 1);
+        }
+        long ph = Math.multiplyHigh(e, Fixed.LN2_62);
+        long pl = e * Fixed.LN2_62;
+        hi[r] = (ph << 2) | (pl >>> 62);
+        lo[r] = pl << 2;
+        long c = (Math.multiplyHigh(e, LN2_LO) << 2) | ((e * LN2_LO) >>> 62);
+        addRaw(r, c >> 63, c);
+        long v = Fixed.log62(m);
+        addRaw(r, v >> 62, v << 2);
+    }
+
+    // exp(y log x), with y log x as a Q64.64 product. x == 0 gives 0 for
+    // y > 0 and ERROR for y < 0.
+    void pow(int r, int a, int b) {
+        long yh = hi[b];
+        long yl = lo[b];
+        if (yh == 0 && yl == 0) {
+            hi[r] = 1;
+            lo[r] = 0;
+            return;
+        }
+        if (hi[a] < 0 || hi[a] == 0 && lo[a] == 0) {
+            if (hi[a] == 0 && lo[a] == 0 && yh >= 0) {
+                hi[r] = 0;
+                lo[r] = 0;
+            } else {
+                error(r);
+            }
+            return;
+        }
+        log(r, a);
+        mul(r, hi[r], lo[r], yh, yl);
+        exp(r, r);
+    }
+
+    void sin(int r, int a) {
+        long k = quadrant(hi[a], lo[a]);
+        long v = reduce(hi[a], lo[a], k);
+        switch ((int) k & 3) {
+            case 0: store62(r, Fixed.sin62(v, 19)); break;
+            case 1: store62(r, Fixed.cos62(v, 20)); break;
+            case 2: store62(r, -Fixed.sin62(v, 19)); break;
+            default: store62(r, -Fixed.cos62(v, 20)); break;
+        }
+    }
+
+    void cos(int r, int a) {
+        long k = quadrant(hi[a], lo[a]);
+        long v = reduce(hi[a], lo[a], k);
+        switch ((int) k & 3) {
+            case 0: store62(r, Fixed.cos62(v, 20)); break;
+            case 1: store62(r, -Fixed.sin62(v, 19)); break;
+            case 2: store62(r, -Fixed.cos62(v, 20)); break;
+            default: store62(r, Fixed.sin62(v, 19)); break;
+        }
+    }
+
+    // Q62 sine over Q62 cosine is the Q64.64 quotient, which div computes.
+    void tan(int r, int a) {
+        long k = quadrant(hi[a], lo[a]);
+        long v = reduce(hi[a], lo[a], k);
+        long s = Fixed.sin62(v, 19);
+        long c = Fixed.cos62(v, 20);
+        if ((k & 1) == 0) {
+            div(r, s >> 63, s, c >> 63, c);
+        } else if (s == 0) {
+            saturate(r, false);
+        } else {
+            div(r, -c >> 63, -c, s >> 63, s);
+        }
+    }
+
+    // e^t for a Q57 t, as 2^((k >> 5) + 2) times Fixed's Q62 scaled
+    // polynomial.
+    private void exp57(int r, long t) {
+        if (t > EXP_MAX_57) {
+            saturate(r, false);
+            return;
+        }
+        if (t < EXP_MIN_57) {
+            hi[r] = 0;
+            lo[r] = 0;
+            return;
+        }
+        long k = Fixed.expIndex(t);
+        long p = Fixed.expScaled62(t, k);
+        int shift = (int) (k >> 5) + 2;
+        if (shift >= 64) {
+            if (p > Long.MAX_VALUE >> (shift - 64)) {
+                saturate(r, false);
+                return;
+            }
+            hi[r] = p << (shift - 64);
+            lo[r] = 0;
+        } else if (shift > 0) {
+            hi[r] = p >>> (64 - shift);
+            lo[r] = p << shift;
+        } else {
+            hi[r] = 0;
+            lo[r] = shift == 0 ? p : shift < -64 ? 0 : ((p >>> (-shift - 1)) + 1) >>> 1;
+        }
+    }
+
+    // round(x * 2/pi), from 2/pi to 126 bits so that it is exact up to ties
+    // for every representable x.
+    private static long quadrant(long h, long l) {
+        long ph = Math.multiplyHigh(h, Fixed.TWO_OVER_PI_62);
+        long pl = h * Fixed.TWO_OVER_PI_62;
+        long c = Math.multiplyHigh(h, TWO_OVER_PI_LO) + umulh(l, Fixed.TWO_OVER_PI_62);
+        long sl = pl + c;
+        long sh = ph + (c >> 63) + (Long.compareUnsigned(sl, pl) < 0 ? 1 : 0);
+        long rl = sl + (1L << 61);
+        sh += Long.compareUnsigned(rl, sl) < 0 ? 1 : 0;
+        return (sh << 2) | (rl >>> 62);
+    }
+
+    // x - k pi/2 in Q62; the exact result is small, so wrapping arithmetic
+    // yields it, and the third word of pi/2 would add under 2^-65.
+    private static long reduce(long h, long l, long k) {
+        return ((h << 62) | (l >>> 2)) - k * Fixed.PIO2_62 - Math.multiplyHigh(k, Fixed.PIO2_LO);
+    }
+
+    // Unsigned (n2:n1:n0) / (d1:d0) into q1:q0 and r1:r0; false if the
+    // quotient needs more than 128 bits. Knuth's algorithm D with 64-bit
+    // digits, each quotient digit estimated by a 128-by-64 divlu.
+    private boolean udiv(long n2, long n1, long n0, long d1, long d0) {
+        if (d1 == 0) {
+            if (Long.compareUnsigned(n2, d0) >= 0) {
+                return false;
+            }
+            q1 = Fixed.divlu(n2, n1, d0);
+            long rem = n1 - q1 * d0;
+            q0 = Fixed.divlu(rem, n0, d0);
+            r1 = 0;
+            r0 = n0 - q0 * d0;
+            return true;
+        }
+        int s = Long.numberOfLeadingZeros(d1);
+        long v1 = s == 0 ? d1 : (d1 << s) | (d0 >>> (64 - s));
+        long v0 = d0 << s;
+        long u3 = s == 0 ? 0 : n2 >>> (64 - s);
+        long u2 = s == 0 ? n2 : (n2 << s) | (n1 >>> (64 - s));
+        long u1 = s == 0 ? n1 : (n1 << s) | (n0 >>> (64 - s));
+        long u0 = n0 << s;
+        int cmp = Long.compareUnsigned(u3, v1);
+        if (cmp > 0 || cmp == 0 && Long.compareUnsigned(u2, v0) >= 0) {
+            return false;
+        }
+        long qh = digit(u3, u2, u1, v1, v0);
+        long ql = digit(r1, r0, u0, v1, v0);
+        q1 = qh;
+        q0 = ql;
+        r0 = s == 0 ? r0 : (r0 >>> s) | (r1 << (64 - s));
+        r1 = r1 >>> s;
+        return true;
+    }
+
+    // One digit of (u2:u1:u0) / (v1:v0) for a normalized divisor and
+    // (u2:u1) < (v1:v0); the remainder goes to r1:r0.
+    private long digit(long u2, long u1, long u0, long v1, long v0) {
+        long q;
+        long rhat;
+        boolean rhatFits;
+        if (u2 == v1) {
+            q = -1L;
+            rhat = u1 + v1;
+            rhatFits = Long.compareUnsigned(rhat, u1) >= 0;
+        } else {
+            q = Fixed.divlu(u2, u1, v1);
+            rhat = u1 - q * v1;
+            rhatFits = true;
+        }
+        while (rhatFits) {
+            long ph = umulh(q, v0);
+            long pl = q * v0;
+            int cmp = Long.compareUnsigned(ph, rhat);
+            if (cmp < 0 || cmp == 0 && Long.compareUnsigned(pl, u0) <= 0) {
+                break;
+            }
+            q--;
+            long next = rhat + v1;
+            rhatFits = Long.compareUnsigned(next, rhat) >= 0;
+            rhat = next;
+        }
+        // (u2:u1:u0) - q * (v1:v0)
+        long p0 = q * v0;
+        long c = umulh(q, v0);
+        long p1 = q * v1 + c;
+        long p2 = umulh(q, v1) + (Long.compareUnsigned(p1, c) < 0 ? 1 : 0);
+        long w0 = u0 - p0;
+        long b = Long.compareUnsigned(u0, p0) < 0 ? 1 : 0;
+        long w1 = u1 - p1 - b;
+        b = Long.compareUnsigned(u1, p1) < 0 || (b == 1 && u1 == p1) ? 1 : 0;
+        long w2 = u2 - p2 - b;
+        if (w2 != 0) {
+            // One too many: add the divisor back.
+            q--;
+            long t0 = w0 + v0;
+            long carry = Long.compareUnsigned(t0, w0) < 0 ? 1 : 0;
+            w1 = w1 + v1 + carry;
+            w0 = t0;
+        }
+        r1 = w1;
+        r0 = w0;
+        return q;
+    }
+
+    private void store(int r, long h, long l, boolean neg) {
+        if (neg) {
+            l = -l;
+            h = ~h + (l == 0 ? 1 : 0);
+        }
+        hi[r] = h;
+        lo[r] = l;
+    }
+
+    private void store62(int r, long v) {
+        hi[r] = v >> 62;
+        lo[r] = v << 2;
+    }
+
+    // Adds h:l to slot r, which must not overflow.
+    private void addRaw(int r, long h, long l) {
+        long s = lo[r] + l;
+        hi[r] += h + (Long.compareUnsigned(s, l) < 0 ? 1 : 0);
+        lo[r] = s;
+    }
+
+    private void saturate(int r, boolean neg) {
+        hi[r] = neg ? Long.MIN_VALUE : Long.MAX_VALUE;
+        lo[r] = neg ? 1 : -1L;
+    }
+
+    private void error(int r) {
+        hi[r] = Long.MIN_VALUE;
+        lo[r] = 0;
+    }
+
+    private static long umulh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    private static double unsignedToDouble(long x) {
+        return x >= 0 ? x : ((x >>> 1) | (x & 1)) * 2.0;
+    }
+}
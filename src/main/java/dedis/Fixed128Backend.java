@@ -0,0 +1,138 @@
+package dedis.fp;
+
+// Q64.64 fixed point (see Fixed128). Values are slot numbers in a per-thread
+// register file; like MpfrSlotBackend, every op writes into the next slot of
+// a ring of SLOTS results, so a result stays valid until the ring wraps
+// around, and only encode(double[]) allocates long-lived slots.
+final class Fixed128Backend implements LongBackend {
+
+    static final int SLOTS = 1024;
+
+    private final Fixed128 file = new Fixed128(SLOTS);
+    private int next;
+
+    @Override
+    public String name() {
+        return FPTest.FIXED128;
+    }
+
+    @Override
+    public boolean binary64() {
+        return false;
+    }
+
+    // The register file is not thread-safe, so every thread gets its own.
+    @Override
+    public FloatBackend<Long> perThread() {
+        return new Fixed128Backend();
+    }
+
+    @Override
+    public long encode(double x) {
+        int r = result();
+        file.set(r, x);
+        return r;
+    }
+
+    @Override
+    public long[] encode(double[] xs) {
+        long[] out = new long[xs.length];
+        int first = file.grow(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            file.set(first + i, xs[i]);
+            out[i] = (long) (first + i);
+        }
+        return out;
+    }
+
+    @Override
+    public double decode(long x) {
+        return file.get((int) x);
+    }
+
+    @Override
+    public long consume(long x) {
+        return file.lo((int) x);
+    }
+
+    private int result() {
+        return next++ & (SLOTS - 1);
+    }
+
+    @Override
+    public long add(long x, long y) {
+        int r = result();
+        file.add(r, (int) x, (int) y);
+        return r;
+    }
+
+    @Override
+    public long sub(long x, long y) {
+        int r = result();
+        file.sub(r, (int) x, (int) y);
+        return r;
+    }
+
+    @Override
+    public long mul(long x, long y) {
+        int r = result();
+        file.mul(r, (int) x, (int) y);
+        return r;
+    }
+
+    @Override
+    public long div(long x, long y) {
+        int r = result();
+        file.div(r, (int) x, (int) y);
+        return r;
+    }
+
+    @Override
+    public long sqrt(long x) {
+        int r = result();
+        file.sqrt(r, (int) x);
+        return r;
+    }
+
+    @Override
+    public long log(long x) {
+        int r = result();
+        file.log(r, (int) x);
+        return r;
+    }
+
+    @Override
+    public long exp(long x) {
+        int r = result();
+        file.exp(r, (int) x);
+        return r;
+    }
+
+    @Override
+    public long pow(long x, long y) {
+        int r = result();
+        file.pow(r, (int) x, (int) y);
+        return r;
+    }
+
+    @Override
+    public long sin(long x) {
+        int r = result();
+        file.sin(r, (int) x);
+        return r;
+    }
+
+    @Override
+    public long cos(long x) {
+        int r = result();
+        file.cos(r, (int) x);
+        return r;
+    }
+
+    @Override
+    public long tan(long x) {
+        int r = result();
+        file.tan(r, (int) x);
+        return r;
+    }
+}
@@ -0,0 +1,80 @@
+package dedis.fp;
+
+// Q32.32 fixed point (see Fixed); values are the raw longs.
+final class FixedBackend implements LongBackend {
+
+    @Override
+    public String name() {
+        return FPTest.FIXED;
+    }
+
+    @Override
+    public boolean binary64() {
+        return false;
+    }
+
+    @Override
+    public long encode(double x) {
+        return Fixed.fromDouble(x);
+    }
+
+    @Override
+    public double decode(long x) {
+        return Fixed.toDouble(x);
+    }
+
+    @Override
+    public long add(long x, long y) {
+        return Fixed.add(x, y);
+    }
+
+    @Override
+    public long sub(long x, long y) {
+        return Fixed.sub(x, y);
+    }
+
+    @Override
+    public long mul(long x, long y) {
+        return Fixed.mul(x, y);
+    }
+
+    @Override
+    public long div(long x, long y) {
+        return Fixed.div(x, y);
+    }
+
+    @Override
+    public long sqrt(long x) {
+        return Fixed.sqrt(x);
+    }
+
+    @Override
+    public long log(long x) {
+        return Fixed.log(x);
+    }
+
+    @Override
+    public long exp(long x) {
+        return Fixed.exp(x);
+    }
+
+    @Override
+    public long pow(long x, long y) {
+        return Fixed.pow(x, y);
+    }
+
+    @Override
+    public long sin(long x) {
+        return Fixed.sin(x);
+    }
+
+    @Override
+    public long cos(long x) {
+        return Fixed.cos(x);
+    }
+
+    @Override
+    public long tan(long x) {
+        return Fixed.tan(x);
+    }
+}
@@ -0,0 +1,85 @@
+package dedis.fp;
+
+// A floating-point implementation under test, over its native value type T.
+public interface FloatBackend<T> {
+
+    String name();
+
+    // Returns an instance that one more thread can use. Stateless backends
+    // return themselves.
+    default FloatBackend<T> perThread() {
+        return this;
+    }
+
+    // Whether the backend implements op. Backends.forOp and forKernel leave
+    // it out of ops it does not; its methods for those are never called.
+    default boolean supports(Op op) {
+        return true;
+    }
+
+    // Whether every value is a binary64 double, so that toDouble and then
+    // fromDouble give it back exactly. False for fixed point, and for MPFR
+    // values that keep 53 bits outside the double exponent range.
+    default boolean binary64() {
+        return true;
+    }
+
+    T fromDouble(double x);
+
+    double toDouble(T x);
+
+    T[] newArray(int length);
+
+    // Returns something cheap that depends on x, so that drivers can fold
+    // results into a sink and keep the computation alive.
+    long consume(T x);
+
+    T add(T x, T y);
+
+    T sub(T x, T y);
+
+    T mul(T x, T y);
+
+    T div(T x, T y);
+
+    T sqrt(T x);
+
+    T log(T x);
+
+    T exp(T x);
+
+    T pow(T x, T y);
+
+    T sin(T x);
+
+    T cos(T x);
+
+    T tan(T x);
+
+    // Runs op on doubles through T; y is ignored by unary ops.
+    default double apply(Op op, double x, double y) {
+        T a = fromDouble(x);
+        switch (op) {
+            case ADD: return toDouble(add(a, fromDouble(y)));
+            case SUB: return toDouble(sub(a, fromDouble(y)));
+            case MUL: return toDouble(mul(a, fromDouble(y)));
+            case DIV: return toDouble(div(a, fromDouble(y)));
+            case POW: return toDouble(pow(a, fromDouble(y)));
+            case SQRT: return toDouble(sqrt(a));
+            case LOG: return toDouble(log(a));
+            case EXP: return toDouble(exp(a));
+            case SIN: return toDouble(sin(a));
+            case COS: return toDouble(cos(a));
+            case TAN: return toDouble(tan(a));
+            default: throw new IllegalArgumentException("Unknown op: " + op);
+        }
+    }
+
+    default T[] fromDoubles(double[] xs) {
+        T[] out = newArray(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            out[i] = fromDouble(xs[i]);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,147 @@
+package dedis.fp;
+
+import org.kframework.mpfr.BigFloat;
+import org.kframework.mpfr.BinaryMathContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Correctly rounded library ops at close to DetMath cost: DetMath's checked
+// functions round their double-double when that is safe under its error bound
+// and only the rest (near-halfway cases, subnormal results, huge trig arguments)
+// are recomputed with BigFloat. add/sub/mul/div/sqrt are correctly rounded already.
+//
+// Each thread's instance counts its own calls and fallbacks without
+// synchronization; stats() sums them once the threads are done. Backends.HYBRID
+// lives for the whole JVM, so FPTest resets it before every experiment.
+final class HybridBackend implements DoubleBackend {
+
+    private final BinaryMathContext mc;
+    private final List<HybridBackend> instances;
+    private final long[] calls = new long[Op.values().length];
+    private final long[] fallbacks = new long[Op.values().length];
+
+    HybridBackend(BinaryMathContext mc) {
+        this(mc, new ArrayList<>());
+    }
+
+    private HybridBackend(BinaryMathContext mc, List<HybridBackend> instances) {
+        this.mc = mc;
+        this.instances = instances;
+        synchronized (instances) {
+            instances.add(this);
+        }
+    }
+
+    @Override
+    public String name() {
+        return FPTest.HYBRID;
+    }
+
+    @Override
+    public FloatBackend<Double> perThread() {
+        return new HybridBackend(mc, instances);
+    }
+
+    // Calls and fallbacks per op, indexed by Op.ordinal(), over all instances.
+    long[][] stats() {
+        long[][] out = new long[2][Op.values().length];
+        synchronized (instances) {
+            for (HybridBackend b : instances) {
+                for (int i = 0; i < out[0].length; i++) {
+                    out[0][i] += b.calls[i];
+                    out[1][i] += b.fallbacks[i];
+                }
+            }
+        }
+        return out;
+    }
+
+    // Starts a new experiment: the per-thread instances of the last one are
+    // done, so they are dropped rather than zeroed and kept.
+    void resetStats() {
+        synchronized (instances) {
+            instances.clear();
+            instances.add(this);
+        }
+        Arrays.fill(calls, 0);
+        Arrays.fill(fallbacks, 0);
+    }
+
+    private double fallback(Op op, BigFloat exact) {
+        fallbacks[op.ordinal()]++;
+        return exact.doubleValue();
+    }
+
+    private BigFloat big(double x) {
+        return new BigFloat(x, mc);
+    }
+
+    @Override
+    public double add(double x, double y) {
+        return x + y;
+    }
+
+    @Override
+    public double sub(double x, double y) {
+        return x - y;
+    }
+
+    @Override
+    public double mul(double x, double y) {
+        return x * y;
+    }
+
+    @Override
+    public double div(double x, double y) {
+        return x / y;
+    }
+
+    @Override
+    public double sqrt(double x) {
+        return Math.sqrt(x);
+    }
+
+    @Override
+    public double log(double x) {
+        calls[Op.LOG.ordinal()]++;
+        double r = DetMath.checkedLog(x);
+        return DetMath.isUnsafe(r) ? fallback(Op.LOG, big(x).log(mc)) : r;
+    }
+
+    @Override
+    public double exp(double x) {
+        calls[Op.EXP.ordinal()]++;
+        double r = DetMath.checkedExp(x);
+        return DetMath.isUnsafe(r) ? fallback(Op.EXP, big(x).exp(mc)) : r;
+    }
+
+    @Override
+    public double pow(double x, double y) {
+        calls[Op.POW.ordinal()]++;
+        double r = DetMath.checkedPow(x, y);
+        return DetMath.isUnsafe(r) ? fallback(Op.POW, big(x).pow(big(y), mc)) : r;
+    }
+
+    @Override
+    public double sin(double x) {
+        calls[Op.SIN.ordinal()]++;
+        double r = DetMath.checkedSin(x);
+        return DetMath.isUnsafe(r) ? fallback(Op.SIN, big(x).sin(mc)) : r;
+    }
+
+    @Override
+    public double cos(double x) {
+        calls[Op.COS.ordinal()]++;
+        double r = DetMath.checkedCos(x);
+        return DetMath.isUnsafe(r) ? fallback(Op.COS, big(x).cos(mc)) : r;
+    }
+
+    @Override
+    public double tan(double x) {
+        calls[Op.TAN.ordinal()]++;
+        double r = DetMath.checkedTan(x);
+        return DetMath.isUnsafe(r) ? fallback(Op.TAN, big(x).tan(mc)) : r;
+    }
+}
@@ -0,0 +1,118 @@
+package dedis.fp;
+
+import java.util.SplittableRandom;
+
+// Named, seeded input distributions. Latency depends heavily on the input
+// range (argument reduction, subnormals, special-case exits), so every
+// experiment is run and reported per profile.
+public enum InputProfile {
+    // [0, 1): the fast path for log, exp, pow and trig
+    UNIT("unit") {
+        @Override
+        double nextX(SplittableRandom random) {
+            return random.nextDouble();
+        }
+
+        @Override
+        double nextY(SplittableRandom random) {
+            return random.nextDouble();
+        }
+    },
+    // Positive normals with a uniformly random exponent; y doubles as a large
+    // pow exponent.
+    WIDE("wide") {
+        @Override
+        double nextX(SplittableRandom random) {
+            long exponent = 1 + random.nextInt(2046);
+            return Double.longBitsToDouble((exponent << 52) | (random.nextLong() & MANTISSA));
+        }
+
+        @Override
+        double nextY(SplittableRandom random) {
+            return random.nextDouble(-1100, 1100);
+        }
+    },
+    SUBNORMAL("subnormal") {
+        @Override
+        double nextX(SplittableRandom random) {
+            return Double.longBitsToDouble(random.nextLong(1, 1L << 52));
+        }
+
+        @Override
+        double nextY(SplittableRandom random) {
+            return Double.longBitsToDouble(random.nextLong(1, 1L << 52));
+        }
+    },
+    // |x| in [2^20, 2^1024): forces full Payne-Hanek style argument reduction
+    TRIG_HUGE("trig-huge") {
+        @Override
+        double nextX(SplittableRandom random) {
+            long exponent = 1023 + 20 + random.nextInt(1024 - 20);
+            long sign = random.nextBoolean() ? Long.MIN_VALUE : 0;
+            return Double.longBitsToDouble(sign | (exponent << 52) | (random.nextLong() & MANTISSA));
+        }
+
+        @Override
+        double nextY(SplittableRandom random) {
+            return nextX(random);
+        }
+    },
+    SPECIAL("special") {
+        @Override
+        double nextX(SplittableRandom random) {
+            return SPECIALS[random.nextInt(SPECIALS.length)];
+        }
+
+        @Override
+        double nextY(SplittableRandom random) {
+            return SPECIALS[random.nextInt(SPECIALS.length)];
+        }
+    };
+
+    static final long MANTISSA = (1L << 52) - 1;
+    static final double[] SPECIALS = {
+            0.0, -0.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN,
+            Double.MIN_VALUE, -Double.MIN_VALUE, Double.MIN_NORMAL, Double.MAX_VALUE, -Double.MAX_VALUE,
+            1.0, -1.0, 0.5, 2.0, Math.nextDown(1.0), Math.nextUp(1.0),
+            Math.PI, Math.PI / 2, Math.PI / 4, Math.E,
+            // exp overflow and underflow thresholds
+            709.782712893384, -745.1332191019411
+    };
+
+    private final String profileName;
+
+    InputProfile(String profileName) {
+        this.profileName = profileName;
+    }
+
+    abstract double nextX(SplittableRandom random);
+
+    abstract double nextY(SplittableRandom random);
+
+    public String profileName() {
+        return profileName;
+    }
+
+    public void fill(SplittableRandom random, double[] xs, double[] ys) {
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = nextX(random);
+            ys[i] = nextY(random);
+        }
+    }
+
+    public double[][] generate(long seed, int n) {
+        final double[] xs = new double[n];
+        final double[] ys = new double[n];
+        fill(new SplittableRandom(seed), xs, ys);
+        return new double[][] {xs, ys};
+    }
+
+    public static InputProfile fromName(String profileName) {
+        for (InputProfile p : values()) {
+            if (p.profileName.equals(profileName)) {
+                return p;
+            }
+        }
+        throw new IllegalArgumentException("Unknown input profile: " + profileName);
+    }
+}
@@ -0,0 +1,69 @@
+package dedis.fp;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Small compound workloads built from the same ops, timed end to end by
+// KernelExperiment. size is the vector length for dot, horner and softmax,
+// the matrix order for matmul and the body count for nbody.
+public enum Kernel {
+    // sum x[i] y[i]
+    DOT("dot", EnumSet.of(Op.ADD, Op.MUL)),
+    // a degree-DEGREE polynomial with coefficients y[0..DEGREE] at every x[i]
+    HORNER("horner", EnumSet.of(Op.ADD, Op.MUL)),
+    // C = A B for size x size matrices A = x, B = y
+    MATMUL("matmul", EnumSet.of(Op.ADD, Op.MUL)),
+    // exp(x[i]) / sum exp(x[j]); exp is computed twice rather than stored
+    SOFTMAX("softmax", EnumSet.of(Op.ADD, Op.DIV, Op.EXP)),
+    // one step of 2-D gravity for bodies at (x[i], y[i]) with softening
+    NBODY("nbody", EnumSet.of(Op.ADD, Op.SUB, Op.MUL, Op.DIV, Op.SQRT));
+
+    static final int DEGREE = 8;
+
+    private final String kname;
+    private final Set<Op> ops;
+
+    Kernel(String kname, Set<Op> ops) {
+        this.kname = kname;
+        this.ops = ops;
+    }
+
+    public String kname() {
+        return kname;
+    }
+
+    // The ops a backend must implement to run this kernel.
+    public Set<Op> ops() {
+        return ops;
+    }
+
+    public int inputCount(int size) {
+        switch (this) {
+            case MATMUL: return size * size;
+            case HORNER: return Math.max(size, DEGREE + 1);
+            default: return size;
+        }
+    }
+
+    // Backend calls per run, for ns/op.
+    public long opCount(int size) {
+        long n = size;
+        switch (this) {
+            case DOT: return 2 * n;
+            case HORNER: return 2 * DEGREE * n;
+            case MATMUL: return 2 * n * n * n;
+            case SOFTMAX: return 4 * n;
+            case NBODY: return 13 * n * (n - 1) + 4 * n;
+            default: throw new IllegalArgumentException("Unknown kernel: " + this);
+        }
+    }
+
+    public static Kernel fromName(String kname) {
+        for (Kernel k : values()) {
+            if (k.kname.equals(kname)) {
+                return k;
+            }
+        }
+        throw new IllegalArgumentException("Unknown kernel: " + kname);
+    }
+}
@@ -0,0 +1,11 @@
+package dedis.fp;
+
+// Runs one Kernel on one backend. Instances come from Drivers.createKernel,
+// which gives every (backend, kernel) pair its own copy of the loop code.
+public interface KernelDriver {
+
+    void init(FloatBackend<?> backend, Kernel kernel, int size, double[] xs, double[] ys);
+
+    // Elapsed ns for runs back-to-back runs of the kernel.
+    long time(int runs);
+}
@@ -0,0 +1,59 @@
+package dedis.fp;
+
+import com.google.common.math.Stats;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+// Times a Kernel end to end on every backend that has its ops. Each backend
+// first warms up under Warmup, in batches of whole runs counted as their
+// ops, then PASSES timed passes covering about EXEC_COUNT ops in total;
+// slowdown is relative to Math.
+final class KernelExperiment {
+
+    static final int PASSES = 10;
+
+    private KernelExperiment() {
+    }
+
+    public static void run(String kname, int size, InputProfile profile, long seed) throws IOException {
+        final Kernel kernel = Kernel.fromName(kname);
+        final int count = kernel.inputCount(size);
+        final double[][] inputs = profile.generate(seed, count);
+        final long opsPerRun = kernel.opCount(size);
+        final int batchRuns = (int) Math.max(1, Warmup.BATCH_SIZE / opsPerRun);
+        final int batchOps = (int) Math.min(Integer.MAX_VALUE, batchRuns * opsPerRun);
+        final int runs = (int) Math.max(1, FPTest.EXEC_COUNT / PASSES / opsPerRun);
+
+        // Columns: kernel, backend, size, ns/run (stddev over passes),
+        // runs/sec, ns/op, slowdown over math (blank without math).
+        final List<FloatBackend<?>> backends = Backends.forKernel(kernel);
+        String out = FPTest.statsFile(kname, profile, "_kernel");
+        FileWriter writer = new FileWriter(out);
+        double base = Double.NaN;
+        for (FloatBackend<?> backend : backends) {
+            KernelDriver driver = Drivers.createKernel(backend, kernel, size, inputs[0], inputs[1]);
+            Warmup.run(backend.name(), (from, n) -> driver.time(batchRuns), count, FPTest.WARMUP_COUNT, batchOps);
+            long[] times = new long[PASSES];
+            for (int p = 0; p < PASSES; p++) {
+                times[p] = driver.time(runs);
+            }
+            Stats stat = Stats.of(times);
+            double nsPerRun = stat.mean() / runs;
+            if (backend == Backends.MATH) {
+                base = nsPerRun;
+            }
+            writer.write(String.format("%s, %s, %d, %.3f (%f), %.1f, %.3f, %s\n",
+                    kname,
+                    backend.name(),
+                    size,
+                    nsPerRun,
+                    stat.sampleStandardDeviation() / runs,
+                    1e9 / nsPerRun,
+                    nsPerRun / opsPerRun,
+                    Double.isNaN(base) ? "" : String.format("%.2f", nsPerRun / base)));
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,305 @@
+package dedis.fp;
+
+import java.util.function.LongSupplier;
+
+// The kernel loops, loaded once per (backend, kernel) like OpDriver and under
+// the same rule: only public types of this package. As in OpDriver,
+// DoubleBackends and LongBackends run over double[] and long[] with their
+// primitive ops, so nothing is boxed; other backends go through
+// FloatBackend<T> over T[]. No backend result is kept for long, since
+// ring-backed backends (mpfr_slots, mpfr_ffm, fixed128) reuse their result
+// slots; inputs and constants come from the array conversions, which give
+// long-lived values.
+public final class KernelLoops<T> implements KernelDriver {
+
+    static final double SOFTENING = 1e-3;
+    static final double DT = 1e-3;
+    static final int REFRESH = 256;
+    // 0, 1, SOFTENING^2 and DT^2, as c[0..3] in the loops.
+    private static final double[] CONSTANTS = {0, 1, SOFTENING * SOFTENING, DT * DT};
+
+    private LongSupplier run;
+    private long sink;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void init(FloatBackend<?> backend, Kernel kernel, int size, double[] xs, double[] ys) {
+        if (backend instanceof DoubleBackend) {
+            run = bind((DoubleBackend) backend, kernel, size, xs.clone(), ys.clone(), CONSTANTS.clone());
+        } else if (backend instanceof LongBackend) {
+            LongBackend b = (LongBackend) backend;
+            run = bind(b, kernel, size, b.encode(xs), b.encode(ys), b.encode(CONSTANTS));
+        } else {
+            FloatBackend<T> b = (FloatBackend<T>) backend;
+            run = bind(b, kernel, size, b.fromDoubles(xs), b.fromDoubles(ys), b.fromDoubles(CONSTANTS));
+        }
+    }
+
+    @Override
+    public long time(int runs) {
+        long acc = 0;
+        long start = System.nanoTime();
+        for (int r = 0; r < runs; r++) {
+            acc ^= run.getAsLong();
+        }
+        long end = System.nanoTime();
+        sink ^= acc;
+        return end - start;
+    }
+
+    private static LongSupplier bind(DoubleBackend b, Kernel kernel, int size, double[] xs, double[] ys,
+            double[] c) {
+        switch (kernel) {
+            case DOT: return () -> dot(b, size, xs, ys, c);
+            case HORNER: return () -> horner(b, size, xs, ys, c);
+            case MATMUL: return () -> matmul(b, size, xs, ys, c);
+            case SOFTMAX: return () -> softmax(b, size, xs, ys, c);
+            case NBODY: return () -> nbody(b, size, xs, ys, c);
+            default: throw new IllegalArgumentException("Unknown kernel: " + kernel);
+        }
+    }
+
+    private static LongSupplier bind(LongBackend b, Kernel kernel, int size, long[] xs, long[] ys, long[] c) {
+        switch (kernel) {
+            case DOT: return () -> dot(b, size, xs, ys, c);
+            case HORNER: return () -> horner(b, size, xs, ys, c);
+            case MATMUL: return () -> matmul(b, size, xs, ys, c);
+            case SOFTMAX: return () -> softmax(b, size, xs, ys, c);
+            case NBODY: return () -> nbody(b, size, xs, ys, c);
+            default: throw new IllegalArgumentException("Unknown kernel: " + kernel);
+        }
+    }
+
+    private static <T> LongSupplier bind(FloatBackend<T> b, Kernel kernel, int size, T[] xs, T[] ys, T[] c) {
+        switch (kernel) {
+            case DOT: return () -> dot(b, size, xs, ys, c);
+            case HORNER: return () -> horner(b, size, xs, ys, c);
+            case MATMUL: return () -> matmul(b, size, xs, ys, c);
+            case SOFTMAX: return () -> softmax(b, size, xs, ys, c);
+            case NBODY: return () -> nbody(b, size, xs, ys, c);
+            default: throw new IllegalArgumentException("Unknown kernel: " + kernel);
+        }
+    }
+
+    private static long dot(DoubleBackend b, int size, double[] xs, double[] ys, double[] c) {
+        double acc = c[0];
+        for (int i = 0; i < size; i++) {
+            acc = b.add(acc, b.mul(xs[i], ys[i]));
+        }
+        return b.consume(acc);
+    }
+
+    private static long horner(DoubleBackend b, int size, double[] xs, double[] ys, double[] c) {
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            double x = xs[i];
+            double p = ys[Kernel.DEGREE];
+            for (int k = Kernel.DEGREE - 1; k >= 0; k--) {
+                p = b.add(b.mul(p, x), ys[k]);
+            }
+            acc ^= b.consume(p);
+        }
+        return acc;
+    }
+
+    private static long matmul(DoubleBackend b, int size, double[] xs, double[] ys, double[] c) {
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                double s = c[0];
+                for (int k = 0; k < size; k++) {
+                    s = b.add(s, b.mul(xs[i * size + k], ys[k * size + j]));
+                }
+                acc ^= b.consume(s);
+            }
+        }
+        return acc;
+    }
+
+    private static long softmax(DoubleBackend b, int size, double[] xs, double[] ys, double[] c) {
+        double sum = c[0];
+        for (int i = 0; i < size; i++) {
+            sum = b.add(sum, b.exp(xs[i]));
+        }
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            acc ^= b.consume(b.div(b.exp(xs[i]), sum));
+            // Re-issue sum every REFRESH elements so that a slot ring cannot
+            // wrap around it; this adds one op per REFRESH elements.
+            if (i % REFRESH == REFRESH - 1) {
+                sum = b.add(sum, c[0]);
+            }
+        }
+        return acc;
+    }
+
+    // Accelerations from every other body (unit masses), then the position
+    // update from rest: x + a dt^2.
+    private static long nbody(DoubleBackend b, int size, double[] xs, double[] ys, double[] c) {
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            double ax = c[0];
+            double ay = c[0];
+            for (int j = 0; j < size; j++) {
+                if (j == i) {
+                    continue;
+                }
+                double dx = b.sub(xs[j], xs[i]);
+                double dy = b.sub(ys[j], ys[i]);
+                double d2 = b.add(b.add(b.mul(dx, dx), b.mul(dy, dy)), c[2]);
+                double inv = b.div(c[1], b.mul(d2, b.sqrt(d2)));
+                ax = b.add(ax, b.mul(dx, inv));
+                ay = b.add(ay, b.mul(dy, inv));
+            }
+            acc ^= b.consume(b.add(xs[i], b.mul(ax, c[3])));
+            acc ^= b.consume(b.add(ys[i], b.mul(ay, c[3])));
+        }
+        return acc;
+    }
+
+    // The same loops on long values.
+    private static long dot(LongBackend b, int size, long[] xs, long[] ys, long[] c) {
+        long acc = c[0];
+        for (int i = 0; i < size; i++) {
+            acc = b.add(acc, b.mul(xs[i], ys[i]));
+        }
+        return b.consume(acc);
+    }
+
+    private static long horner(LongBackend b, int size, long[] xs, long[] ys, long[] c) {
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            long x = xs[i];
+            long p = ys[Kernel.DEGREE];
+            for (int k = Kernel.DEGREE - 1; k >= 0; k--) {
+                p = b.add(b.mul(p, x), ys[k]);
+            }
+            acc ^= b.consume(p);
+        }
+        return acc;
+    }
+
+    private static long matmul(LongBackend b, int size, long[] xs, long[] ys, long[] c) {
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                long s = c[0];
+                for (int k = 0; k < size; k++) {
+                    s = b.add(s, b.mul(xs[i * size + k], ys[k * size + j]));
+                }
+                acc ^= b.consume(s);
+            }
+        }
+        return acc;
+    }
+
+    private static long softmax(LongBackend b, int size, long[] xs, long[] ys, long[] c) {
+        long sum = c[0];
+        for (int i = 0; i < size; i++) {
+            sum = b.add(sum, b.exp(xs[i]));
+        }
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            acc ^= b.consume(b.div(b.exp(xs[i]), sum));
+            if (i % REFRESH == REFRESH - 1) {
+                sum = b.add(sum, c[0]);
+            }
+        }
+        return acc;
+    }
+
+    private static long nbody(LongBackend b, int size, long[] xs, long[] ys, long[] c) {
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            long ax = c[0];
+            long ay = c[0];
+            for (int j = 0; j < size; j++) {
+                if (j == i) {
+                    continue;
+                }
+                long dx = b.sub(xs[j], xs[i]);
+                long dy = b.sub(ys[j], ys[i]);
+                long d2 = b.add(b.add(b.mul(dx, dx), b.mul(dy, dy)), c[2]);
+                long inv = b.div(c[1], b.mul(d2, b.sqrt(d2)));
+                ax = b.add(ax, b.mul(dx, inv));
+                ay = b.add(ay, b.mul(dy, inv));
+            }
+            acc ^= b.consume(b.add(xs[i], b.mul(ax, c[3])));
+            acc ^= b.consume(b.add(ys[i], b.mul(ay, c[3])));
+        }
+        return acc;
+    }
+
+    // And on boxed values, for the remaining backends.
+    private static <T> long dot(FloatBackend<T> b, int size, T[] xs, T[] ys, T[] c) {
+        T acc = c[0];
+        for (int i = 0; i < size; i++) {
+            acc = b.add(acc, b.mul(xs[i], ys[i]));
+        }
+        return b.consume(acc);
+    }
+
+    private static <T> long horner(FloatBackend<T> b, int size, T[] xs, T[] ys, T[] c) {
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            T x = xs[i];
+            T p = ys[Kernel.DEGREE];
+            for (int k = Kernel.DEGREE - 1; k >= 0; k--) {
+                p = b.add(b.mul(p, x), ys[k]);
+            }
+            acc ^= b.consume(p);
+        }
+        return acc;
+    }
+
+    private static <T> long matmul(FloatBackend<T> b, int size, T[] xs, T[] ys, T[] c) {
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                T s = c[0];
+                for (int k = 0; k < size; k++) {
+                    s = b.add(s, b.mul(xs[i * size + k], ys[k * size + j]));
+                }
+                acc ^= b.consume(s);
+            }
+        }
+        return acc;
+    }
+
+    private static <T> long softmax(FloatBackend<T> b, int size, T[] xs, T[] ys, T[] c) {
+        T sum = c[0];
+        for (int i = 0; i < size; i++) {
+            sum = b.add(sum, b.exp(xs[i]));
+        }
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            acc ^= b.consume(b.div(b.exp(xs[i]), sum));
+            if (i % REFRESH == REFRESH - 1) {
+                sum = b.add(sum, c[0]);
+            }
+        }
+        return acc;
+    }
+
+    private static <T> long nbody(FloatBackend<T> b, int size, T[] xs, T[] ys, T[] c) {
+        long acc = 0;
+        for (int i = 0; i < size; i++) {
+            T ax = c[0];
+            T ay = c[0];
+            for (int j = 0; j < size; j++) {
+                if (j == i) {
+                    continue;
+                }
+                T dx = b.sub(xs[j], xs[i]);
+                T dy = b.sub(ys[j], ys[i]);
+                T d2 = b.add(b.add(b.mul(dx, dx), b.mul(dy, dy)), c[2]);
+                T inv = b.div(c[1], b.mul(d2, b.sqrt(d2)));
+                ax = b.add(ax, b.mul(dx, inv));
+                ay = b.add(ay, b.mul(dy, inv));
+            }
+            acc ^= b.consume(b.add(xs[i], b.mul(ax, c[3])));
+            acc ^= b.consume(b.add(ys[i], b.mul(ay, c[3])));
+        }
+        return acc;
+    }
+}
@@ -0,0 +1,153 @@
+package dedis.fp;
+
+// A backend whose values are longs: IEEE bits (mf, sf), fixed-point numbers
+// (fixed) or handles into a per-thread register file (fixed128, mpfr_slots).
+// As with DoubleBackend, implementations write the primitive ops and the boxed
+// FloatBackend<Long> methods bridge to them; OpDriver binds the primitive ops.
+public interface LongBackend extends FloatBackend<Long> {
+
+    // The primitive fromDouble and toDouble.
+    long encode(double x);
+
+    double decode(long x);
+
+    // The primitive fromDoubles: values that stay valid for the backend's
+    // lifetime, where encode's may not.
+    default long[] encode(double[] xs) {
+        long[] out = new long[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            out[i] = encode(xs[i]);
+        }
+        return out;
+    }
+
+    default long consume(long x) {
+        return x;
+    }
+
+    long add(long x, long y);
+
+    long sub(long x, long y);
+
+    long mul(long x, long y);
+
+    long div(long x, long y);
+
+    long sqrt(long x);
+
+    long log(long x);
+
+    long exp(long x);
+
+    long pow(long x, long y);
+
+    long sin(long x);
+
+    long cos(long x);
+
+    long tan(long x);
+
+    @Override
+    default double apply(Op op, double x, double y) {
+        long a = encode(x);
+        switch (op) {
+            case ADD: return decode(add(a, encode(y)));
+            case SUB: return decode(sub(a, encode(y)));
+            case MUL: return decode(mul(a, encode(y)));
+            case DIV: return decode(div(a, encode(y)));
+            case POW: return decode(pow(a, encode(y)));
+            case SQRT: return decode(sqrt(a));
+            case LOG: return decode(log(a));
+            case EXP: return decode(exp(a));
+            case SIN: return decode(sin(a));
+            case COS: return decode(cos(a));
+            case TAN: return decode(tan(a));
+            default: throw new IllegalArgumentException("Unknown op: " + op);
+        }
+    }
+
+    @Override
+    default Long fromDouble(double x) {
+        return encode(x);
+    }
+
+    @Override
+    default Long[] fromDoubles(double[] xs) {
+        long[] raw = encode(xs);
+        Long[] out = new Long[raw.length];
+        for (int i = 0; i < raw.length; i++) {
+            out[i] = raw[i];
+        }
+        return out;
+    }
+
+    @Override
+    default double toDouble(Long x) {
+        return decode(x);
+    }
+
+    @Override
+    default Long[] newArray(int length) {
+        return new Long[length];
+    }
+
+    @Override
+    default long consume(Long x) {
+        return consume(x.longValue());
+    }
+
+    @Override
+    default Long add(Long x, Long y) {
+        return add(x.longValue(), y.longValue());
+    }
+
+    @Override
+    default Long sub(Long x, Long y) {
+        return sub(x.longValue(), y.longValue());
+    }
+
+    @Override
+    default Long mul(Long x, Long y) {
+        return mul(x.longValue(), y.longValue());
+    }
+
+    @Override
+    default Long div(Long x, Long y) {
+        return div(x.longValue(), y.longValue());
+    }
+
+    @Override
+    default Long sqrt(Long x) {
+        return sqrt(x.longValue());
+    }
+
+    @Override
+    default Long log(Long x) {
+        return log(x.longValue());
+    }
+
+    @Override
+    default Long exp(Long x) {
+        return exp(x.longValue());
+    }
+
+    @Override
+    default Long pow(Long x, Long y) {
+        return pow(x.longValue(), y.longValue());
+    }
+
+    @Override
+    default Long sin(Long x) {
+        return sin(x.longValue());
+    }
+
+    @Override
+    default Long cos(Long x) {
+        return cos(x.longValue());
+    }
+
+    @Override
+    default Long tan(Long x) {
+        return tan(x.longValue());
+    }
+}
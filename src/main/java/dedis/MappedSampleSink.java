@@ -0,0 +1,42 @@
+package dedis.fp;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Same file format as BinarySampleSink, but samples are stored straight into a
+// prefaulted mapping: no heap buffer and no write calls while measuring. The
+// file is trimmed to the samples actually written on close, while the mapping
+// may still be live; POSIX allows that, Windows refuses the truncate.
+final class MappedSampleSink implements SampleSink {
+
+    private final Path path;
+    private final MappedStore store;
+    private long count;
+
+    MappedSampleSink(Path path, long capacity) throws IOException {
+        this.path = path;
+        Files.deleteIfExists(path);
+        store = MappedStore.open(path, capacity);
+        store.prefault();
+    }
+
+    @Override
+    public void accept(long sample) {
+        if (count == store.slots()) {
+            throw new IllegalStateException("More than " + count + " samples for " + path);
+        }
+        store.setLong(count++, sample);
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.force(0, count);
+        store.close();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(count * Long.BYTES);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package dedis.fp;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// A file of little-endian 8-byte slots, mapped off-heap. Sweeps can exceed
+// both the heap and RAM (the OS pages the file), cost the GC nothing, and
+// whatever was written survives a crash or kill for the next run.
+// A MappedByteBuffer is indexed by int, so the file is mapped in CHUNK_SLOTS
+// pieces; no slot straddles two of them.
+// Safe to use from several threads as long as they touch different slots.
+final class MappedStore implements AutoCloseable {
+
+    static final int CHUNK_SHIFT = 27;
+    static final long CHUNK_SLOTS = 1L << CHUNK_SHIFT;
+
+    private final MappedByteBuffer[] chunks;
+    private final long slots;
+    private final boolean reused;
+
+    private MappedStore(MappedByteBuffer[] chunks, long slots, boolean reused) {
+        this.chunks = chunks;
+        this.slots = slots;
+        this.reused = reused;
+    }
+
+    // Maps path with exactly `slots` slots. An existing file of that size is
+    // kept as is; any other file is cleared first.
+    static MappedStore open(Path path, long slots) throws IOException {
+        long bytes = slots * Long.BYTES;
+        boolean reused = Files.exists(path) && Files.size(path) == bytes;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (!reused) {
+                channel.truncate(0);
+            }
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((slots + CHUNK_SLOTS - 1) >>> CHUNK_SHIFT)];
+            for (int c = 0; c < chunks.length; c++) {
+                long from = c * CHUNK_SLOTS;
+                long size = Math.min(CHUNK_SLOTS, slots - from) * Long.BYTES;
+                chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, from * Long.BYTES, size);
+                chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new MappedStore(chunks, slots, reused);
+        }
+    }
+
+    // True if the file already had the requested size, e.g. from an
+    // interrupted run.
+    boolean reused() {
+        return reused;
+    }
+
+    long slots() {
+        return slots;
+    }
+
+    private MappedByteBuffer chunk(long slot) {
+        return chunks[(int) (slot >>> CHUNK_SHIFT)];
+    }
+
+    private static int offset(long slot) {
+        return (int) (slot & (CHUNK_SLOTS - 1)) * Long.BYTES;
+    }
+
+    long getLong(long slot) {
+        return chunk(slot).getLong(offset(slot));
+    }
+
+    void setLong(long slot, long value) {
+        chunk(slot).putLong(offset(slot), value);
+    }
+
+    double getDouble(long slot) {
+        return chunk(slot).getDouble(offset(slot));
+    }
+
+    void setDouble(long slot, double value) {
+        chunk(slot).putDouble(offset(slot), value);
+    }
+
+    // Writes slots [from, from + count) back to the file.
+    void force(long from, long count) {
+        long end = from + count;
+        while (from < end) {
+            long chunkEnd = Math.min(end, ((from >>> CHUNK_SHIFT) + 1) << CHUNK_SHIFT);
+            chunk(from).force(offset(from), (int) (chunkEnd - from) * Long.BYTES);
+            from = chunkEnd;
+        }
+    }
+
+    // Zeroes every slot, which also touches every page so that later writes do
+    // not fault inside a timed loop.
+    void prefault() {
+        for (MappedByteBuffer chunk : chunks) {
+            for (int i = 0; i < chunk.capacity(); i += Long.BYTES) {
+                chunk.putLong(i, 0);
+            }
+        }
+    }
+
+    // There is no public unmap for a MappedByteBuffer: the mappings go away
+    // when the buffers are collected. Writes are only guaranteed on disk after
+    // force.
+    @Override
+    public void close() {
+        Arrays.fill(chunks, null);
+    }
+}
@@ -0,0 +1,64 @@
+package dedis.fp;
+
+final class MathBackend implements DoubleBackend {
+
+    @Override
+    public String name() {
+        return FPTest.MATH;
+    }
+
+    @Override
+    public double add(double x, double y) {
+        return x + y;
+    }
+
+    @Override
+    public double sub(double x, double y) {
+        return x - y;
+    }
+
+    @Override
+    public double mul(double x, double y) {
+        return x * y;
+    }
+
+    @Override
+    public double div(double x, double y) {
+        return x / y;
+    }
+
+    @Override
+    public double sqrt(double x) {
+        return Math.sqrt(x);
+    }
+
+    @Override
+    public double log(double x) {
+        return Math.log(x);
+    }
+
+    @Override
+    public double exp(double x) {
+        return Math.exp(x);
+    }
+
+    @Override
+    public double pow(double x, double y) {
+        return Math.pow(x, y);
+    }
+
+    @Override
+    public double sin(double x) {
+        return Math.sin(x);
+    }
+
+    @Override
+    public double cos(double x) {
+        return Math.cos(x);
+    }
+
+    @Override
+    public double tan(double x) {
+        return Math.tan(x);
+    }
+}
@@ -0,0 +1,86 @@
+package dedis.fp;
+
+class MathBulkOps implements BulkOps {
+
+    @Override
+    public String name() {
+        return FPTest.MATH;
+    }
+
+    @Override
+    public void add(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] + b[i];
+        }
+    }
+
+    @Override
+    public void sub(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] - b[i];
+        }
+    }
+
+    @Override
+    public void mul(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] * b[i];
+        }
+    }
+
+    @Override
+    public void div(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] / b[i];
+        }
+    }
+
+    @Override
+    public void pow(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.pow(a[i], b[i]);
+        }
+    }
+
+    @Override
+    public void sqrt(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.sqrt(in[i]);
+        }
+    }
+
+    @Override
+    public void log(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.log(in[i]);
+        }
+    }
+
+    @Override
+    public void exp(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.exp(in[i]);
+        }
+    }
+
+    @Override
+    public void sin(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.sin(in[i]);
+        }
+    }
+
+    @Override
+    public void cos(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.cos(in[i]);
+        }
+    }
+
+    @Override
+    public void tan(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.tan(in[i]);
+        }
+    }
+}
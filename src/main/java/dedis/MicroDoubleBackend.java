@@ -0,0 +1,76 @@
+package dedis.fp;
+
+import net.dclausen.microfloat.MicroDouble;
+
+final class MicroDoubleBackend implements LongBackend {
+
+    @Override
+    public String name() {
+        return FPTest.MF;
+    }
+
+    @Override
+    public long encode(double x) {
+        return Double.doubleToLongBits(x);
+    }
+
+    @Override
+    public double decode(long x) {
+        return Double.longBitsToDouble(x);
+    }
+
+    @Override
+    public long add(long x, long y) {
+        return MicroDouble.add(x, y);
+    }
+
+    @Override
+    public long sub(long x, long y) {
+        return MicroDouble.sub(x, y);
+    }
+
+    @Override
+    public long mul(long x, long y) {
+        return MicroDouble.mul(x, y);
+    }
+
+    @Override
+    public long div(long x, long y) {
+        return MicroDouble.div(x, y);
+    }
+
+    @Override
+    public long sqrt(long x) {
+        return MicroDouble.sqrt(x);
+    }
+
+    @Override
+    public long log(long x) {
+        return MicroDouble.log(x);
+    }
+
+    @Override
+    public long exp(long x) {
+        return MicroDouble.exp(x);
+    }
+
+    @Override
+    public long pow(long x, long y) {
+        return MicroDouble.pow(x, y);
+    }
+
+    @Override
+    public long sin(long x) {
+        return MicroDouble.sin(x);
+    }
+
+    @Override
+    public long cos(long x) {
+        return MicroDouble.cos(x);
+    }
+
+    @Override
+    public long tan(long x) {
+        return MicroDouble.tan(x);
+    }
+}
@@ -0,0 +1,88 @@
+package dedis.fp;
+
+import net.dclausen.microfloat.MicroDouble;
+
+final class MicroDoubleBulkOps implements BulkOps {
+
+    @Override
+    public String name() {
+        return FPTest.MF;
+    }
+
+    @Override
+    public void add(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.add(Double.doubleToLongBits(a[i]), Double.doubleToLongBits(b[i])));
+        }
+    }
+
+    @Override
+    public void sub(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.sub(Double.doubleToLongBits(a[i]), Double.doubleToLongBits(b[i])));
+        }
+    }
+
+    @Override
+    public void mul(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.mul(Double.doubleToLongBits(a[i]), Double.doubleToLongBits(b[i])));
+        }
+    }
+
+    @Override
+    public void div(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.div(Double.doubleToLongBits(a[i]), Double.doubleToLongBits(b[i])));
+        }
+    }
+
+    @Override
+    public void pow(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.pow(Double.doubleToLongBits(a[i]), Double.doubleToLongBits(b[i])));
+        }
+    }
+
+    @Override
+    public void sqrt(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.sqrt(Double.doubleToLongBits(in[i])));
+        }
+    }
+
+    @Override
+    public void log(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.log(Double.doubleToLongBits(in[i])));
+        }
+    }
+
+    @Override
+    public void exp(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.exp(Double.doubleToLongBits(in[i])));
+        }
+    }
+
+    @Override
+    public void sin(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.sin(Double.doubleToLongBits(in[i])));
+        }
+    }
+
+    @Override
+    public void cos(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.cos(Double.doubleToLongBits(in[i])));
+        }
+    }
+
+    @Override
+    public void tan(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.longBitsToDouble(MicroDouble.tan(Double.doubleToLongBits(in[i])));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package dedis.fp;
+
+import org.kframework.mpfr.BigFloat;
+import org.kframework.mpfr.BinaryMathContext;
+
+final class MpfrBackend implements FloatBackend<BigFloat> {
+
+    private final BinaryMathContext mc;
+
+    MpfrBackend(BinaryMathContext mc) {
+        this.mc = mc;
+    }
+
+    @Override
+    public String name() {
+        return FPTest.MPFR;
+    }
+
+    @Override
+    public BigFloat fromDouble(double x) {
+        return new BigFloat(x, mc);
+    }
+
+    @Override
+    public double toDouble(BigFloat x) {
+        return x.doubleValue();
+    }
+
+    @Override
+    public BigFloat[] newArray(int length) {
+        return new BigFloat[length];
+    }
+
+    // Every op goes through JNI, which the JIT cannot eliminate, so there is
+    // no need to pay for a conversion here.
+    @Override
+    public long consume(BigFloat x) {
+        return 0;
+    }
+
+    @Override
+    public BigFloat add(BigFloat x, BigFloat y) {
+        return x.add(y, mc);
+    }
+
+    @Override
+    public BigFloat sub(BigFloat x, BigFloat y) {
+        return x.subtract(y, mc);
+    }
+
+    @Override
+    public BigFloat mul(BigFloat x, BigFloat y) {
+        return x.multiply(y, mc);
+    }
+
+    @Override
+    public BigFloat div(BigFloat x, BigFloat y) {
+        return x.divide(y, mc);
+    }
+
+    @Override
+    public BigFloat sqrt(BigFloat x) {
+        return x.sqrt(mc);
+    }
+
+    @Override
+    public BigFloat log(BigFloat x) {
+        return x.log(mc);
+    }
+
+    @Override
+    public BigFloat exp(BigFloat x) {
+        return x.exp(mc);
+    }
+
+    @Override
+    public BigFloat pow(BigFloat x, BigFloat y) {
+        return x.pow(y, mc);
+    }
+
+    @Override
+    public BigFloat sin(BigFloat x) {
+        return x.sin(mc);
+    }
+
+    @Override
+    public BigFloat cos(BigFloat x) {
+        return x.cos(mc);
+    }
+
+    @Override
+    public BigFloat tan(BigFloat x) {
+        return x.tan(mc);
+    }
+}
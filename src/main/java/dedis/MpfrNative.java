@@ -0,0 +1,51 @@
+package dedis.fp;
+
+// Bindings to src/main/c/mpfr_jni.c. Values are raw pointers to mpfr_t structs
+// that the caller allocates once with init and reuses.
+public final class MpfrNative {
+
+    static final String LIBRARY = "fpmpfr";
+    static final boolean AVAILABLE = load();
+
+    private MpfrNative() {
+    }
+
+    private static boolean load() {
+        try {
+            System.loadLibrary(LIBRARY);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    static native long init(int precision);
+
+    static native void clear(long h);
+
+    static native void set(long h, double x);
+
+    static native double get(long h);
+
+    static native void add(long r, long x, long y);
+
+    static native void sub(long r, long x, long y);
+
+    static native void mul(long r, long x, long y);
+
+    static native void div(long r, long x, long y);
+
+    static native void pow(long r, long x, long y);
+
+    static native void sqrt(long r, long x);
+
+    static native void log(long r, long x);
+
+    static native void exp(long r, long x);
+
+    static native void sin(long r, long x);
+
+    static native void cos(long r, long x);
+
+    static native void tan(long r, long x);
+}
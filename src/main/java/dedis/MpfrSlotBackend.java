@@ -0,0 +1,179 @@
+package dedis.fp;
+
+import java.lang.ref.Cleaner;
+import java.util.Arrays;
+
+// MPFR without per-op allocation: every op writes into the next slot of a
+// preallocated ring of mpfr_t results, like fp_test.c does with m_val. A
+// result stays valid until the ring wraps around, SLOTS ops later. The same
+// holds for encode(double); only encode(double[]) allocates long-lived
+// handles.
+final class MpfrSlotBackend implements LongBackend {
+
+    static final int SLOTS = 1024;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final int precision;
+    private final long[] slots = new long[SLOTS];
+    private final Handles handles = new Handles();
+    private int next;
+
+    MpfrSlotBackend(int precision) {
+        this.precision = precision;
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = handles.add(MpfrNative.init(precision));
+        }
+        CLEANER.register(this, handles);
+    }
+
+    @Override
+    public String name() {
+        return FPTest.MPFR_SLOTS;
+    }
+
+    @Override
+    public boolean binary64() {
+        return false;
+    }
+
+    // The ring is not thread-safe, so every thread gets its own.
+    @Override
+    public FloatBackend<Long> perThread() {
+        return new MpfrSlotBackend(precision);
+    }
+
+    @Override
+    public long encode(double x) {
+        long r = result();
+        MpfrNative.set(r, x);
+        return r;
+    }
+
+    @Override
+    public long[] encode(double[] xs) {
+        long[] out = new long[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            long h = handles.add(MpfrNative.init(precision));
+            MpfrNative.set(h, xs[i]);
+            out[i] = h;
+        }
+        return out;
+    }
+
+    @Override
+    public double decode(long x) {
+        return MpfrNative.get(x);
+    }
+
+    @Override
+    public long consume(long x) {
+        return 0;
+    }
+
+    private long result() {
+        return slots[next++ & (SLOTS - 1)];
+    }
+
+    @Override
+    public long add(long x, long y) {
+        long r = result();
+        MpfrNative.add(r, x, y);
+        return r;
+    }
+
+    @Override
+    public long sub(long x, long y) {
+        long r = result();
+        MpfrNative.sub(r, x, y);
+        return r;
+    }
+
+    @Override
+    public long mul(long x, long y) {
+        long r = result();
+        MpfrNative.mul(r, x, y);
+        return r;
+    }
+
+    @Override
+    public long div(long x, long y) {
+        long r = result();
+        MpfrNative.div(r, x, y);
+        return r;
+    }
+
+    @Override
+    public long sqrt(long x) {
+        long r = result();
+        MpfrNative.sqrt(r, x);
+        return r;
+    }
+
+    @Override
+    public long log(long x) {
+        long r = result();
+        MpfrNative.log(r, x);
+        return r;
+    }
+
+    @Override
+    public long exp(long x) {
+        long r = result();
+        MpfrNative.exp(r, x);
+        return r;
+    }
+
+    @Override
+    public long pow(long x, long y) {
+        long r = result();
+        MpfrNative.pow(r, x, y);
+        return r;
+    }
+
+    @Override
+    public long sin(long x) {
+        long r = result();
+        MpfrNative.sin(r, x);
+        return r;
+    }
+
+    @Override
+    public long cos(long x) {
+        long r = result();
+        MpfrNative.cos(r, x);
+        return r;
+    }
+
+    @Override
+    public long tan(long x) {
+        long r = result();
+        MpfrNative.tan(r, x);
+        return r;
+    }
+
+    // Every handle this backend allocated, freed once the backend is unreachable.
+    private static final class Handles implements Runnable {
+
+        private long[] hs = new long[SLOTS * 2];
+        private int count;
+
+        long add(long h) {
+            if (h == 0) {
+                throw new OutOfMemoryError("mpfr_t allocation failed");
+            }
+            if (count == hs.length) {
+                hs = Arrays.copyOf(hs, count * 2);
+            }
+            hs[count++] = h;
+            return h;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < count; i++) {
+                MpfrNative.clear(hs[i]);
+            }
+            count = 0;
+        }
+    }
+}
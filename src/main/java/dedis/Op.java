@@ -0,0 +1,47 @@
+package dedis.fp;
+
+public enum Op {
+    ADD("add", true, true),
+    SUB("sub", true, true),
+    MUL("mul", true, true),
+    DIV("div", true, true),
+    SQRT("sqrt", false, false),
+    LOG("log", false, false),
+    EXP("exp", false, false),
+    POW("pow", true, false),
+    SIN("sin", false, false),
+    COS("cos", false, false),
+    TAN("tan", false, false);
+
+    private final String fname;
+    private final boolean binary;
+    private final boolean primitive;
+
+    Op(String fname, boolean binary, boolean primitive) {
+        this.fname = fname;
+        this.binary = binary;
+        this.primitive = primitive;
+    }
+
+    public String fname() {
+        return fname;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    // add/sub/mul/div are plain bytecodes rather than library calls
+    public boolean isPrimitive() {
+        return primitive;
+    }
+
+    public static Op fromName(String fname) {
+        for (Op op : values()) {
+            if (op.fname.equals(fname)) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("Unknown op: " + fname);
+    }
+}
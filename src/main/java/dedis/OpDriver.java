@@ -0,0 +1,141 @@
+package dedis.fp;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.function.IntToLongFunction;
+
+// The one driver loop for every backend and op. Drivers loads a fresh copy of
+// this class per (backend, op), so the kernel and backend call sites below only
+// ever see one receiver type and stay monomorphic. It must therefore only use
+// public types of this package.
+//
+// DoubleBackends and LongBackends are bound to their primitive ops over
+// double[] and long[] inputs, so no result is boxed; other backends go through
+// FloatBackend<T> over T[].
+public final class OpDriver<T> implements Driver {
+
+    private IntToLongFunction kernel;
+    private int inputCount;
+    private long sink;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void init(FloatBackend<?> backend, Op op, double[] xs, double[] ys) {
+        if (backend instanceof DoubleBackend) {
+            kernel = bind((DoubleBackend) backend, op, xs.clone(), ys.clone());
+        } else if (backend instanceof LongBackend) {
+            LongBackend b = (LongBackend) backend;
+            kernel = bind(b, op, b.encode(xs), b.encode(ys));
+        } else {
+            kernel = bind((FloatBackend<T>) backend, op, backend.fromDoubles(xs), backend.fromDoubles(ys));
+        }
+        inputCount = xs.length;
+    }
+
+    private static IntToLongFunction bind(DoubleBackend b, Op op, double[] xs, double[] ys) {
+        switch (op) {
+            case ADD: return i -> b.consume(b.add(xs[i], ys[i]));
+            case SUB: return i -> b.consume(b.sub(xs[i], ys[i]));
+            case MUL: return i -> b.consume(b.mul(xs[i], ys[i]));
+            case DIV: return i -> b.consume(b.div(xs[i], ys[i]));
+            case SQRT: return i -> b.consume(b.sqrt(xs[i]));
+            case LOG: return i -> b.consume(b.log(xs[i]));
+            case EXP: return i -> b.consume(b.exp(xs[i]));
+            case POW: return i -> b.consume(b.pow(xs[i], ys[i]));
+            case SIN: return i -> b.consume(b.sin(xs[i]));
+            case COS: return i -> b.consume(b.cos(xs[i]));
+            case TAN: return i -> b.consume(b.tan(xs[i]));
+            default: throw new IllegalArgumentException("Unknown op: " + op);
+        }
+    }
+
+    private static IntToLongFunction bind(LongBackend b, Op op, long[] xs, long[] ys) {
+        switch (op) {
+            case ADD: return i -> b.consume(b.add(xs[i], ys[i]));
+            case SUB: return i -> b.consume(b.sub(xs[i], ys[i]));
+            case MUL: return i -> b.consume(b.mul(xs[i], ys[i]));
+            case DIV: return i -> b.consume(b.div(xs[i], ys[i]));
+            case SQRT: return i -> b.consume(b.sqrt(xs[i]));
+            case LOG: return i -> b.consume(b.log(xs[i]));
+            case EXP: return i -> b.consume(b.exp(xs[i]));
+            case POW: return i -> b.consume(b.pow(xs[i], ys[i]));
+            case SIN: return i -> b.consume(b.sin(xs[i]));
+            case COS: return i -> b.consume(b.cos(xs[i]));
+            case TAN: return i -> b.consume(b.tan(xs[i]));
+            default: throw new IllegalArgumentException("Unknown op: " + op);
+        }
+    }
+
+    private static <T> IntToLongFunction bind(FloatBackend<T> b, Op op, Object[] oxs, Object[] oys) {
+        @SuppressWarnings("unchecked")
+        T[] xs = (T[]) oxs;
+        @SuppressWarnings("unchecked")
+        T[] ys = (T[]) oys;
+        switch (op) {
+            case ADD: return i -> b.consume(b.add(xs[i], ys[i]));
+            case SUB: return i -> b.consume(b.sub(xs[i], ys[i]));
+            case MUL: return i -> b.consume(b.mul(xs[i], ys[i]));
+            case DIV: return i -> b.consume(b.div(xs[i], ys[i]));
+            case SQRT: return i -> b.consume(b.sqrt(xs[i]));
+            case LOG: return i -> b.consume(b.log(xs[i]));
+            case EXP: return i -> b.consume(b.exp(xs[i]));
+            case POW: return i -> b.consume(b.pow(xs[i], ys[i]));
+            case SIN: return i -> b.consume(b.sin(xs[i]));
+            case COS: return i -> b.consume(b.cos(xs[i]));
+            case TAN: return i -> b.consume(b.tan(xs[i]));
+            default: throw new IllegalArgumentException("Unknown op: " + op);
+        }
+    }
+
+    @Override
+    public void warmup(int count) {
+        long acc = 0;
+        for (int i = 0; i < count; i++) {
+            acc ^= kernel.applyAsLong(i % inputCount);
+        }
+        sink ^= acc;
+    }
+
+    @Override
+    public void measure(int count, Histogram histogram, SampleSink raw) {
+        long start;
+        long end;
+        long acc = 0;
+        final long highest = histogram.getHighestTrackableValue();
+        for (int i = 0; i < count; i++) {
+            int idx = i % inputCount;
+            start = System.nanoTime();
+            acc ^= kernel.applyAsLong(idx);
+            end = System.nanoTime();
+            histogram.recordValue(Math.min(end - start, highest));
+            raw.accept(end - start);
+        }
+        sink ^= acc;
+    }
+
+    // Unrolled by four; results are XOR-folded rather than summed so no FP
+    // dependency chain is measured.
+    @Override
+    public long timeBatch(int from, int batchSize) {
+        long acc = 0;
+        int idx = from > inputCount - 4 ? 0 : from;
+        int i = 0;
+        long start = System.nanoTime();
+        for (; i + 4 <= batchSize; i += 4) {
+            acc ^= kernel.applyAsLong(idx);
+            acc ^= kernel.applyAsLong(idx + 1);
+            acc ^= kernel.applyAsLong(idx + 2);
+            acc ^= kernel.applyAsLong(idx + 3);
+            idx += 4;
+            if (idx > inputCount - 4) {
+                idx = 0;
+            }
+        }
+        for (; i < batchSize; i++, idx++) {
+            acc ^= kernel.applyAsLong(idx);
+        }
+        long end = System.nanoTime();
+        sink ^= acc;
+        return end - start;
+    }
+}
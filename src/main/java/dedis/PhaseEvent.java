@@ -0,0 +1,51 @@
+package dedis.fp;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One warmup or measure loop of one backend on one op. Costs a timestamp at
+// begin and end when JFR is recording and nothing otherwise; PhaseReport
+// lines these up against GC, deopt and compilation events.
+@Name(PhaseEvent.NAME)
+@Label("FPTest Phase")
+@Category("FPTest")
+@StackTrace(false)
+final class PhaseEvent extends Event {
+
+    static final String NAME = "dedis.fp.Phase";
+    static final String WARMUP = "warmup";
+    static final String MEASURE = "measure";
+
+    @Label("Op")
+    String op;
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Profile")
+    String profile;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Iterations")
+    long iterations;
+
+    static PhaseEvent begin(String phase, FloatBackend<?> backend, Op op, InputProfile profile) {
+        PhaseEvent e = new PhaseEvent();
+        e.op = op.fname();
+        e.backend = backend.name();
+        e.profile = profile.profileName();
+        e.phase = phase;
+        e.begin();
+        return e;
+    }
+
+    void finish(long iterations) {
+        this.iterations = iterations;
+        commit();
+    }
+}
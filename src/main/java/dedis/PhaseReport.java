@@ -0,0 +1,153 @@
+package dedis.fp;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Lines PhaseEvents up against the JVM's own JFR events. For every phase it
+// counts the GC pauses, deoptimizations, safepoints and JIT compiles that
+// overlapped it (JVM-wide, not per thread) and the sampled allocation, and
+// flags measure phases that overlapped a GC pause or a deopt.
+//
+// With -Dfptest.jfr=true FPTest records the events below itself, once per
+// profile, and writes <op>[_profile][_mode].jfr and ..._phases.csv next to
+// its stats (mode as in _threads, none for a plain run). Recordings made another way
+// (e.g. -XX:StartFlightRecording, which needs settings=profile for
+// deopts and safepoints) can be summarized with
+//     PhaseReport <recording.jfr> <out.csv>
+public final class PhaseReport {
+
+    static final boolean ENABLED = Boolean.getBoolean("fptest.jfr");
+
+    static final String GC_PAUSE = "jdk.GCPhasePause";
+    static final String DEOPT = "jdk.Deoptimization";
+    static final String SAFEPOINT = "jdk.SafepointBegin";
+    static final String COMPILATION = "jdk.Compilation";
+    static final String ALLOCATION = "jdk.ObjectAllocationSample";
+    static final Set<String> TRACKED = Set.of(GC_PAUSE, DEOPT, SAFEPOINT, COMPILATION, ALLOCATION);
+
+    private PhaseReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: PhaseReport <recording.jfr> <out.csv>");
+            System.exit(1);
+        }
+        write(Paths.get(args[0]), args[1]);
+    }
+
+    // Null unless -Dfptest.jfr=true.
+    static Recording start() {
+        if (!ENABLED) {
+            return null;
+        }
+        Recording recording = new Recording();
+        recording.enable(PhaseEvent.NAME);
+        recording.enable(GC_PAUSE).withThreshold(Duration.ZERO);
+        recording.enable(DEOPT).withoutStackTrace();
+        recording.enable(SAFEPOINT).withThreshold(Duration.ZERO);
+        recording.enable(COMPILATION).withThreshold(Duration.ZERO);
+        recording.enable(ALLOCATION).withoutStackTrace().with("throttle", "1000/s");
+        recording.start();
+        return recording;
+    }
+
+    static void finish(Recording recording, String fname, InputProfile profile, String mode) throws IOException {
+        if (recording == null) {
+            return;
+        }
+        Path jfr = Paths.get(FPTest.statsFile(fname, profile, mode, ".jfr"));
+        recording.stop();
+        recording.dump(jfr);
+        recording.close();
+        write(jfr, FPTest.statsFile(fname, profile, mode + "_phases"));
+    }
+
+    // Columns: op, profile, backend, phase, iterations, ms, GC pauses, total
+    // GC pause ms, deopts, safepoints, JIT compiles, sampled allocation (MB),
+    // flag (gc, deopt or gc+deopt for an affected measure phase).
+    static void write(Path jfr, String out) throws IOException {
+        List<RecordedEvent> phases = new ArrayList<>();
+        List<RecordedEvent> others = new ArrayList<>();
+        for (RecordedEvent e : RecordingFile.readAllEvents(jfr)) {
+            String name = e.getEventType().getName();
+            if (name.equals(PhaseEvent.NAME)) {
+                phases.add(e);
+            } else if (TRACKED.contains(name)) {
+                others.add(e);
+            }
+        }
+        phases.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+
+        FileWriter writer = new FileWriter(out);
+        writer.write("op, profile, backend, phase, iterations, ms, gc_pauses, gc_pause_ms, deopts, safepoints,"
+                + " compiles, alloc_mb, flag\n");
+        for (RecordedEvent p : phases) {
+            int gcPauses = 0;
+            double gcPauseMs = 0;
+            int deopts = 0;
+            int safepoints = 0;
+            int compiles = 0;
+            long allocated = 0;
+            for (RecordedEvent e : others) {
+                if (!overlaps(e, p.getStartTime(), p.getEndTime())) {
+                    continue;
+                }
+                switch (e.getEventType().getName()) {
+                    case GC_PAUSE:
+                        gcPauses++;
+                        gcPauseMs += e.getDuration().toNanos() / 1e6;
+                        break;
+                    case DEOPT:
+                        deopts++;
+                        break;
+                    case SAFEPOINT:
+                        safepoints++;
+                        break;
+                    case COMPILATION:
+                        compiles++;
+                        break;
+                    case ALLOCATION:
+                        allocated += e.getLong("weight");
+                        break;
+                    default:
+                        break;
+                }
+            }
+            String flag = "";
+            if (p.getString("phase").equals(PhaseEvent.MEASURE)) {
+                flag = gcPauses > 0 && deopts > 0 ? "gc+deopt" : gcPauses > 0 ? "gc" : deopts > 0 ? "deopt" : "";
+            }
+            writer.write(String.format("%s, %s, %s, %s, %d, %.3f, %d, %.3f, %d, %d, %d, %.3f, %s\n",
+                    p.getString("op"),
+                    p.getString("profile"),
+                    p.getString("backend"),
+                    p.getString("phase"),
+                    p.getLong("iterations"),
+                    p.getDuration().toNanos() / 1e6,
+                    gcPauses,
+                    gcPauseMs,
+                    deopts,
+                    safepoints,
+                    compiles,
+                    allocated / 1e6,
+                    flag));
+        }
+        writer.close();
+    }
+
+    private static boolean overlaps(RecordedEvent e, Instant start, Instant end) {
+        return e.getStartTime().isBefore(end) && !e.getEndTime().isBefore(start);
+    }
+}
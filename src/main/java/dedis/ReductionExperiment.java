@@ -0,0 +1,158 @@
+package dedis.fp;
+
+import com.google.common.math.Stats;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+// Times sum, dot or norm over size elements, in a ForkJoinPool of each
+// thread count in -Dfptest.reduceThreads (a max or a list, as for --threads;
+// default all cores), with every Method. The result bits show which methods
+// depend on how the work is split.
+final class ReductionExperiment {
+
+    static final String SUM = "sum";
+    static final String DOT = "dot";
+    static final String NORM = "norm";
+    static final int WARMUP_PASSES = 5;
+    static final int PASSES = 10;
+
+    private ReductionExperiment() {
+    }
+
+    private enum Method {
+        // One sequential loop.
+        NAIVE("naive"),
+        // The naive loop over one chunk per pool thread, partials added in order.
+        CHUNKED("chunked"),
+        // A parallel DoubleStream sum (compensated). Streams split by the
+        // common pool's parallelism, not that of the pool they run in.
+        STREAM("stream"),
+        REPRODUCIBLE("reproducible");
+
+        private final String mname;
+
+        Method(String mname) {
+            this.mname = mname;
+        }
+    }
+
+    public static void run(String rname, int size, InputProfile profile, long seed) throws IOException {
+        if (!rname.equals(SUM) && !rname.equals(DOT) && !rname.equals(NORM)) {
+            throw new IllegalArgumentException("Unknown reduction: " + rname);
+        }
+        final double[][] inputs = profile.generate(seed, size);
+        final double[] xs = inputs[0];
+        final double[] ys = inputs[1];
+        final int[] threadCounts = ScalingExperiment.threadCounts(System.getProperty("fptest.reduceThreads",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+
+        // Columns: reduction, method, threads, size, ns/element (stddev over
+        // passes), result in hex, same bits as with the first thread count.
+        String out = FPTest.statsFile(rname, profile, "_reduce");
+        FileWriter writer = new FileWriter(out);
+        final double[] first = new double[Method.values().length];
+        for (int t = 0; t < threadCounts.length; t++) {
+            ForkJoinPool pool = new ForkJoinPool(threadCounts[t]);
+            for (Method m : Method.values()) {
+                double result = 0;
+                for (int p = 0; p < WARMUP_PASSES; p++) {
+                    result = apply(m, rname, pool, xs, ys);
+                }
+                long[] times = new long[PASSES];
+                for (int p = 0; p < PASSES; p++) {
+                    long start = System.nanoTime();
+                    result = apply(m, rname, pool, xs, ys);
+                    times[p] = System.nanoTime() - start;
+                }
+                if (t == 0) {
+                    first[m.ordinal()] = result;
+                }
+                Stats stat = Stats.of(times);
+                writer.write(String.format("%s, %s, %d, %d, %.3f (%f), %s, %s\n",
+                        rname,
+                        m.mname,
+                        threadCounts[t],
+                        size,
+                        stat.mean() / size,
+                        stat.sampleStandardDeviation() / size,
+                        Double.toHexString(result),
+                        Double.doubleToLongBits(result) == Double.doubleToLongBits(first[m.ordinal()])));
+            }
+            pool.shutdown();
+        }
+        writer.close();
+    }
+
+    private static double apply(Method m, String rname, ForkJoinPool pool, double[] xs, double[] ys) {
+        switch (m) {
+            case NAIVE: return finish(rname, naive(rname, xs, ys, 0, xs.length));
+            case CHUNKED: return finish(rname, chunked(rname, pool, xs, ys));
+            case STREAM: return finish(rname, pool.submit(() -> stream(rname, xs, ys)).join());
+            case REPRODUCIBLE: return reproducible(rname, pool, xs, ys);
+            default: throw new IllegalArgumentException("Unknown method: " + m);
+        }
+    }
+
+    // sum x, sum x y or sum x^2 over [from, to).
+    private static double naive(String rname, double[] xs, double[] ys, int from, int to) {
+        double s = 0;
+        if (rname.equals(SUM)) {
+            for (int i = from; i < to; i++) {
+                s += xs[i];
+            }
+        } else if (rname.equals(DOT)) {
+            for (int i = from; i < to; i++) {
+                s += xs[i] * ys[i];
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                s += xs[i] * xs[i];
+            }
+        }
+        return s;
+    }
+
+    private static double chunked(String rname, ForkJoinPool pool, double[] xs, double[] ys) {
+        final int chunks = pool.getParallelism();
+        List<ForkJoinTask<Double>> parts = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            final int from = (int) ((long) xs.length * c / chunks);
+            final int to = (int) ((long) xs.length * (c + 1) / chunks);
+            parts.add(pool.submit(() -> naive(rname, xs, ys, from, to)));
+        }
+        double s = 0;
+        for (ForkJoinTask<Double> part : parts) {
+            s += part.join();
+        }
+        return s;
+    }
+
+    private static double stream(String rname, double[] xs, double[] ys) {
+        if (rname.equals(SUM)) {
+            return DoubleStream.of(xs).parallel().sum();
+        } else if (rname.equals(DOT)) {
+            return IntStream.range(0, xs.length).parallel().mapToDouble(i -> xs[i] * ys[i]).sum();
+        }
+        return DoubleStream.of(xs).parallel().map(x -> x * x).sum();
+    }
+
+    private static double reproducible(String rname, ForkJoinPool pool, double[] xs, double[] ys) {
+        if (rname.equals(SUM)) {
+            return ReproducibleSum.sum(xs, pool);
+        } else if (rname.equals(DOT)) {
+            return ReproducibleSum.dot(xs, ys, pool);
+        }
+        return ReproducibleSum.norm(xs, pool);
+    }
+
+    private static double finish(String rname, double s) {
+        return rname.equals(NORM) ? Math.sqrt(s) : s;
+    }
+}
@@ -0,0 +1,107 @@
+package dedis.fp;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Fork-join sum, dot product and 2-norm over double[] that return the same
+// bits for any pool size and split: each leaf sums its range exactly into a
+// SuperAccumulator, leaves merge exactly, and only the final value is
+// rounded. sum and dot are correctly rounded (dot up to the fma caveat in
+// SuperAccumulator.addProduct). norm first scales every element by the power
+// of two that brings the largest into [1, 2), so squaring neither overflows
+// nor underflows while the norm is representable; it is the square root of
+// the rounded scaled sum of squares, scaled back.
+public final class ReproducibleSum {
+
+    // Elements per leaf task.
+    static final int GRAIN = 1 << 14;
+
+    private ReproducibleSum() {
+    }
+
+    public static double sum(double[] xs) {
+        return sum(xs, ForkJoinPool.commonPool());
+    }
+
+    public static double sum(double[] xs, ForkJoinPool pool) {
+        return pool.invoke(new Task(xs, null, 1, 0, xs.length)).doubleValue();
+    }
+
+    public static double dot(double[] xs, double[] ys) {
+        return dot(xs, ys, ForkJoinPool.commonPool());
+    }
+
+    public static double dot(double[] xs, double[] ys, ForkJoinPool pool) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Length mismatch: " + xs.length + " vs " + ys.length);
+        }
+        return pool.invoke(new Task(xs, ys, 1, 0, xs.length)).doubleValue();
+    }
+
+    public static double norm(double[] xs) {
+        return norm(xs, ForkJoinPool.commonPool());
+    }
+
+    // The largest magnitude does not depend on the split, so one sequential
+    // pass finds it.
+    public static double norm(double[] xs, ForkJoinPool pool) {
+        double max = 0;
+        for (double x : xs) {
+            max = Math.max(max, Math.abs(x));
+        }
+        if (max == 0 || !Double.isFinite(max)) {
+            return max;
+        }
+        int e = Math.getExponent(max);
+        double sum = pool.invoke(new Task(xs, xs, Math.scalb(1.0, -e), 0, xs.length)).doubleValue();
+        return Math.scalb(Math.sqrt(sum), e);
+    }
+
+    // Sums xs[from, to), or the products with ys when ys is not null; for
+    // norm, ys is xs and each element is scaled first.
+    @SuppressWarnings("serial")
+    private static final class Task extends RecursiveTask<SuperAccumulator> {
+
+        private final double[] xs;
+        private final double[] ys;
+        private final double scale;
+        private final int from;
+        private final int to;
+
+        Task(double[] xs, double[] ys, double scale, int from, int to) {
+            this.xs = xs;
+            this.ys = ys;
+            this.scale = scale;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SuperAccumulator compute() {
+            if (to - from <= GRAIN) {
+                SuperAccumulator acc = new SuperAccumulator();
+                if (ys == null) {
+                    for (int i = from; i < to; i++) {
+                        acc.add(xs[i]);
+                    }
+                } else if (scale == 1) {
+                    for (int i = from; i < to; i++) {
+                        acc.addProduct(xs[i], ys[i]);
+                    }
+                } else {
+                    for (int i = from; i < to; i++) {
+                        double x = xs[i] * scale;
+                        acc.addProduct(x, x);
+                    }
+                }
+                return acc;
+            }
+            int mid = (from + to) >>> 1;
+            Task right = new Task(xs, ys, scale, mid, to);
+            right.fork();
+            SuperAccumulator left = new Task(xs, ys, scale, from, mid).compute();
+            left.merge(right.join());
+            return left;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package dedis.fp;
+
+// Fixed-size memo table from (op, x bits, y bits) to result bits, in parallel
+// primitive arrays. A key lives in the WINDOW slots after its hash position;
+// when they are all taken, CLOCK picks the victim among them: referenced slots
+// get their bit cleared and a second chance, the first unreferenced one goes.
+// Not thread-safe: each thread owns its own table.
+final class ResultCache {
+
+    static final int WINDOW = 8;
+
+    private final int shift;
+    private final int mask;
+    // 0 for an empty slot, otherwise Op.ordinal() + 1
+    private final byte[] ops;
+    private final boolean[] referenced;
+    private final long[] xs;
+    private final long[] ys;
+    private final long[] values;
+
+    long hits;
+    long misses;
+    long evictions;
+
+    // capacity is rounded up to a power of two, and to at least WINDOW.
+    ResultCache(int capacity) {
+        int size = Math.max(WINDOW, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+        shift = 64 - Integer.numberOfTrailingZeros(size);
+        mask = size - 1;
+        ops = new byte[size];
+        referenced = new boolean[size];
+        xs = new long[size];
+        ys = new long[size];
+        values = new long[size];
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    private int home(Op op, long x, long y) {
+        long h = (x ^ Long.rotateLeft(y, 29) ^ op.ordinal()) * 0x9E3779B97F4A7C15L;
+        return (int) ((h ^ (h >>> 31)) * 0xBF58476D1CE4E5B9L >>> shift);
+    }
+
+    // The slot holding (op, x, y), or -1. A hit marks the slot referenced.
+    int find(Op op, double x, double y) {
+        long kx = Double.doubleToRawLongBits(x);
+        long ky = Double.doubleToRawLongBits(y);
+        byte tag = (byte) (op.ordinal() + 1);
+        int i = home(op, kx, ky);
+        for (int n = 0; n < WINDOW; n++, i = (i + 1) & mask) {
+            if (ops[i] == tag && xs[i] == kx && ys[i] == ky) {
+                referenced[i] = true;
+                hits++;
+                return i;
+            }
+        }
+        misses++;
+        return -1;
+    }
+
+    double value(int slot) {
+        return Double.longBitsToDouble(values[slot]);
+    }
+
+    void put(Op op, double x, double y, double value) {
+        long kx = Double.doubleToRawLongBits(x);
+        long ky = Double.doubleToRawLongBits(y);
+        int start = home(op, kx, ky);
+        int slot = -1;
+        for (int n = 0, i = start; n < WINDOW; n++, i = (i + 1) & mask) {
+            if (ops[i] == 0) {
+                slot = i;
+                break;
+            }
+        }
+        if (slot < 0) {
+            slot = victim(start);
+            evictions++;
+        }
+        ops[slot] = (byte) (op.ordinal() + 1);
+        referenced[slot] = false;
+        xs[slot] = kx;
+        ys[slot] = ky;
+        values[slot] = Double.doubleToRawLongBits(value);
+    }
+
+    // CLOCK over the WINDOW slots from start, swept twice: the first pass
+    // clears every bit it passes, so the second finds a victim in the same
+    // window.
+    private int victim(int start) {
+        for (int n = 0; n < 2 * WINDOW; n++) {
+            int i = (start + n % WINDOW) & mask;
+            if (!referenced[i]) {
+                return i;
+            }
+            referenced[i] = false;
+        }
+        return start;
+    }
+}
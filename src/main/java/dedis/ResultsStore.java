@@ -0,0 +1,427 @@
+package dedis.fp;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Append-only history of measurements, so runs on different JDKs, machines or
+// library versions can be compared after the per-op CSVs are overwritten.
+//
+// Under -Dfptest.history (default <out>/history, "none" disables):
+//     runs.csv     run, time, source, runtime, os, arch, cpu, cores, label
+//     samples.csv  run, mode, backend, op, profile, count, mean, p50, file
+//     <run>/       up to MAX_SAMPLES raw samples per cell, evenly strided, in
+//                  the BinarySampleSink format
+// FPTest records single-call and batch measurements. Runner hands its forks
+// one -Dfptest.run id, so a sweep is one run; -Dfptest.label tags it.
+//
+//     ResultsStore list
+//     ResultsStore compare <run>|latest|previous <run>|latest|previous
+//     ResultsStore import-c <dir> [label]
+// compare runs a Mann-Whitney U test per cell present in both runs and flags a
+// regression when p < ALPHA and the median moved by more than MIN_CHANGE; it
+// exits with 1 if any cell regressed. import-c stores the math_<op> and
+// mpfr_<op> samples written by fp_test (.bin or .csv) as a run with source c.
+public final class ResultsStore {
+
+    static final String DIR = System.getProperty("fptest.history", FPTest.EXP_PREFIX + "history");
+    static final boolean ENABLED = !DIR.equals("none");
+    static final String RUNS = "runs.csv";
+    static final String SAMPLES = "samples.csv";
+    static final int MAX_SAMPLES = 10_000;
+    static final double ALPHA = 0.01;
+    static final double MIN_CHANGE = 0.02;
+    static final String CALL = "call";
+
+    private static String runId;
+
+    private ResultsStore() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1 && args[0].equals("list")) {
+            list();
+        } else if (args.length == 3 && args[0].equals("compare")) {
+            List<Run> runs = runs();
+            if (compare(resolve(runs, args[1]), resolve(runs, args[2])) > 0) {
+                System.exit(1);
+            }
+        } else if ((args.length == 2 || args.length == 3) && args[0].equals("import-c")) {
+            importC(Paths.get(args[1]), args.length == 3 ? args[2] : "");
+        } else {
+            System.out.println("Usage: ResultsStore list | compare <run> <run> | import-c <dir> [label]");
+            System.out.println("       <run> is a run id, latest or previous");
+            System.exit(1);
+        }
+    }
+
+    static String newRunId() {
+        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS"));
+    }
+
+    // Wraps a raw sink so every stride-th of expected samples is also kept and
+    // stored when the measurement closes.
+    static SampleSink sink(SampleSink raw, String mode, String backend, String op, InputProfile profile,
+            int expected) {
+        if (!ENABLED) {
+            return raw;
+        }
+        return new Recorder(raw, mode, backend, op, profile.profileName(), expected);
+    }
+
+    static void record(String mode, String backend, String op, InputProfile profile, long[] samples) {
+        if (!ENABLED) {
+            return;
+        }
+        try (SampleSink sink = sink(SampleSink.NONE, mode, backend, op, profile, samples.length)) {
+            for (long s : samples) {
+                sink.accept(s);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Recorder implements SampleSink {
+        private final SampleSink raw;
+        private final String mode;
+        private final String backend;
+        private final String op;
+        private final String profile;
+        private final int stride;
+        private final long[] kept;
+        private int size;
+        private long count;
+        private double sum;
+
+        Recorder(SampleSink raw, String mode, String backend, String op, String profile, int expected) {
+            this.raw = raw;
+            this.mode = mode;
+            this.backend = backend;
+            this.op = op;
+            this.profile = profile;
+            this.stride = Math.max(1, expected / MAX_SAMPLES);
+            this.kept = new long[Math.max(1, Math.min(expected, MAX_SAMPLES))];
+        }
+
+        @Override
+        public void accept(long sample) {
+            raw.accept(sample);
+            if (count++ % stride == 0 && size < kept.length) {
+                kept[size++] = sample;
+            }
+            sum += sample;
+        }
+
+        @Override
+        public void close() throws IOException {
+            raw.close();
+            if (count > 0) {
+                store(runId(), "java", mode, backend, op, profile, count, sum / count,
+                        Arrays.copyOf(kept, size), System.getProperty("fptest.label", ""));
+            }
+        }
+    }
+
+    private static synchronized String runId() {
+        if (runId == null) {
+            runId = System.getProperty("fptest.run", newRunId());
+        }
+        return runId;
+    }
+
+    private static synchronized void store(String run, String source, String mode, String backend, String op,
+            String profile, long count, double mean, long[] kept, String label) throws IOException {
+        Path dir = Paths.get(DIR);
+        Files.createDirectories(dir.resolve(run));
+        if (runs().stream().noneMatch(r -> r.id.equals(run))) {
+            append(dir.resolve(RUNS), "run, time, source, runtime, os, arch, cpu, cores, label",
+                    String.join(", ", run, LocalDateTime.now().toString(), source,
+                            source.equals("java")
+                                    ? System.getProperty("java.vm.name") + " " + System.getProperty("java.runtime.version")
+                                    : "native",
+                            System.getProperty("os.name") + " " + System.getProperty("os.version"),
+                            System.getProperty("os.arch"),
+                            cpu(),
+                            Integer.toString(Runtime.getRuntime().availableProcessors()),
+                            label.replace(',', ';')).replace('\n', ' '));
+        }
+        String file = run + "/" + backend + "_" + op + "_" + profile + "_" + mode + ".bin";
+        try (SampleSink out = SampleSink.binary(dir.resolve(file))) {
+            for (long s : kept) {
+                out.accept(s);
+            }
+        }
+        append(dir.resolve(SAMPLES), "run, mode, backend, op, profile, count, mean, p50, file",
+                String.format("%s, %s, %s, %s, %s, %d, %.3f, %.1f, %s",
+                        run, mode, backend, op, profile, count, mean, median(kept), file));
+    }
+
+    private static void append(Path file, String header, String line) throws IOException {
+        boolean fresh = !Files.exists(file);
+        FileWriter writer = new FileWriter(file.toFile(), true);
+        if (fresh) {
+            writer.write(header + "\n");
+        }
+        writer.write(line + "\n");
+        writer.close();
+    }
+
+    // Model name from /proc/cpuinfo where there is one.
+    private static String cpu() {
+        Path info = Paths.get("/proc/cpuinfo");
+        try (Stream<String> lines = Files.exists(info) ? Files.lines(info) : Stream.empty()) {
+            return lines.filter(l -> l.startsWith("model name"))
+                    .map(l -> l.substring(l.indexOf(':') + 1).trim())
+                    .findFirst()
+                    .orElse(System.getProperty("os.arch"))
+                    .replace(',', ';');
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    private static final class Run {
+        final String id;
+        final String[] fields;
+
+        Run(String[] fields) {
+            this.id = fields[0];
+            this.fields = fields;
+        }
+
+        String describe() {
+            return String.join(", ", Arrays.copyOfRange(fields, 1, fields.length));
+        }
+    }
+
+    private static final class Cell {
+        final String key;
+        final long count;
+        final String file;
+
+        Cell(String[] fields) {
+            this.key = String.join(" ", fields[1], fields[2], fields[3], fields[4]);
+            this.count = Long.parseLong(fields[5]);
+            this.file = fields[8];
+        }
+    }
+
+    private static List<String[]> rows(String name) throws IOException {
+        Path file = Paths.get(DIR, name);
+        List<String[]> rows = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return rows;
+        }
+        List<String> lines = Files.readAllLines(file);
+        for (String line : lines.subList(1, lines.size())) {
+            if (!line.isBlank()) {
+                rows.add(line.split(",\\s*", -1));
+            }
+        }
+        return rows;
+    }
+
+    // In the order they were started.
+    private static List<Run> runs() throws IOException {
+        List<Run> runs = new ArrayList<>();
+        for (String[] row : rows(RUNS)) {
+            runs.add(new Run(row));
+        }
+        return runs;
+    }
+
+    // The last row per cell wins, should a run have measured one twice.
+    private static Map<String, Cell> cells(String run) throws IOException {
+        Map<String, Cell> cells = new LinkedHashMap<>();
+        for (String[] row : rows(SAMPLES)) {
+            if (row[0].equals(run)) {
+                Cell cell = new Cell(row);
+                cells.put(cell.key, cell);
+            }
+        }
+        return cells;
+    }
+
+    private static Run resolve(List<Run> runs, String name) {
+        int k = name.equals("latest") ? runs.size() - 1 : name.equals("previous") ? runs.size() - 2 : -1;
+        if (k < 0) {
+            for (Run r : runs) {
+                if (r.id.equals(name)) {
+                    return r;
+                }
+            }
+        }
+        if (k < 0 || k >= runs.size()) {
+            throw new IllegalArgumentException("No such run in " + DIR + ": " + name);
+        }
+        return runs.get(k);
+    }
+
+    private static void list() throws IOException {
+        for (Run r : runs()) {
+            System.out.println(r.id + ": " + cells(r.id).size() + " cells, " + r.describe());
+        }
+    }
+
+    // Returns the number of regressions.
+    private static int compare(Run a, Run b) throws IOException {
+        System.out.println("A " + a.id + ": " + a.describe());
+        System.out.println("B " + b.id + ": " + b.describe());
+        System.out.println(String.format("%-40s %12s %12s %9s %10s  %s", "mode backend op profile",
+                "A p50", "B p50", "change", "p", ""));
+        Map<String, Cell> cellsB = cells(b.id);
+        int regressions = 0;
+        for (Cell ca : cells(a.id).values()) {
+            Cell cb = cellsB.get(ca.key);
+            if (cb == null) {
+                continue;
+            }
+            long[] x = load(Paths.get(DIR, ca.file));
+            long[] y = load(Paths.get(DIR, cb.file));
+            if (x.length == 0 || y.length == 0) {
+                continue;
+            }
+            double mx = median(x);
+            double my = median(y);
+            double change = my / mx - 1;
+            double p = mannWhitney(x, y);
+            String verdict = "";
+            if (p < ALPHA && Math.abs(change) > MIN_CHANGE) {
+                verdict = change > 0 ? "REGRESSION" : "improvement";
+                regressions += change > 0 ? 1 : 0;
+            }
+            System.out.println(String.format("%-40s %12.1f %12.1f %+8.1f%% %10.2e  %s",
+                    ca.key, mx, my, 100 * change, p, verdict));
+        }
+        System.out.println(regressions + " regressions");
+        return regressions;
+    }
+
+    private static void importC(Path dir, String label) throws IOException {
+        String run = newRunId();
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> list = Files.list(dir)) {
+            list.filter(f -> f.getFileName().toString().matches("(math|mpfr)_\\w+\\.(bin|csv)"))
+                    .sorted()
+                    .forEach(files::add);
+        }
+        List<String> seen = new ArrayList<>();
+        for (Path f : files) {
+            String name = f.getFileName().toString();
+            String base = name.substring(0, name.length() - 4);
+            // Prefer .bin when fp_test wrote both.
+            if (seen.contains(base) || name.endsWith(".csv") && Files.exists(dir.resolve(base + ".bin"))) {
+                continue;
+            }
+            seen.add(base);
+            long[] all = load(f);
+            if (all.length == 0) {
+                continue;
+            }
+            int stride = Math.max(1, all.length / MAX_SAMPLES);
+            long[] kept = new long[Math.min(all.length, MAX_SAMPLES)];
+            double sum = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (i % stride == 0 && i / stride < kept.length) {
+                    kept[i / stride] = all[i];
+                }
+                sum += all[i];
+            }
+            String backend = base.substring(0, base.indexOf('_'));
+            String op = base.substring(base.indexOf('_') + 1);
+            store(run, "c", CALL, backend, op, InputProfile.UNIT.profileName(), all.length, sum / all.length,
+                    kept, label);
+        }
+        System.out.println("Imported " + seen.size() + " cells as run " + run);
+    }
+
+    // Binary samples as BinarySampleSink writes them, or one per text line.
+    static long[] load(Path file) throws IOException {
+        if (file.toString().endsWith(".bin")) {
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            long[] samples = new long[bytes.remaining() / Long.BYTES];
+            bytes.asLongBuffer().get(samples);
+            return samples;
+        }
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.filter(l -> !l.isBlank()).mapToLong(l -> Long.parseLong(l.trim())).toArray();
+        }
+    }
+
+    static double median(long[] samples) {
+        if (samples.length == 0) {
+            return Double.NaN;
+        }
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2.0;
+    }
+
+    // Two-sided p-value of the Mann-Whitney U test, by the normal approximation
+    // with tie correction and continuity correction. Timer resolution makes
+    // ties the rule, not the exception.
+    static double mannWhitney(long[] x, long[] y) {
+        int n1 = x.length;
+        int n2 = y.length;
+        int n = n1 + n2;
+        // (value, 0 for x or 1 for y), sorted by value.
+        long[][] all = new long[n][];
+        for (int i = 0; i < n1; i++) {
+            all[i] = new long[] {x[i], 0};
+        }
+        for (int i = 0; i < n2; i++) {
+            all[n1 + i] = new long[] {y[i], 1};
+        }
+        Arrays.sort(all, (p, q) -> Long.compare(p[0], q[0]));
+        double rankSumX = 0;
+        double ties = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && all[j][0] == all[i][0]) {
+                j++;
+            }
+            double rank = (i + 1 + j) / 2.0;
+            for (int k = i; k < j; k++) {
+                if (all[k][1] == 0) {
+                    rankSumX += rank;
+                }
+            }
+            double t = j - i;
+            ties += t * t * t - t;
+            i = j;
+        }
+        double u = rankSumX - n1 * (n1 + 1.0) / 2;
+        double mean = n1 * (double) n2 / 2;
+        double variance = n1 * (double) n2 / 12 * ((n + 1) - ties / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        double z = Math.max(0, Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+        return erfc(z / Math.sqrt(2));
+    }
+
+    // Chebyshev fit, relative error below 1.2e-7 (Numerical Recipes erfcc).
+    static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+}
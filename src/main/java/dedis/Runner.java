@@ -0,0 +1,170 @@
+package dedis.fp;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Runs a whole sweep in one JVM: every op on every profile, over the chosen
+// backends, as FPTest would run each cell. Counts, backends and the output
+// directory become -Dfptest.* properties, set before FPTest or Backends load.
+// With --fork every (op, profile) cell runs in a fresh child JVM with the same
+// settings and JVM flags, so cells cannot share JIT profiles or heap state.
+public final class Runner {
+
+    private Runner() {
+    }
+
+    static void usage() {
+        System.out.println("Usage: Runner [--ops <op,...>|all] [--backends <name,...>|all] [--profiles <name,...>|all]"
+                + " [--warmup <count>] [--exec <count>] [--inputs <count>] [--threads <n,...>]"
+                + " [--seed <seed>] [--raw bin|text|mapped] [--out <dir>] [--fork]");
+        System.exit(1);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> ops = new ArrayList<>();
+        List<String> profiles = new ArrayList<>();
+        String threads = null;
+        String seed = Long.toString(FPTest.DEFAULT_SEED);
+        String rawFormat = null;
+        boolean fork = false;
+        Map<String, String> props = new LinkedHashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--fork")) {
+                fork = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                usage();
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--ops":
+                    ops.addAll(names(value, Op.values().length, k -> Op.values()[k].fname()));
+                    break;
+                case "--profiles":
+                    profiles.addAll(names(value, InputProfile.values().length,
+                            k -> InputProfile.values()[k].profileName()));
+                    break;
+                case "--backends":
+                    props.put("fptest.backends", value);
+                    break;
+                case "--warmup":
+                    props.put("fptest.warmup", value);
+                    break;
+                case "--exec":
+                    props.put("fptest.exec", value);
+                    break;
+                case "--inputs":
+                    props.put("fptest.inputs", value);
+                    break;
+                case "--out":
+                    props.put("fptest.out", value);
+                    break;
+                case "--threads":
+                    threads = value;
+                    break;
+                case "--seed":
+                    seed = value;
+                    break;
+                case "--raw":
+                    rawFormat = value;
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i - 1]);
+                    usage();
+            }
+        }
+        // Scaling cells keep no per-call samples, so there is nothing to write.
+        if (threads != null && rawFormat != null) {
+            System.out.println("--raw cannot be combined with --threads");
+            usage();
+        }
+        if (ops.isEmpty()) {
+            ops.addAll(names("all", Op.values().length, k -> Op.values()[k].fname()));
+        }
+        if (profiles.isEmpty()) {
+            profiles.add(InputProfile.UNIT.profileName());
+        }
+        // Set before anything loads ResultsStore, which loads FPTest and
+        // freezes its counts from these properties.
+        props.forEach(System::setProperty);
+        FPTest.checkInputCount();
+        // One results-store run for the whole sweep, forked or not.
+        String run = System.getProperty("fptest.run");
+        if (run == null) {
+            run = ResultsStore.newRunId();
+            System.setProperty("fptest.run", run);
+        }
+        props.put("fptest.run", run);
+
+        for (String name : System.getProperty("fptest.backends", "all").split(",")) {
+            if (!name.equals("all") && Backends.all().stream().noneMatch(b -> b.name().equals(name))) {
+                System.out.println("Unknown or unavailable backend: " + name);
+                System.exit(1);
+            }
+        }
+        Files.createDirectories(Paths.get(FPTest.STATS_PREFIX));
+
+        int failed = 0;
+        for (String op : ops) {
+            for (String profile : profiles) {
+                List<String> cell = new ArrayList<>(List.of(op, "--profile", profile, "--seed", seed));
+                if (threads != null) {
+                    cell.addAll(List.of("--threads", threads));
+                }
+                if (rawFormat != null) {
+                    cell.addAll(List.of("--raw", rawFormat));
+                }
+                System.out.println("Running " + String.join(" ", cell));
+                if (fork) {
+                    failed += runForked(cell, props) == 0 ? 0 : 1;
+                } else {
+                    FPTest.main(cell.toArray(new String[0]));
+                }
+            }
+        }
+        if (failed > 0) {
+            System.out.println(failed + " forked cells failed");
+            System.exit(1);
+        }
+    }
+
+    private interface Names {
+        String name(int k);
+    }
+
+    // "all" expands to every name, otherwise a comma-separated list.
+    private static List<String> names(String value, int count, Names all) {
+        List<String> out = new ArrayList<>();
+        if (value.equals("all")) {
+            for (int k = 0; k < count; k++) {
+                out.add(all.name(k));
+            }
+        } else {
+            out.addAll(List.of(value.split(",")));
+        }
+        return out;
+    }
+
+    // The child gets this JVM's flags (heap, --add-modules, library path, ...)
+    // plus the sweep's properties, and shares stdout/stderr.
+    private static int runForked(List<String> cell, Map<String, String> props)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        props.forEach((k, v) -> command.add("-D" + k + "=" + v));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(FPTest.class.getName());
+        command.addAll(cell);
+        return new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+}
@@ -0,0 +1,41 @@
+package dedis.fp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Streams raw latency samples to disk while a measurement runs. Both formats
+// are also written by fp_test.c and read by c_stats.py.
+public interface SampleSink extends AutoCloseable {
+
+    SampleSink NONE = new SampleSink() {
+        @Override
+        public void accept(long sample) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    // Throws UncheckedIOException, since it runs inside measurement loops.
+    void accept(long sample);
+
+    @Override
+    void close() throws IOException;
+
+    // Little-endian int64 per sample, no header.
+    static SampleSink binary(Path path) throws IOException {
+        return new BinarySampleSink(path);
+    }
+
+    // The binary format through a preallocated off-heap mapping of capacity
+    // samples.
+    static SampleSink mapped(Path path, long capacity) throws IOException {
+        return new MappedSampleSink(path, capacity);
+    }
+
+    // One decimal sample per line, as logMeasurements always wrote.
+    static SampleSink text(Path path) throws IOException {
+        return new TextSampleSink(path);
+    }
+}
@@ -0,0 +1,130 @@
+package dedis.fp;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+// Runs one op on each given number of platform threads per backend. Every thread has
+// its own inputs, driver and timing buffer; threads only meet at barriers
+// between phases. A worker that throws terminates the barrier, which releases
+// everyone already waiting or still to arrive, and the cell rethrows the
+// first failure instead of hanging.
+final class ScalingExperiment {
+
+    static final int BATCH_SIZE = 1000;
+
+    private ScalingExperiment() {
+    }
+
+    // "8" means 1..8 threads, "1,2,4,8" exactly those.
+    static int[] threadCounts(String arg) {
+        if (arg.contains(",")) {
+            return Arrays.stream(arg.split(",")).mapToInt(Integer::parseInt).toArray();
+        }
+        return IntStream.rangeClosed(1, Integer.parseInt(arg)).toArray();
+    }
+
+    public static void run(String fname, int[] threadCounts, InputProfile profile, long seed) throws IOException {
+        final Op op = Op.fromName(fname);
+        String out = FPTest.statsFile(fname, profile, "_threads");
+        FileWriter writer = new FileWriter(out);
+        for (FloatBackend<?> backend : Backends.forOp(op)) {
+            for (int threads : threadCounts) {
+                writer.write(runOnce(fname, backend, op, threads, profile, seed));
+            }
+        }
+        writer.close();
+    }
+
+    // Columns: op, backend, threads, aggregate ops/sec, per-call latency
+    // mean (stddev) over all threads, slowest thread's mean latency, p99 and
+    // p99.9 over all threads.
+    private static String runOnce(String fname, FloatBackend<?> backend, Op op, int threads,
+                                  InputProfile profile, long seed) {
+        final int batches = Math.max(1, FPTest.EXEC_COUNT / BATCH_SIZE);
+        final Histogram[] hists = new Histogram[threads];
+        // The main thread joins every barrier to timestamp the throughput phase.
+        final Phaser barrier = new Phaser(threads + 1);
+        final Thread[] workers = new Thread[threads];
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int t = 0; t < threads; t++) {
+            final Histogram threadHist = FPTest.newHistogram();
+            hists[t] = threadHist;
+            final long threadSeed = seed + t;
+            workers[t] = new Thread(() -> {
+                double[][] inputs = profile.generate(threadSeed, FPTest.INPUT_COUNT);
+                Driver driver = Drivers.create(backend, op, inputs[0], inputs[1]);
+                PhaseEvent phase = PhaseEvent.begin(PhaseEvent.WARMUP, backend, op, profile);
+                phase.finish(Warmup.run(backend.name(), driver, FPTest.INPUT_COUNT, FPTest.WARMUP_COUNT).ops());
+                await(barrier);
+                phase = PhaseEvent.begin(PhaseEvent.MEASURE, backend, op, profile);
+                for (int k = 0; k < batches; k++) {
+                    driver.timeBatch((k * BATCH_SIZE) % FPTest.INPUT_COUNT, BATCH_SIZE);
+                }
+                phase.finish((long) batches * BATCH_SIZE);
+                await(barrier);
+                phase = PhaseEvent.begin(PhaseEvent.MEASURE, backend, op, profile);
+                driver.measure(FPTest.EXEC_COUNT, threadHist, SampleSink.NONE);
+                phase.finish(FPTest.EXEC_COUNT);
+            }, "fptest-" + backend.name() + "-" + t);
+            workers[t].setUncaughtExceptionHandler((thread, e) -> {
+                failure.compareAndSet(null, e);
+                barrier.forceTermination();
+            });
+            workers[t].start();
+        }
+
+        long start = 0;
+        long end = 0;
+        try {
+            await(barrier);
+            start = System.nanoTime();
+            await(barrier);
+            end = System.nanoTime();
+        } catch (IllegalStateException e) {
+            failure.compareAndSet(null, e);
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException(backend.name() + " " + fname + " on " + threads + " threads failed",
+                    failure.get());
+        }
+
+        double opsPerSec = (double) threads * batches * BATCH_SIZE * 1e9 / (end - start);
+        Histogram all = FPTest.newHistogram();
+        double slowest = 0;
+        for (Histogram h : hists) {
+            all.add(h);
+            slowest = Math.max(slowest, h.getMean());
+        }
+        return String.format("%s, %s, %d, %.0f, %.1f (%f), %.1f, %d, %d\n",
+                fname,
+                backend.name(),
+                threads,
+                opsPerSec,
+                all.getMean(),
+                all.getStdDeviation(),
+                slowest,
+                all.getValueAtPercentile(99),
+                all.getValueAtPercentile(99.9));
+    }
+
+    private static void await(Phaser barrier) {
+        if (barrier.arriveAndAwaitAdvance() < 0) {
+            throw new IllegalStateException("Another thread failed");
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package dedis.fp;
+
+import java.math.BigInteger;
+
+// IEEE 754 binary64 add/sub/mul/div/sqrt on raw long bits, round to nearest
+// even, with the same shape as MicroDouble's. The structure follows Berkeley
+// SoftFloat (a significand with its leading bit at bit 62 and ten extra bits
+// for rounding), but the wide steps use the 64-bit instructions MicroDouble
+// predates: multiplyHigh for the 128-bit product, and Newton reciprocals and
+// reciprocal square roots from small tables, followed by an exact integer
+// correction, in place of bit-by-bit division. Only integer instructions are
+// used, and results are bit-identical to Java's double ops, subnormals
+// included. NaN results are the canonical NaN, as from
+// Double.doubleToLongBits.
+public final class SoftDouble {
+
+    public static final long NAN = 0x7FF8000000000000L;
+
+    private static final long SIGN = 0x8000000000000000L;
+    private static final long INF = 0x7FF0000000000000L;
+    private static final long FRAC_MASK = 0x000FFFFFFFFFFFFFL;
+    private static final long HIDDEN = 0x0010000000000000L;
+
+    // 1/x at the midpoints of [k/64, (k+1)/64) for k = 64..127, in Q62.
+    private static final long[] RECIP = new long[128];
+    // 1/sqrt of the midpoints of [k/32, (k+1)/32) for k = 32..127, in Q62.
+    private static final long[] RSQRT = new long[128];
+
+    static {
+        for (int k = 64; k < 128; k++) {
+            RECIP[k] = BigInteger.ONE.shiftLeft(69).divide(BigInteger.valueOf(2 * k + 1)).longValue();
+        }
+        for (int k = 32; k < 128; k++) {
+            RSQRT[k] = BigInteger.ONE.shiftLeft(130).divide(BigInteger.valueOf(2 * k + 1)).sqrt().longValue();
+        }
+    }
+
+    private SoftDouble() {
+    }
+
+    public static long add(long a, long b) {
+        return (a ^ b) >= 0 ? addMags(a, b, a & SIGN) : subMags(a, b, a & SIGN);
+    }
+
+    public static long sub(long a, long b) {
+        return (a ^ b) >= 0 ? subMags(a, b, a & SIGN) : addMags(a, b, a & SIGN);
+    }
+
+    public static long mul(long a, long b) {
+        long sign = (a ^ b) & SIGN;
+        int expA = exp(a);
+        int expB = exp(b);
+        long sigA = a & FRAC_MASK;
+        long sigB = b & FRAC_MASK;
+        if (expA == 0x7FF || expB == 0x7FF) {
+            if (isNaN(a) || isNaN(b)) {
+                return NAN;
+            }
+            // inf * 0
+            return (expA == 0 && sigA == 0) || (expB == 0 && sigB == 0) ? NAN : sign | INF;
+        }
+        if (expA == 0) {
+            if (sigA == 0) {
+                return sign;
+            }
+            int shift = Long.numberOfLeadingZeros(sigA) - 11;
+            expA = 1 - shift;
+            sigA <<= shift;
+        }
+        if (expB == 0) {
+            if (sigB == 0) {
+                return sign;
+            }
+            int shift = Long.numberOfLeadingZeros(sigB) - 11;
+            expB = 1 - shift;
+            sigB <<= shift;
+        }
+        int expZ = expA + expB - 0x3FF;
+        sigA = (sigA | HIDDEN) << 10;
+        sigB = (sigB | HIDDEN) << 11;
+        long hi = umulh(sigA, sigB);
+        long sigZ = hi | (sigA * sigB != 0 ? 1 : 0);
+        if (sigZ < 0x4000000000000000L) {
+            expZ--;
+            sigZ <<= 1;
+        }
+        return roundPack(sign, expZ, sigZ);
+    }
+
+    public static long div(long a, long b) {
+        long sign = (a ^ b) & SIGN;
+        int expA = exp(a);
+        int expB = exp(b);
+        long sigA = a & FRAC_MASK;
+        long sigB = b & FRAC_MASK;
+        if (expA == 0x7FF) {
+            return sigA != 0 || expB == 0x7FF ? NAN : sign | INF;
+        }
+        if (expB == 0x7FF) {
+            return sigB != 0 ? NAN : sign;
+        }
+        if (expB == 0) {
+            if (sigB == 0) {
+                return expA == 0 && sigA == 0 ? NAN : sign | INF;
+            }
+            int shift = Long.numberOfLeadingZeros(sigB) - 11;
+            expB = 1 - shift;
+            sigB <<= shift;
+        }
+        if (expA == 0) {
+            if (sigA == 0) {
+                return sign;
+            }
+            int shift = Long.numberOfLeadingZeros(sigA) - 11;
+            expA = 1 - shift;
+            sigA <<= shift;
+        }
+        int expZ = expA - expB + 0x3FE;
+        sigA |= HIDDEN;
+        sigB |= HIDDEN;
+        // 1/d for d = sigB 2^-52 in [1, 2): a 6-bit table guess and three
+        // Newton steps y + y (1 - d y), all in Q62.
+        long d = sigB << 10;
+        long y = RECIP[(int) (sigB >>> 46)];
+        for (int i = 0; i < 3; i++) {
+            y += mul62(y, (1L << 62) - mul62(d, y));
+        }
+        // q = floor(sigA 2^k / sigB), 55 bits, from sigA y and then an exact
+        // correction against the 128-bit remainder.
+        int k = 54;
+        if (sigA < sigB) {
+            expZ--;
+            k = 55;
+        }
+        int shift = 114 - k;
+        long q = Math.multiplyHigh(sigA, y) << (64 - shift) | (sigA * y) >>> shift;
+        long nHi = sigA >>> (64 - k);
+        long nLo = sigA << k;
+        while (greater(Math.multiplyHigh(q, sigB), q * sigB, nHi, nLo)) {
+            q--;
+        }
+        while (!greater(Math.multiplyHigh(q + 1, sigB), (q + 1) * sigB, nHi, nLo)) {
+            q++;
+        }
+        boolean exact = q * sigB == nLo;
+        return roundPack(sign, expZ, q << 8 | (exact ? 0 : 1));
+    }
+
+    public static long sqrt(long a) {
+        int expA = exp(a);
+        long sigA = a & FRAC_MASK;
+        if (expA == 0x7FF) {
+            return sigA != 0 || a < 0 ? NAN : a;
+        }
+        if (a < 0) {
+            return expA == 0 && sigA == 0 ? a : NAN;
+        }
+        if (expA == 0) {
+            if (sigA == 0) {
+                return a;
+            }
+            int shift = Long.numberOfLeadingZeros(sigA) - 11;
+            expA = 1 - shift;
+            sigA <<= shift;
+        }
+        // a = m 2^(e - 52) with e even and m in [2^52, 2^54).
+        int e = expA - 0x3FF;
+        long m = sigA | HIDDEN;
+        if ((e & 1) != 0) {
+            m <<= 1;
+            e--;
+        }
+        // 1/sqrt(x) for x = m 2^-52 in [1, 4): a 7-bit table guess and three
+        // Newton steps y (3 - x y^2) / 2, with x in Q61 and y in Q62.
+        long x = m << 9;
+        long y = RSQRT[(int) (m >>> 47)];
+        for (int i = 0; i < 3; i++) {
+            long xyy = mul62(x, mul62(y, y));
+            y = mul62(y, (3L << 61) - xyy);
+        }
+        // q = floor(sqrt(m 2^56)), 55 bits, from x y = sqrt(x) and then an
+        // exact correction against the 128-bit remainder.
+        long q = (Math.multiplyHigh(x, y) << 3 | (x * y) >>> 61) >>> 8;
+        long rHi = m >>> 8;
+        long rLo = m << 56;
+        while (greater(Math.multiplyHigh(q, q), q * q, rHi, rLo)) {
+            q--;
+        }
+        while (!greater(Math.multiplyHigh(q + 1, q + 1), (q + 1) * (q + 1), rHi, rLo)) {
+            q++;
+        }
+        boolean exact = Math.multiplyHigh(q, q) == rHi && q * q == rLo;
+        return roundPack(0, (e >> 1) + 0x3FE, q << 8 | (exact ? 0 : 1));
+    }
+
+    public static boolean isNaN(long a) {
+        return (a & ~SIGN) > INF;
+    }
+
+    private static long addMags(long a, long b, long sign) {
+        int expA = exp(a);
+        int expB = exp(b);
+        long sigA = a & FRAC_MASK;
+        long sigB = b & FRAC_MASK;
+        int expDiff = expA - expB;
+        int expZ;
+        long sigZ;
+        if (expDiff == 0) {
+            if (expA == 0) {
+                // Two subnormals; a carry into the exponent field is right.
+                return a + sigB;
+            }
+            if (expA == 0x7FF) {
+                return sigA != 0 || sigB != 0 ? NAN : a;
+            }
+            expZ = expA;
+            sigZ = (0x0020000000000000L + sigA + sigB) << 9;
+        } else {
+            sigA <<= 9;
+            sigB <<= 9;
+            if (expDiff < 0) {
+                if (expB == 0x7FF) {
+                    return sigB != 0 ? NAN : sign | INF;
+                }
+                expZ = expB;
+                sigA = expA != 0 ? sigA + 0x2000000000000000L : sigA << 1;
+                sigA = shiftRightJam(sigA, -expDiff);
+            } else {
+                if (expA == 0x7FF) {
+                    return sigA != 0 ? NAN : a;
+                }
+                expZ = expA;
+                sigB = expB != 0 ? sigB + 0x2000000000000000L : sigB << 1;
+                sigB = shiftRightJam(sigB, expDiff);
+            }
+            sigZ = 0x2000000000000000L + sigA + sigB;
+            if (sigZ < 0x4000000000000000L) {
+                expZ--;
+                sigZ <<= 1;
+            }
+        }
+        return roundPack(sign, expZ, sigZ);
+    }
+
+    private static long subMags(long a, long b, long sign) {
+        int expA = exp(a);
+        int expB = exp(b);
+        long sigA = a & FRAC_MASK;
+        long sigB = b & FRAC_MASK;
+        int expDiff = expA - expB;
+        if (expDiff == 0) {
+            if (expA == 0x7FF) {
+                return NAN;
+            }
+            long sigDiff = sigA - sigB;
+            if (sigDiff == 0) {
+                return 0;
+            }
+            if (expA != 0) {
+                expA--;
+            }
+            if (sigDiff < 0) {
+                sign ^= SIGN;
+                sigDiff = -sigDiff;
+            }
+            int shift = Long.numberOfLeadingZeros(sigDiff) - 11;
+            int expZ = expA - shift;
+            if (expZ < 0) {
+                shift = expA;
+                expZ = 0;
+            }
+            return sign | ((long) expZ << 52) + (sigDiff << shift);
+        }
+        sigA <<= 10;
+        sigB <<= 10;
+        int expZ;
+        long sigZ;
+        if (expDiff < 0) {
+            sign ^= SIGN;
+            if (expB == 0x7FF) {
+                return sigB != 0 ? NAN : sign | INF;
+            }
+            sigA = shiftRightJam(sigA + (expA != 0 ? 0x4000000000000000L : sigA), -expDiff);
+            expZ = expB;
+            sigZ = (sigB | 0x4000000000000000L) - sigA;
+        } else {
+            if (expA == 0x7FF) {
+                return sigA != 0 ? NAN : a;
+            }
+            sigB = shiftRightJam(sigB + (expB != 0 ? 0x4000000000000000L : sigB), expDiff);
+            expZ = expA;
+            sigZ = (sigA | 0x4000000000000000L) - sigB;
+        }
+        return normRoundPack(sign, expZ - 1, sigZ);
+    }
+
+    // sig has its leading bit at bit 62 and exp is one less than the biased
+    // exponent of the result, so that adding the hidden bit into the
+    // exponent field makes up for it.
+    private static long roundPack(long sign, int exp, long sig) {
+        int roundBits = (int) sig & 0x3FF;
+        if (exp < 0 || exp >= 0x7FD) {
+            if (exp < 0) {
+                sig = shiftRightJam(sig, -exp);
+                exp = 0;
+                roundBits = (int) sig & 0x3FF;
+            } else if (exp > 0x7FD || sig + 0x200 < 0) {
+                return sign | INF;
+            }
+        }
+        sig = (sig + 0x200) >>> 10;
+        if (roundBits == 0x200) {
+            sig &= ~1L;
+        }
+        if (sig == 0) {
+            exp = 0;
+        }
+        return sign | ((long) exp << 52) + sig;
+    }
+
+    private static long normRoundPack(long sign, int exp, long sig) {
+        int shift = Long.numberOfLeadingZeros(sig) - 1;
+        exp -= shift;
+        if (shift >= 10 && exp >= 0 && exp < 0x7FD) {
+            return sign | ((long) (sig != 0 ? exp : 0) << 52) + (sig << (shift - 10));
+        }
+        return roundPack(sign, exp, sig << shift);
+    }
+
+    // Shifts right, ORing every bit shifted out into bit 0.
+    private static long shiftRightJam(long a, int dist) {
+        if (dist < 63) {
+            return a >>> dist | ((a << (-dist & 63)) != 0 ? 1 : 0);
+        }
+        return a != 0 ? 1 : 0;
+    }
+
+    private static boolean greater(long aHi, long aLo, long bHi, long bLo) {
+        return aHi != bHi ? Long.compareUnsigned(aHi, bHi) > 0 : Long.compareUnsigned(aLo, bLo) > 0;
+    }
+
+    private static long mul62(long a, long b) {
+        return Math.multiplyHigh(a, b) << 2 | (a * b) >>> 62;
+    }
+
+    private static long umulh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    private static int exp(long a) {
+        return (int) (a >>> 52) & 0x7FF;
+    }
+}
@@ -0,0 +1,76 @@
+package dedis.fp;
+
+// SoftDouble and SoftDoubleMath on Double.doubleToLongBits values, like
+// MicroDoubleBackend.
+final class SoftDoubleBackend implements LongBackend {
+
+    @Override
+    public String name() {
+        return FPTest.SF;
+    }
+
+    @Override
+    public long encode(double x) {
+        return Double.doubleToLongBits(x);
+    }
+
+    @Override
+    public double decode(long x) {
+        return Double.longBitsToDouble(x);
+    }
+
+    @Override
+    public long add(long x, long y) {
+        return SoftDouble.add(x, y);
+    }
+
+    @Override
+    public long sub(long x, long y) {
+        return SoftDouble.sub(x, y);
+    }
+
+    @Override
+    public long mul(long x, long y) {
+        return SoftDouble.mul(x, y);
+    }
+
+    @Override
+    public long div(long x, long y) {
+        return SoftDouble.div(x, y);
+    }
+
+    @Override
+    public long sqrt(long x) {
+        return SoftDouble.sqrt(x);
+    }
+
+    @Override
+    public long log(long x) {
+        return SoftDoubleMath.log(x);
+    }
+
+    @Override
+    public long exp(long x) {
+        return SoftDoubleMath.exp(x);
+    }
+
+    @Override
+    public long pow(long x, long y) {
+        return SoftDoubleMath.pow(x, y);
+    }
+
+    @Override
+    public long sin(long x) {
+        return SoftDoubleMath.sin(x);
+    }
+
+    @Override
+    public long cos(long x) {
+        return SoftDoubleMath.cos(x);
+    }
+
+    @Override
+    public long tan(long x) {
+        return SoftDoubleMath.tan(x);
+    }
+}
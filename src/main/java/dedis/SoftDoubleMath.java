@@ -0,0 +1,991 @@
+package dedis.fp;
+
+// log, exp, pow, sin, cos and tan on raw long bits, as MicroDouble has them
+// next to its basic ops. Each is fdlibm's algorithm, the one StrictMath
+// specifies, with every double operation done by SoftDouble and every word
+// access (fdlibm's __HI and __LO) done on the long, so results are
+// bit-identical to StrictMath's. The code keeps fdlibm's names and structure
+// so it can be read against the C.
+public final class SoftDoubleMath {
+
+    private static final long SIGN = 0x8000000000000000L;
+    private static final long INF = 0x7FF0000000000000L;
+    private static final long NEG_INF = 0xFFF0000000000000L;
+    private static final long FRAC_MASK = 0x000FFFFFFFFFFFFFL;
+    private static final long HIDDEN = 0x0010000000000000L;
+
+    private static final long HALF = bits(0.5);
+    private static final long ONE = bits(1.0);
+    private static final long TWO = bits(2.0);
+    private static final long THREE = bits(3.0);
+    private static final long EIGHT = bits(8.0);
+    private static final long EIGHTH = bits(0.125);
+    private static final long TWO24 = bits(1.67772160000000000000e+07);
+    private static final long TWON24 = bits(5.96046447753906250000e-08);
+    private static final long TWO53 = bits(9007199254740992.0);
+    private static final long TWO54 = bits(1.80143985094819840000e+16);
+    private static final long TWOM54 = bits(5.55111512312578270212e-17);
+    private static final long TWOM1000 = bits(9.33263618503218878990e-302);
+
+    // e_log.c
+    private static final long LN2_HI = bits(6.93147180369123816490e-01);
+    private static final long LN2_LO = bits(1.90821492927058770002e-10);
+    private static final long THIRD = bits(0.33333333333333333);
+    private static final long LG1 = bits(6.666666666666735130e-01);
+    private static final long LG2 = bits(3.999999999940941908e-01);
+    private static final long LG3 = bits(2.857142874366239149e-01);
+    private static final long LG4 = bits(2.222219843214978396e-01);
+    private static final long LG5 = bits(1.818357216161805012e-01);
+    private static final long LG6 = bits(1.531383769920937332e-01);
+    private static final long LG7 = bits(1.479819860511658591e-01);
+
+    // e_exp.c, whose P1..P5 e_pow.c shares
+    private static final long[] HALF_SIGNED = {bits(0.5), bits(-0.5)};
+    private static final long O_THRESHOLD = bits(7.09782712893383973096e+02);
+    private static final long U_THRESHOLD = bits(-7.45133219101941108420e+02);
+    private static final long[] LN2HI = {bits(6.93147180369123816490e-01), bits(-6.93147180369123816490e-01)};
+    private static final long[] LN2LO = {bits(1.90821492927058770002e-10), bits(-1.90821492927058770002e-10)};
+    private static final long INVLN2 = bits(1.44269504088896338700e+00);
+    private static final long P1 = bits(1.66666666666666019037e-01);
+    private static final long P2 = bits(-2.77777777770155933842e-03);
+    private static final long P3 = bits(6.61375632143793436117e-05);
+    private static final long P4 = bits(-1.65339022054652515390e-06);
+    private static final long P5 = bits(4.13813679705723846039e-08);
+
+    // e_pow.c
+    private static final long[] BP = {bits(1.0), bits(1.5)};
+    private static final long[] DP_H = {0, bits(5.84962487220764160156e-01)};
+    private static final long[] DP_L = {0, bits(1.35003920212974897128e-08)};
+    private static final long L1 = bits(5.99999999999994648725e-01);
+    private static final long L2 = bits(4.28571428578550184252e-01);
+    private static final long L3 = bits(3.33333329818377432918e-01);
+    private static final long L4 = bits(2.72728123808534006489e-01);
+    private static final long L5 = bits(2.30660745775561754067e-01);
+    private static final long L6 = bits(2.06975017800338417784e-01);
+    private static final long LG2_FULL = bits(6.93147180559945286227e-01);
+    private static final long LG2_H = bits(6.93147182464599609375e-01);
+    private static final long LG2_L = bits(-1.90465429995776804525e-09);
+    private static final long OVT = bits(8.0085662595372944372e-17);
+    private static final long CP = bits(9.61796693925975554329e-01);
+    private static final long CP_H = bits(9.61796700954437255859e-01);
+    private static final long CP_L = bits(-7.02846165095275826516e-09);
+    private static final long IVLN2 = bits(1.44269504088896338700e+00);
+    private static final long IVLN2_H = bits(1.44269502162933349609e+00);
+    private static final long IVLN2_L = bits(1.92596299112661746887e-08);
+    private static final long QUARTER = bits(0.25);
+    private static final long POW_THIRD = bits(0.3333333333333333333333);
+
+    // k_sin.c
+    private static final long S1 = bits(-1.66666666666666324348e-01);
+    private static final long S2 = bits(8.33333333332248946124e-03);
+    private static final long S3 = bits(-1.98412698298579493134e-04);
+    private static final long S4 = bits(2.75573137070700676789e-06);
+    private static final long S5 = bits(-2.50507602534068634195e-08);
+    private static final long S6 = bits(1.58969099521155010221e-10);
+
+    // k_cos.c
+    private static final long C1 = bits(4.16666666666666019037e-02);
+    private static final long C2 = bits(-1.38888888888741095749e-03);
+    private static final long C3 = bits(2.48015872894767294178e-05);
+    private static final long C4 = bits(-2.75573143513906633035e-07);
+    private static final long C5 = bits(2.08757232129817482790e-09);
+    private static final long C6 = bits(-1.13596475577881948265e-11);
+    private static final long QX_MAX = bits(0.28125);
+
+    // k_tan.c
+    private static final long[] T = {
+        bits(3.33333333333334091986e-01), bits(1.33333333333201242699e-01), bits(5.39682539762260521377e-02),
+        bits(2.18694882948595424599e-02), bits(8.86323982359930005737e-03), bits(3.59207910759131235356e-03),
+        bits(1.45620945432529025516e-03), bits(5.88041240820264096874e-04), bits(2.46463134818469906812e-04),
+        bits(7.81794442939557092300e-05), bits(7.14072491382608190305e-05), bits(-1.85586374855275456654e-05),
+        bits(2.59073051863633712884e-05),
+    };
+    private static final long PIO4 = bits(7.85398163397448278999e-01);
+    private static final long PIO4LO = bits(3.06161699786838301793e-17);
+
+    // e_rem_pio2.c: 2/pi in 24-bit chunks, and the high words of n pi/2.
+    private static final int[] TWO_OVER_PI = {
+        0xA2F983, 0x6E4E44, 0x1529FC, 0x2757D1, 0xF534DD, 0xC0DB62,
+        0x95993C, 0x439041, 0xFE5163, 0xABDEBB, 0xC561B7, 0x246E3A,
+        0x424DD2, 0xE00649, 0x2EEA09, 0xD1921C, 0xFE1DEB, 0x1CB129,
+        0xA73EE8, 0x8235F5, 0x2EBB44, 0x84E99C, 0x7026B4, 0x5F7E41,
+        0x3991D6, 0x398353, 0x39F49C, 0x845F8B, 0xBDF928, 0x3B1FF8,
+        0x97FFDE, 0x05980F, 0xEF2F11, 0x8B5A0A, 0x6D1F6D, 0x367ECF,
+        0x27CB09, 0xB74F46, 0x3F669E, 0x5FEA2D, 0x7527BA, 0xC7EBE5,
+        0xF17B3D, 0x0739F7, 0x8A5292, 0xEA6BFB, 0x5FB11F, 0x8D5D08,
+        0x560330, 0x46FC7B, 0x6BABF0, 0xCFBC20, 0x9AF436, 0x1DA9E3,
+        0x91615E, 0xE61B08, 0x659985, 0x5F14A0, 0x68408D, 0xFFD880,
+        0x4D7327, 0x310606, 0x1556CA, 0x73A8C9, 0x60E27B, 0xC08C6B,
+    };
+    private static final int[] NPIO2_HW = {
+        0x3FF921FB, 0x400921FB, 0x4012D97C, 0x401921FB, 0x401F6A7A, 0x4022D97C,
+        0x4025FDBB, 0x402921FB, 0x402C463A, 0x402F6A7A, 0x4031475C, 0x4032D97C,
+        0x40346B9C, 0x4035FDBB, 0x40378FDB, 0x403921FB, 0x403AB41B, 0x403C463A,
+        0x403DD85A, 0x403F6A7A, 0x40407E4C, 0x4041475C, 0x4042106C, 0x4042D97C,
+        0x4043A28C, 0x40446B9C, 0x404534AC, 0x4045FDBB, 0x4046C6CB, 0x40478FDB,
+        0x404858EB, 0x404921FB,
+    };
+    private static final long INVPIO2 = bits(6.36619772367581382433e-01);
+    private static final long PIO2_1 = bits(1.57079632673412561417e+00);
+    private static final long PIO2_1T = bits(6.07710050650619224932e-11);
+    private static final long PIO2_2 = bits(6.07710050630396597660e-11);
+    private static final long PIO2_2T = bits(2.02226624879595063154e-21);
+    private static final long PIO2_3 = bits(2.02226624871116645580e-21);
+    private static final long PIO2_3T = bits(8.47842766036889956997e-32);
+
+    // k_rem_pio2.c
+    private static final long[] PIO2 = {
+        bits(1.57079625129699707031e+00), bits(7.54978941586159635335e-08), bits(5.39030252995776476554e-15),
+        bits(3.28200341580791294123e-22), bits(1.27065575308067607349e-29), bits(1.22933308981111328932e-36),
+        bits(2.73370053816464559624e-44), bits(2.16741683877804819444e-51),
+    };
+
+    private SoftDoubleMath() {
+    }
+
+    public static long log(long x) {
+        int hx = hi(x);
+        int lx = lo(x);
+        int k = 0;
+        if (hx < 0x00100000) {
+            if (((hx & 0x7FFFFFFF) | lx) == 0) {
+                return NEG_INF;
+            }
+            if (hx < 0) {
+                return SoftDouble.NAN;
+            }
+            // Subnormal: scale up.
+            k -= 54;
+            x = mul(x, TWO54);
+            hx = hi(x);
+        }
+        if (hx >= 0x7FF00000) {
+            return add(x, x);
+        }
+        k += (hx >> 20) - 1023;
+        hx &= 0x000FFFFF;
+        int i = (hx + 0x95F64) & 0x100000;
+        // Normalize x or x/2.
+        x = withHi(x, hx | (i ^ 0x3FF00000));
+        k += i >> 20;
+        long f = sub(x, ONE);
+        if ((0x000FFFFF & (2 + hx)) < 3) {
+            // |f| < 2^-20
+            if (isZero(f)) {
+                if (k == 0) {
+                    return 0;
+                }
+                long dk = fromInt(k);
+                return add(mul(dk, LN2_HI), mul(dk, LN2_LO));
+            }
+            long r = mul(mul(f, f), sub(HALF, mul(THIRD, f)));
+            if (k == 0) {
+                return sub(f, r);
+            }
+            long dk = fromInt(k);
+            return sub(mul(dk, LN2_HI), sub(sub(r, mul(dk, LN2_LO)), f));
+        }
+        long s = div(f, add(TWO, f));
+        long dk = fromInt(k);
+        long z = mul(s, s);
+        i = hx - 0x6147A;
+        long w = mul(z, z);
+        int j = 0x6B851 - hx;
+        long t1 = mul(w, add(LG2, mul(w, add(LG4, mul(w, LG6)))));
+        long t2 = mul(z, add(LG1, mul(w, add(LG3, mul(w, add(LG5, mul(w, LG7)))))));
+        i |= j;
+        long r = add(t2, t1);
+        if (i > 0) {
+            long hfsq = mul(mul(HALF, f), f);
+            if (k == 0) {
+                return sub(f, sub(hfsq, mul(s, add(hfsq, r))));
+            }
+            return sub(mul(dk, LN2_HI), sub(sub(hfsq, add(mul(s, add(hfsq, r)), mul(dk, LN2_LO))), f));
+        }
+        if (k == 0) {
+            return sub(f, mul(s, sub(f, r)));
+        }
+        return sub(mul(dk, LN2_HI), sub(sub(mul(s, sub(f, r)), mul(dk, LN2_LO)), f));
+    }
+
+    public static long exp(long x) {
+        int hx = hi(x);
+        int xsb = hx >>> 31;
+        hx &= 0x7FFFFFFF;
+        long rHi = 0;
+        long rLo = 0;
+        int k = 0;
+        if (hx >= 0x40862E42) {
+            // |x| >= 709.78...
+            if (hx >= 0x7FF00000) {
+                if (((hx & 0xFFFFF) | lo(x)) != 0) {
+                    return add(x, x);
+                }
+                return xsb == 0 ? x : 0;
+            }
+            if (compare(x, O_THRESHOLD) > 0) {
+                return INF;
+            }
+            if (compare(x, U_THRESHOLD) < 0) {
+                return 0;
+            }
+        }
+        // Argument reduction: x = k ln2 + r, |r| <= ln2 / 2, r = rHi - rLo.
+        if (hx > 0x3FD62E42) {
+            if (hx < 0x3FF0A2B2) {
+                rHi = sub(x, LN2HI[xsb]);
+                rLo = LN2LO[xsb];
+                k = 1 - xsb - xsb;
+            } else {
+                k = toInt(add(mul(INVLN2, x), HALF_SIGNED[xsb]));
+                long t = fromInt(k);
+                rHi = sub(x, mul(t, LN2HI[0]));
+                rLo = mul(t, LN2LO[0]);
+            }
+            x = sub(rHi, rLo);
+        } else if (hx < 0x3E300000) {
+            // |x| < 2^-28
+            return add(ONE, x);
+        }
+        long t = mul(x, x);
+        long c = sub(x, mul(t, add(P1, mul(t, add(P2, mul(t, add(P3, mul(t, add(P4, mul(t, P5))))))))));
+        if (k == 0) {
+            return sub(ONE, sub(div(mul(x, c), sub(c, TWO)), x));
+        }
+        long y = sub(ONE, sub(sub(rLo, div(mul(x, c), sub(TWO, c))), rHi));
+        if (k >= -1021) {
+            return y + ((long) k << 52);
+        }
+        return mul(y + ((long) (k + 1000) << 52), TWOM1000);
+    }
+
+    public static long pow(long x, long y) {
+        int hx = hi(x);
+        int lx = lo(x);
+        int hy = hi(y);
+        int ly = lo(y);
+        int ix = hx & 0x7FFFFFFF;
+        int iy = hy & 0x7FFFFFFF;
+
+        if ((iy | ly) == 0) {
+            return ONE;
+        }
+        if (ix > 0x7FF00000 || (ix == 0x7FF00000 && lx != 0) || iy > 0x7FF00000 || (iy == 0x7FF00000 && ly != 0)) {
+            return add(x, y);
+        }
+
+        // When x < 0: 0 if y is not an integer, 1 if odd, 2 if even.
+        int yisint = 0;
+        if (hx < 0) {
+            if (iy >= 0x43400000) {
+                yisint = 2;
+            } else if (iy >= 0x3FF00000) {
+                int k = (iy >> 20) - 0x3FF;
+                if (k > 20) {
+                    int j = ly >>> (52 - k);
+                    if ((j << (52 - k)) == ly) {
+                        yisint = 2 - (j & 1);
+                    }
+                } else if (ly == 0) {
+                    int j = iy >> (20 - k);
+                    if ((j << (20 - k)) == iy) {
+                        yisint = 2 - (j & 1);
+                    }
+                }
+            }
+        }
+
+        if (ly == 0) {
+            if (iy == 0x7FF00000) {
+                // y is +-inf
+                if (((ix - 0x3FF00000) | lx) == 0) {
+                    return SoftDouble.NAN;
+                } else if (ix >= 0x3FF00000) {
+                    return hy >= 0 ? y : 0;
+                } else {
+                    return hy < 0 ? neg(y) : 0;
+                }
+            }
+            if (iy == 0x3FF00000) {
+                return hy < 0 ? div(ONE, x) : x;
+            }
+            if (hy == 0x40000000) {
+                return mul(x, x);
+            }
+            if (hy == 0x3FE00000 && hx >= 0) {
+                return SoftDouble.sqrt(x);
+            }
+        }
+
+        long ax = abs(x);
+        if (lx == 0 && (ix == 0x7FF00000 || ix == 0 || ix == 0x3FF00000)) {
+            // x is +-0, +-inf or +-1
+            long z = ax;
+            if (hy < 0) {
+                z = div(ONE, z);
+            }
+            if (hx < 0) {
+                if (((ix - 0x3FF00000) | yisint) == 0) {
+                    z = SoftDouble.NAN;
+                } else if (yisint == 1) {
+                    z = neg(z);
+                }
+            }
+            return z;
+        }
+
+        int n = (hx >> 31) + 1;
+        if ((n | yisint) == 0) {
+            return SoftDouble.NAN;
+        }
+        // Sign of the result: negative for a negative x to an odd power.
+        boolean negative = (n | (yisint - 1)) == 0;
+
+        long t1;
+        long t2;
+        if (iy > 0x41E00000) {
+            // |y| > 2^31
+            if (iy > 0x43F00000) {
+                if (ix <= 0x3FEFFFFF) {
+                    return hy < 0 ? INF : 0;
+                }
+                if (ix >= 0x3FF00000) {
+                    return hy > 0 ? INF : 0;
+                }
+            }
+            if (ix < 0x3FEFFFFF) {
+                return signed(hy < 0 ? INF : 0, negative);
+            }
+            if (ix > 0x3FF00000) {
+                return signed(hy > 0 ? INF : 0, negative);
+            }
+            // |1 - x| <= 2^-20: log(x) by x - x^2/2 + x^3/3 - x^4/4.
+            long t = sub(ax, ONE);
+            long w = mul(mul(t, t), sub(HALF, mul(t, sub(POW_THIRD, mul(t, QUARTER)))));
+            long u = mul(IVLN2_H, t);
+            long v = sub(mul(t, IVLN2_L), mul(w, IVLN2));
+            t1 = clearLo(add(u, v));
+            t2 = sub(v, sub(t1, u));
+        } else {
+            n = 0;
+            if (ix < 0x00100000) {
+                ax = mul(ax, TWO53);
+                n -= 53;
+                ix = hi(ax);
+            }
+            n += (ix >> 20) - 0x3FF;
+            int j = ix & 0x000FFFFF;
+            int k;
+            ix = j | 0x3FF00000;
+            if (j <= 0x3988E) {
+                // |x| < sqrt(3/2)
+                k = 0;
+            } else if (j < 0xBB67A) {
+                // |x| < sqrt(3)
+                k = 1;
+            } else {
+                k = 0;
+                n += 1;
+                ix -= 0x00100000;
+            }
+            ax = withHi(ax, ix);
+
+            // ss = s_h + s_l = (x - 1) / (x + 1) or (x - 1.5) / (x + 1.5)
+            long u = sub(ax, BP[k]);
+            long v = div(ONE, add(ax, BP[k]));
+            long ss = mul(u, v);
+            long sH = clearLo(ss);
+            long tH = words(((ix >> 1) | 0x20000000) + 0x00080000 + (k << 18), 0);
+            long tL = sub(ax, sub(tH, BP[k]));
+            long sL = mul(v, sub(sub(u, mul(sH, tH)), mul(sH, tL)));
+            // log(ax)
+            long s2 = mul(ss, ss);
+            long r = mul(mul(s2, s2), add(L1, mul(s2, add(L2, mul(s2, add(L3, mul(s2, add(L4,
+                    mul(s2, add(L5, mul(s2, L6)))))))))));
+            r = add(r, mul(sL, add(sH, ss)));
+            s2 = mul(sH, sH);
+            tH = clearLo(add(add(THREE, s2), r));
+            tL = sub(r, sub(sub(tH, THREE), s2));
+            u = mul(sH, tH);
+            v = add(mul(sL, tH), mul(tL, ss));
+            long pH = clearLo(add(u, v));
+            long pL = sub(v, sub(pH, u));
+            long zH = mul(CP_H, pH);
+            long zL = add(add(mul(CP_L, pH), mul(pL, CP)), DP_L[k]);
+            // log2(ax) = n + dp_h + z_h + z_l
+            long t = fromInt(n);
+            t1 = clearLo(add(add(add(zH, zL), DP_H[k]), t));
+            t2 = sub(zL, sub(sub(sub(t1, t), DP_H[k]), zH));
+        }
+
+        // (y1 + y2) (t1 + t2)
+        long y1 = clearLo(y);
+        long pL = add(mul(sub(y, y1), t1), mul(y, t2));
+        long pH = mul(y1, t1);
+        long z = add(pL, pH);
+        int j = hi(z);
+        int i = lo(z);
+        if (j >= 0x40900000) {
+            // z >= 1024
+            if (((j - 0x40900000) | i) != 0 || compare(add(pL, OVT), sub(z, pH)) > 0) {
+                return signed(INF, negative);
+            }
+        } else if ((j & 0x7FFFFFFF) >= 0x4090CC00) {
+            // z <= -1075
+            if (((j - 0xC090CC00) | i) != 0 || compare(pL, sub(z, pH)) <= 0) {
+                return signed(0, negative);
+            }
+        }
+
+        // 2^(p_h + p_l)
+        i = j & 0x7FFFFFFF;
+        int k = (i >> 20) - 0x3FF;
+        n = 0;
+        if (i > 0x3FE00000) {
+            // |z| > 0.5: n = [z + 0.5]
+            n = j + (0x00100000 >> (k + 1));
+            k = ((n & 0x7FFFFFFF) >> 20) - 0x3FF;
+            long t = words(n & ~(0x000FFFFF >> k), 0);
+            n = ((n & 0x000FFFFF) | 0x00100000) >> (20 - k);
+            if (j < 0) {
+                n = -n;
+            }
+            pH = sub(pH, t);
+        }
+        long t = clearLo(add(pL, pH));
+        long u = mul(t, LG2_H);
+        long v = add(mul(sub(pL, sub(t, pH)), LG2_FULL), mul(t, LG2_L));
+        z = add(u, v);
+        long w = sub(v, sub(z, u));
+        t = mul(z, z);
+        t1 = sub(z, mul(t, add(P1, mul(t, add(P2, mul(t, add(P3, mul(t, add(P4, mul(t, P5))))))))));
+        long r = sub(div(mul(z, t1), sub(t1, TWO)), add(w, mul(z, w)));
+        z = sub(ONE, sub(r, z));
+        j = hi(z) + (n << 20);
+        if ((j >> 20) <= 0) {
+            z = scalbn(z, n);
+        } else {
+            z = withHi(z, j);
+        }
+        return signed(z, negative);
+    }
+
+    public static long sin(long x) {
+        int ix = hi(x) & 0x7FFFFFFF;
+        if (ix <= 0x3FE921FB) {
+            return kernelSin(x, 0, 0);
+        }
+        if (ix >= 0x7FF00000) {
+            return sub(x, x);
+        }
+        long[] y = new long[2];
+        switch (remPio2(x, y) & 3) {
+            case 0: return kernelSin(y[0], y[1], 1);
+            case 1: return kernelCos(y[0], y[1]);
+            case 2: return neg(kernelSin(y[0], y[1], 1));
+            default: return neg(kernelCos(y[0], y[1]));
+        }
+    }
+
+    public static long cos(long x) {
+        int ix = hi(x) & 0x7FFFFFFF;
+        if (ix <= 0x3FE921FB) {
+            return kernelCos(x, 0);
+        }
+        if (ix >= 0x7FF00000) {
+            return sub(x, x);
+        }
+        long[] y = new long[2];
+        switch (remPio2(x, y) & 3) {
+            case 0: return kernelCos(y[0], y[1]);
+            case 1: return neg(kernelSin(y[0], y[1], 1));
+            case 2: return neg(kernelCos(y[0], y[1]));
+            default: return kernelSin(y[0], y[1], 1);
+        }
+    }
+
+    public static long tan(long x) {
+        int ix = hi(x) & 0x7FFFFFFF;
+        if (ix <= 0x3FE921FB) {
+            return kernelTan(x, 0, 1);
+        }
+        if (ix >= 0x7FF00000) {
+            return sub(x, x);
+        }
+        long[] y = new long[2];
+        int n = remPio2(x, y);
+        return kernelTan(y[0], y[1], 1 - ((n & 1) << 1));
+    }
+
+    // sin(x + y) for |x| <= pi/4, where y is the tail of x; iy is 0 if y
+    // is zero.
+    private static long kernelSin(long x, long y, int iy) {
+        int ix = hi(x) & 0x7FFFFFFF;
+        if (ix < 0x3E400000) {
+            return x;
+        }
+        long z = mul(x, x);
+        long v = mul(z, x);
+        long r = add(S2, mul(z, add(S3, mul(z, add(S4, mul(z, add(S5, mul(z, S6))))))));
+        if (iy == 0) {
+            return add(x, mul(v, add(S1, mul(z, r))));
+        }
+        return sub(x, sub(sub(mul(z, sub(mul(HALF, y), mul(v, r))), y), mul(v, S1)));
+    }
+
+    private static long kernelCos(long x, long y) {
+        int ix = hi(x) & 0x7FFFFFFF;
+        if (ix < 0x3E400000) {
+            return ONE;
+        }
+        long z = mul(x, x);
+        long r = mul(z, add(C1, mul(z, add(C2, mul(z, add(C3, mul(z, add(C4, mul(z, add(C5, mul(z, C6)))))))))));
+        if (ix < 0x3FD33333) {
+            // |x| < 0.3
+            return sub(ONE, sub(mul(HALF, z), sub(mul(z, r), mul(x, y))));
+        }
+        long qx = ix > 0x3FE90000 ? QX_MAX : words(ix - 0x00200000, 0);
+        long hz = sub(mul(HALF, z), qx);
+        long a = sub(ONE, qx);
+        return sub(a, sub(hz, sub(mul(z, r), mul(x, y))));
+    }
+
+    // tan(x + y) if iy is 1, -1/tan(x + y) if iy is -1.
+    private static long kernelTan(long x, long y, int iy) {
+        int hx = hi(x);
+        int ix = hx & 0x7FFFFFFF;
+        if (ix < 0x3E300000) {
+            // |x| < 2^-28
+            if (((ix | lo(x)) | (iy + 1)) == 0) {
+                return INF;
+            }
+            if (iy == 1) {
+                return x;
+            }
+            return negInverse(add(x, y), x, y);
+        }
+        boolean big = ix >= 0x3FE59428;
+        if (big) {
+            // |x| >= 0.6744: tan(pi/4 - x)
+            if (hx < 0) {
+                x = neg(x);
+                y = neg(y);
+            }
+            long z = sub(PIO4, x);
+            long w = sub(PIO4LO, y);
+            x = add(z, w);
+            y = 0;
+        }
+        long z = mul(x, x);
+        long w = mul(z, z);
+        long r = add(T[1], mul(w, add(T[3], mul(w, add(T[5], mul(w, add(T[7], mul(w, add(T[9],
+                mul(w, T[11]))))))))));
+        long v = mul(z, add(T[2], mul(w, add(T[4], mul(w, add(T[6], mul(w, add(T[8], mul(w, add(T[10],
+                mul(w, T[12])))))))))));
+        long s = mul(z, x);
+        r = add(y, mul(z, add(mul(s, add(r, v)), y)));
+        r = add(r, mul(T[0], s));
+        w = add(x, r);
+        if (big) {
+            v = fromInt(iy);
+            long t = sub(v, mul(TWO, sub(x, sub(div(mul(w, w), add(w, v)), r))));
+            return ((hx >> 30) & 2) != 0 ? neg(t) : t;
+        }
+        if (iy == 1) {
+            return w;
+        }
+        return negInverse(w, x, r);
+    }
+
+    // -1/w, where w = x + y rounded, computed carefully: z + v is w split
+    // with v the tail, and t + a corrects the high part of the quotient.
+    private static long negInverse(long w, long x, long y) {
+        long z = clearLo(w);
+        long v = sub(y, sub(z, x));
+        long a = div(neg(ONE), w);
+        long t = clearLo(a);
+        long s = add(ONE, mul(t, z));
+        return add(t, mul(a, add(s, mul(t, v))));
+    }
+
+    // x - n pi/2 as y[0] + y[1]; returns n.
+    private static int remPio2(long x, long[] y) {
+        int hx = hi(x);
+        int ix = hx & 0x7FFFFFFF;
+        if (ix < 0x4002D97C) {
+            // |x| < 3pi/4, n = +-1
+            if (hx > 0) {
+                long z = sub(x, PIO2_1);
+                if (ix != 0x3FF921FB) {
+                    y[0] = sub(z, PIO2_1T);
+                    y[1] = sub(sub(z, y[0]), PIO2_1T);
+                } else {
+                    // Near pi/2: 33 + 33 + 53 bits of pi.
+                    z = sub(z, PIO2_2);
+                    y[0] = sub(z, PIO2_2T);
+                    y[1] = sub(sub(z, y[0]), PIO2_2T);
+                }
+                return 1;
+            }
+            long z = add(x, PIO2_1);
+            if (ix != 0x3FF921FB) {
+                y[0] = add(z, PIO2_1T);
+                y[1] = add(sub(z, y[0]), PIO2_1T);
+            } else {
+                z = add(z, PIO2_2);
+                y[0] = add(z, PIO2_2T);
+                y[1] = add(sub(z, y[0]), PIO2_2T);
+            }
+            return -1;
+        }
+        if (ix <= 0x413921FB) {
+            // |x| <~ 2^19 pi/2
+            long t = abs(x);
+            int n = toInt(add(mul(t, INVPIO2), HALF));
+            long fn = fromInt(n);
+            long r = sub(t, mul(fn, PIO2_1));
+            // First round, good to 85 bits.
+            long w = mul(fn, PIO2_1T);
+            y[0] = sub(r, w);
+            if (n >= 32 || ix == NPIO2_HW[n - 1]) {
+                int j = ix >> 20;
+                int i = j - ((hi(y[0]) >> 20) & 0x7FF);
+                if (i > 16) {
+                    // Second round, good to 118 bits.
+                    t = r;
+                    w = mul(fn, PIO2_2);
+                    r = sub(t, w);
+                    w = sub(mul(fn, PIO2_2T), sub(sub(t, r), w));
+                    y[0] = sub(r, w);
+                    i = j - ((hi(y[0]) >> 20) & 0x7FF);
+                    if (i > 49) {
+                        // Third round, 151 bits.
+                        t = r;
+                        w = mul(fn, PIO2_3);
+                        r = sub(t, w);
+                        w = sub(mul(fn, PIO2_3T), sub(sub(t, r), w));
+                        y[0] = sub(r, w);
+                    }
+                }
+            }
+            y[1] = sub(sub(r, y[0]), w);
+            if (hx < 0) {
+                y[0] = neg(y[0]);
+                y[1] = neg(y[1]);
+                return -n;
+            }
+            return n;
+        }
+        // Large |x|: z = scalbn(|x|, ilogb(x) - 23) split into 24-bit chunks.
+        int e0 = (ix >> 20) - 1046;
+        long z = words(ix - (e0 << 20), lo(x));
+        long[] tx = new long[3];
+        for (int i = 0; i < 2; i++) {
+            tx[i] = fromInt(toInt(z));
+            z = mul(sub(z, tx[i]), TWO24);
+        }
+        tx[2] = z;
+        int nx = 3;
+        while (isZero(tx[nx - 1])) {
+            nx--;
+        }
+        int n = kernelRemPio2(tx, y, e0, nx);
+        if (hx < 0) {
+            y[0] = neg(y[0]);
+            y[1] = neg(y[1]);
+            return -n;
+        }
+        return n;
+    }
+
+    // Payne-Hanek: x[0..nx) are 24-bit chunks of the argument scaled by
+    // 2^-e0 (fdlibm's __kernel_rem_pio2 at prec 2, 53-bit results).
+    private static int kernelRemPio2(long[] x, long[] y, int e0, int nx) {
+        int jk = 4;
+        int jp = jk;
+        int jx = nx - 1;
+        int jv = Math.max(0, (e0 - 3) / 24);
+        int q0 = e0 - 24 * (jv + 1);
+        long[] f = new long[20];
+        long[] q = new long[20];
+        long[] fq = new long[20];
+        int[] iq = new int[20];
+
+        // f[0..jx+jk] with f[jx+jk] = TWO_OVER_PI[jv+jk]
+        for (int i = 0, j = jv - jx; i <= jx + jk; i++, j++) {
+            f[i] = j < 0 ? 0 : fromInt(TWO_OVER_PI[j]);
+        }
+        for (int i = 0; i <= jk; i++) {
+            q[i] = chunkProduct(x, f, jx, i);
+        }
+
+        int jz = jk;
+        long z;
+        int n;
+        int ih;
+        while (true) {
+            // Distill q[] into iq[], most significant last.
+            z = q[jz];
+            for (int i = 0, j = jz; j > 0; i++, j--) {
+                long fw = fromInt(toInt(mul(TWON24, z)));
+                iq[i] = toInt(sub(z, mul(TWO24, fw)));
+                z = add(q[j - 1], fw);
+            }
+            // n and the fraction z, with integers >= 8 trimmed off.
+            z = scalbn(z, q0);
+            z = sub(z, mul(EIGHT, floor(mul(z, EIGHTH))));
+            n = toInt(z);
+            z = sub(z, fromInt(n));
+            ih = 0;
+            if (q0 > 0) {
+                int i = iq[jz - 1] >> (24 - q0);
+                n += i;
+                iq[jz - 1] -= i << (24 - q0);
+                ih = iq[jz - 1] >> (23 - q0);
+            } else if (q0 == 0) {
+                ih = iq[jz - 1] >> 23;
+            } else if (compare(z, HALF) >= 0) {
+                ih = 2;
+            }
+
+            if (ih > 0) {
+                // q > 0.5: take 1 - q
+                n += 1;
+                int carry = 0;
+                for (int i = 0; i < jz; i++) {
+                    int j = iq[i];
+                    if (carry == 0) {
+                        if (j != 0) {
+                            carry = 1;
+                            iq[i] = 0x1000000 - j;
+                        }
+                    } else {
+                        iq[i] = 0xFFFFFF - j;
+                    }
+                }
+                if (q0 == 1) {
+                    iq[jz - 1] &= 0x7FFFFF;
+                } else if (q0 == 2) {
+                    iq[jz - 1] &= 0x3FFFFF;
+                }
+                if (ih == 2) {
+                    z = sub(ONE, z);
+                    if (carry != 0) {
+                        z = sub(z, scalbn(ONE, q0));
+                    }
+                }
+            }
+
+            // Recompute with more chunks of 2/pi if the fraction cancelled.
+            if (!isZero(z)) {
+                break;
+            }
+            int j = 0;
+            for (int i = jz - 1; i >= jk; i--) {
+                j |= iq[i];
+            }
+            if (j != 0) {
+                break;
+            }
+            int k = 1;
+            while (iq[jk - k] == 0) {
+                k++;
+            }
+            for (int i = jz + 1; i <= jz + k; i++) {
+                f[jx + i] = fromInt(TWO_OVER_PI[jv + i]);
+                q[i] = chunkProduct(x, f, jx, i);
+            }
+            jz += k;
+        }
+
+        // Chop off zero terms, or break z into 24-bit chunks.
+        if (isZero(z)) {
+            jz -= 1;
+            q0 -= 24;
+            while (iq[jz] == 0) {
+                jz--;
+                q0 -= 24;
+            }
+        } else {
+            z = scalbn(z, -q0);
+            if (compare(z, TWO24) >= 0) {
+                long fw = fromInt(toInt(mul(TWON24, z)));
+                iq[jz] = toInt(sub(z, mul(TWO24, fw)));
+                jz += 1;
+                q0 += 24;
+                iq[jz] = toInt(fw);
+            } else {
+                iq[jz] = toInt(z);
+            }
+        }
+
+        long fw = scalbn(ONE, q0);
+        for (int i = jz; i >= 0; i--) {
+            q[i] = mul(fw, fromInt(iq[i]));
+            fw = mul(fw, TWON24);
+        }
+        // PIO2[0..jp] * q[jz..0]
+        for (int i = jz; i >= 0; i--) {
+            fw = 0;
+            for (int k = 0; k <= jp && k <= jz - i; k++) {
+                fw = add(fw, mul(PIO2[k], q[i + k]));
+            }
+            fq[jz - i] = fw;
+        }
+        fw = 0;
+        for (int i = jz; i >= 0; i--) {
+            fw = add(fw, fq[i]);
+        }
+        y[0] = ih == 0 ? fw : neg(fw);
+        fw = sub(fq[0], fw);
+        for (int i = 1; i <= jz; i++) {
+            fw = add(fw, fq[i]);
+        }
+        y[1] = ih == 0 ? fw : neg(fw);
+        return n & 7;
+    }
+
+    private static long chunkProduct(long[] x, long[] f, int jx, int i) {
+        long fw = 0;
+        for (int j = 0; j <= jx; j++) {
+            fw = add(fw, mul(x[j], f[jx + i - j]));
+        }
+        return fw;
+    }
+
+    // (double) k, exactly.
+    static long fromInt(int k) {
+        if (k == 0) {
+            return 0;
+        }
+        long sign = k < 0 ? SIGN : 0;
+        long m = Math.abs((long) k);
+        int lz = Long.numberOfLeadingZeros(m);
+        return sign | (long) (63 - lz + 0x3FF) << 52 | (m << lz << 1) >>> 12;
+    }
+
+    // (int) x: truncated, saturating, and 0 for NaN.
+    static int toInt(long x) {
+        int e = (int) (x >>> 52 & 0x7FF) - 0x3FF;
+        if (e < 0) {
+            return 0;
+        }
+        if (e >= 31) {
+            if (SoftDouble.isNaN(x)) {
+                return 0;
+            }
+            return x < 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        }
+        int v = (int) (((x & FRAC_MASK) | HIDDEN) >>> (52 - e));
+        return x < 0 ? -v : v;
+    }
+
+    private static long floor(long x) {
+        int e = (int) (x >>> 52 & 0x7FF) - 0x3FF;
+        if (e < 0) {
+            return x >= 0 ? 0 : x == SIGN ? SIGN : neg(ONE);
+        }
+        if (e >= 52) {
+            return x;
+        }
+        long frac = FRAC_MASK >>> e;
+        if ((x & frac) == 0) {
+            return x;
+        }
+        long t = x & ~frac;
+        return x < 0 ? sub(t, ONE) : t;
+    }
+
+    // x 2^n, as fdlibm's scalbn.
+    private static long scalbn(long x, int n) {
+        int hx = hi(x);
+        int k = (hx & 0x7FF00000) >> 20;
+        if (k == 0) {
+            if (((hx & 0x7FFFFFFF) | lo(x)) == 0) {
+                return x;
+            }
+            x = mul(x, TWO54);
+            hx = hi(x);
+            k = ((hx & 0x7FF00000) >> 20) - 54;
+            if (n < -50000) {
+                return x & SIGN;
+            }
+        }
+        if (k == 0x7FF) {
+            return add(x, x);
+        }
+        k += n;
+        if (k > 0x7FE) {
+            return (x & SIGN) | INF;
+        }
+        if (k > 0) {
+            return withHi(x, (hx & 0x800FFFFF) | (k << 20));
+        }
+        if (k <= -54) {
+            return n > 50000 ? (x & SIGN) | INF : x & SIGN;
+        }
+        k += 54;
+        return mul(withHi(x, (hx & 0x800FFFFF) | (k << 20)), TWOM54);
+    }
+
+    // Orders non-NaN values, with -0.0 equal to +0.0.
+    private static int compare(long a, long b) {
+        return Long.compare(a >= 0 ? a : -(a & ~SIGN), b >= 0 ? b : -(b & ~SIGN));
+    }
+
+    private static long signed(long x, boolean negative) {
+        return negative ? neg(x) : x;
+    }
+
+    private static boolean isZero(long x) {
+        return (x & ~SIGN) == 0;
+    }
+
+    private static long neg(long x) {
+        return x ^ SIGN;
+    }
+
+    private static long abs(long x) {
+        return x & ~SIGN;
+    }
+
+    private static int hi(long x) {
+        return (int) (x >> 32);
+    }
+
+    private static int lo(long x) {
+        return (int) x;
+    }
+
+    private static long words(int hi, int lo) {
+        return (long) hi << 32 | (lo & 0xFFFFFFFFL);
+    }
+
+    private static long withHi(long x, int hi) {
+        return words(hi, lo(x));
+    }
+
+    private static long clearLo(long x) {
+        return x & 0xFFFFFFFF00000000L;
+    }
+
+    private static long add(long a, long b) {
+        return SoftDouble.add(a, b);
+    }
+
+    private static long sub(long a, long b) {
+        return SoftDouble.sub(a, b);
+    }
+
+    private static long mul(long a, long b) {
+        return SoftDouble.mul(a, b);
+    }
+
+    private static long div(long a, long b) {
+        return SoftDouble.div(a, b);
+    }
+
+    private static long bits(double x) {
+        return Double.doubleToRawLongBits(x);
+    }
+}
@@ -0,0 +1,84 @@
+package dedis.fp;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+// How long a fresh process takes to produce its first result, and what one
+// op costs once it has settled. Meant to be run once per process per backend
+// (-Dfptest.backends=<name>), as startup.sh does under the plain JVM, an AppCDS
+// archive and a native image; the mode is just the label of the row.
+//
+// Time to first result counts from -Dfptest.launchNanos (epoch ns, taken by
+// the launcher) or else from the OS process start, which Linux only keeps to
+// 10 ms. First call is creating the driver plus one op; Backends has built
+// every backend by then, so it is mostly the op's own first-use cost. Steady
+// state is the median of EXEC_COUNT / BATCH_SIZE timed batches after the
+// usual adaptive Warmup, whose op count is reported too: AOT code in a native
+// image settles at once, the JVM has to wait for C2.
+final class StartupExperiment {
+
+    static final int BATCH_SIZE = 1000;
+
+    private StartupExperiment() {
+    }
+
+    public static void run(String fname, String mode, InputProfile profile, long seed) throws IOException {
+        final Op op = Op.fromName(fname);
+        final double[][] inputs = profile.generate(seed, FPTest.INPUT_COUNT);
+        final long launched = launchNanos();
+        final int batches = Math.max(1, FPTest.EXEC_COUNT / BATCH_SIZE);
+
+        String out = FPTest.STATS_PREFIX + "startup.csv";
+        boolean fresh = !Files.exists(Paths.get(out));
+        FileWriter writer = new FileWriter(out, true);
+        if (fresh) {
+            writer.write("mode, op, profile, backend, first_result_ms, first_call_us, warmup_ops, steady_ns_per_op\n");
+        }
+        List<FloatBackend<?>> backends = Backends.forOp(op);
+        for (FloatBackend<?> backend : backends) {
+            long start = System.nanoTime();
+            Driver driver = Drivers.create(backend, op, inputs[0], inputs[1]);
+            driver.warmup(1);
+            long firstCall = System.nanoTime() - start;
+            double firstResult = launched < 0 ? Double.NaN : (epochNanos() - launched) / 1e6;
+
+            Warmup warmup = Warmup.run(backend.name(), driver, FPTest.INPUT_COUNT, FPTest.WARMUP_COUNT);
+            long[] times = new long[batches];
+            for (int k = 0; k < batches; k++) {
+                times[k] = driver.timeBatch((int) ((long) k * BATCH_SIZE % FPTest.INPUT_COUNT), BATCH_SIZE);
+            }
+            Arrays.sort(times);
+            writer.write(String.format("%s, %s, %s, %s, %.3f, %.1f, %d, %.3f\n",
+                    mode,
+                    fname,
+                    profile.profileName(),
+                    backend.name(),
+                    firstResult,
+                    firstCall / 1e3,
+                    warmup.ops(),
+                    (double) times[batches / 2] / BATCH_SIZE));
+        }
+        writer.close();
+    }
+
+    // -1 when neither source is available.
+    private static long launchNanos() {
+        String given = System.getProperty("fptest.launchNanos");
+        if (given != null) {
+            return Long.parseLong(given);
+        }
+        return ProcessHandle.current().info().startInstant()
+                .map(t -> t.getEpochSecond() * 1_000_000_000L + t.getNano())
+                .orElse(-1L);
+    }
+
+    private static long epochNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+}
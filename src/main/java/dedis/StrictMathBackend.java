@@ -0,0 +1,64 @@
+package dedis.fp;
+
+final class StrictMathBackend implements DoubleBackend {
+
+    @Override
+    public String name() {
+        return FPTest.SMATH;
+    }
+
+    @Override
+    public double add(double x, double y) {
+        return x + y;
+    }
+
+    @Override
+    public double sub(double x, double y) {
+        return x - y;
+    }
+
+    @Override
+    public double mul(double x, double y) {
+        return x * y;
+    }
+
+    @Override
+    public double div(double x, double y) {
+        return x / y;
+    }
+
+    @Override
+    public double sqrt(double x) {
+        return StrictMath.sqrt(x);
+    }
+
+    @Override
+    public double log(double x) {
+        return StrictMath.log(x);
+    }
+
+    @Override
+    public double exp(double x) {
+        return StrictMath.exp(x);
+    }
+
+    @Override
+    public double pow(double x, double y) {
+        return StrictMath.pow(x, y);
+    }
+
+    @Override
+    public double sin(double x) {
+        return StrictMath.sin(x);
+    }
+
+    @Override
+    public double cos(double x) {
+        return StrictMath.cos(x);
+    }
+
+    @Override
+    public double tan(double x) {
+        return StrictMath.tan(x);
+    }
+}
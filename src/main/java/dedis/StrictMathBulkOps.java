@@ -0,0 +1,64 @@
+package dedis.fp;
+
+class StrictMathBulkOps extends MathBulkOps {
+
+    @Override
+    public String name() {
+        return FPTest.SMATH;
+    }
+
+    // add/sub/mul/div would be MathBulkOps' bytecode again.
+    @Override
+    public boolean supports(Op op) {
+        return !op.isPrimitive();
+    }
+
+    @Override
+    public void pow(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = StrictMath.pow(a[i], b[i]);
+        }
+    }
+
+    @Override
+    public void sqrt(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = StrictMath.sqrt(in[i]);
+        }
+    }
+
+    @Override
+    public void log(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = StrictMath.log(in[i]);
+        }
+    }
+
+    @Override
+    public void exp(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = StrictMath.exp(in[i]);
+        }
+    }
+
+    @Override
+    public void sin(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = StrictMath.sin(in[i]);
+        }
+    }
+
+    @Override
+    public void cos(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = StrictMath.cos(in[i]);
+        }
+    }
+
+    @Override
+    public void tan(double[] in, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = StrictMath.tan(in[i]);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package dedis.fp;
+
+// Exact sum of doubles: a fixed-point number wide enough for every finite
+// double (2^-1074 up to 2^1024, plus 2^31 of headroom), held as signed
+// base-2^32 digits in longs. Adding a double adds its 53-bit significand to
+// at most three digits and never rounds, so the value does not depend on
+// the order of adds and merges; doubleValue rounds once, to nearest even.
+// Carries are propagated every NORMALIZE_EVERY adds and before merging.
+// An exactly zero sum is -0.0 only if every addend was -0.0, as in IEEE
+// addition; otherwise +0.0.
+final class SuperAccumulator {
+
+    // Digit k holds bits [32k, 32k + 32) of the value in units of 2^-1074.
+    static final int DIGITS = 70;
+    static final int NORMALIZE_EVERY = 1 << 29;
+    private static final long MASK = 0xFFFFFFFFL;
+
+    // Two spare digits so that 64-bit reads near the top need no bounds checks.
+    private final long[] digits = new long[DIGITS + 2];
+    private int pending;
+    private boolean posInf;
+    private boolean negInf;
+    private boolean nan;
+    private boolean added;
+    private boolean onlyNegativeZeros = true;
+
+    void add(double x) {
+        long bits = Double.doubleToRawLongBits(x);
+        added = true;
+        onlyNegativeZeros &= bits == Long.MIN_VALUE;
+        int e = (int) (bits >>> 52) & 0x7FF;
+        long m = bits & 0xFFFFFFFFFFFFFL;
+        if (e == 0x7FF) {
+            if (m != 0) {
+                nan = true;
+            } else if (bits < 0) {
+                negInf = true;
+            } else {
+                posInf = true;
+            }
+            return;
+        }
+        if (e == 0) {
+            e = 1;
+        } else {
+            m |= 1L << 52;
+        }
+        // x = m 2^(e - 1075), so m starts at bit e - 1 in units of 2^-1074.
+        int k = (e - 1) >>> 5;
+        int s = (e - 1) & 31;
+        long w0 = (m << s) & MASK;
+        long w1 = (m >>> (32 - s)) & MASK;
+        long w2 = s == 0 ? 0 : m >>> (64 - s);
+        if (bits < 0) {
+            digits[k] -= w0;
+            digits[k + 1] -= w1;
+            digits[k + 2] -= w2;
+        } else {
+            digits[k] += w0;
+            digits[k + 1] += w1;
+            digits[k + 2] += w2;
+        }
+        if (++pending == NORMALIZE_EVERY) {
+            normalize(digits);
+            pending = 0;
+        }
+    }
+
+    // x y exactly, as the rounded product plus its fma residual. The residual
+    // is exact unless the product is below about 2^-969; either way the
+    // result is reproducible. A zero residual is skipped, so that it cannot
+    // turn a -0.0 product into +0.0.
+    void addProduct(double x, double y) {
+        double p = x * y;
+        add(p);
+        if (Double.isFinite(p)) {
+            double r = Math.fma(x, y, -p);
+            if (r != 0) {
+                add(r);
+            }
+        }
+    }
+
+    void merge(SuperAccumulator other) {
+        normalize(digits);
+        normalize(other.digits);
+        for (int k = 0; k < DIGITS; k++) {
+            digits[k] += other.digits[k];
+        }
+        pending = 0;
+        posInf |= other.posInf;
+        negInf |= other.negInf;
+        nan |= other.nan;
+        added |= other.added;
+        onlyNegativeZeros &= other.onlyNegativeZeros;
+    }
+
+    double doubleValue() {
+        if (nan || posInf && negInf) {
+            return Double.NaN;
+        }
+        if (posInf || negInf) {
+            return posInf ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+        long[] d = digits.clone();
+        normalize(d);
+        boolean neg = d[DIGITS - 1] < 0;
+        if (neg) {
+            for (int k = 0; k < DIGITS; k++) {
+                d[k] = -d[k];
+            }
+            normalize(d);
+        }
+        int top = DIGITS - 1;
+        while (top >= 0 && d[top] == 0) {
+            top--;
+        }
+        if (top < 0) {
+            return added && onlyNegativeZeros ? -0.0 : 0.0;
+        }
+        int length = 32 * top + 64 - Long.numberOfLeadingZeros(d[top]);
+        double r;
+        if (length <= 64) {
+            // Below 2^53 units this is exact, subnormals included; above it
+            // the result is normal, so the scaling below is exact.
+            r = Math.scalb(unsignedToDouble(d[0] | d[1] << 32), -1074);
+        } else {
+            // The top 64 bits with everything below folded into bit 0, which
+            // rounds the same as the full value.
+            int p = length - 64;
+            int k = p >>> 5;
+            int s = p & 31;
+            long bits = s == 0
+                    ? d[k] | d[k + 1] << 32
+                    : d[k] >>> s | d[k + 1] << (32 - s) | d[k + 2] << (64 - s);
+            boolean sticky = (d[k] & ((1L << s) - 1)) != 0;
+            for (int j = 0; j < k && !sticky; j++) {
+                sticky = d[j] != 0;
+            }
+            r = Math.scalb(unsignedToDouble(bits | (sticky ? 1 : 0)), p - 1074);
+        }
+        return neg ? -r : r;
+    }
+
+    // Leaves digits 0..DIGITS-2 in [0, 2^32) and the sign in the top digit.
+    private static void normalize(long[] d) {
+        long carry = 0;
+        for (int k = 0; k < DIGITS - 1; k++) {
+            long v = d[k] + carry;
+            carry = v >> 32;
+            d[k] = v & MASK;
+        }
+        d[DIGITS - 1] += carry;
+    }
+
+    private static double unsignedToDouble(long x) {
+        return x >= 0 ? x : ((x >>> 1) | (x & 1)) * 2.0;
+    }
+}
@@ -0,0 +1,69 @@
+package dedis.fp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Formats digits into a reusable char buffer, so no String is built per sample.
+final class TextSampleSink implements SampleSink {
+
+    static final int BUFFER_SIZE = 1 << 16;
+    // Longest long plus sign and newline
+    static final int MAX_LINE = 21;
+
+    private final Writer writer;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos;
+
+    TextSampleSink(Path path) throws IOException {
+        writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void accept(long sample) {
+        if (BUFFER_SIZE - pos < MAX_LINE) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (sample == Long.MIN_VALUE) {
+            // Cannot be negated below; never a real latency.
+            for (char c : Long.toString(sample).toCharArray()) {
+                buffer[pos++] = c;
+            }
+            buffer[pos++] = '\n';
+            return;
+        }
+        if (sample < 0) {
+            buffer[pos++] = '-';
+            sample = -sample;
+        }
+        int start = pos;
+        do {
+            buffer[pos++] = (char) ('0' + sample % 10);
+            sample /= 10;
+        } while (sample != 0);
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            char c = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = c;
+        }
+        buffer[pos++] = '\n';
+    }
+
+    private void flush() throws IOException {
+        writer.write(buffer, 0, pos);
+        pos = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        writer.close();
+    }
+}
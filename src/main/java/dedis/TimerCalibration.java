@@ -0,0 +1,133 @@
+package dedis.fp;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+// What two back-to-back System.nanoTime() calls cost, and the smallest step
+// nanoTime takes. Every single-call sample includes the former, so it is
+// subtracted from the mean; the latter is the shortest cost a sample can
+// resolve at all. fp_test.c does the same for clock_gettime, and c_stats.py
+// applies the same correction, so Java and C columns compare.
+final class TimerCalibration {
+
+    static final int COUNT = 1 << 20;
+    // Two-sided 95%
+    static final double Z = 1.96;
+
+    final double overhead;
+    final double overheadStdDev;
+    final long overheadMedian;
+    final long resolution;
+    final int count;
+
+    private TimerCalibration(double overhead, double overheadStdDev, long overheadMedian, long resolution,
+            int count) {
+        this.overhead = overhead;
+        this.overheadStdDev = overheadStdDev;
+        this.overheadMedian = overheadMedian;
+        this.resolution = resolution;
+        this.count = count;
+    }
+
+    // Runs the loop once untimed so it is compiled like a driver's measure loop.
+    static TimerCalibration measure() {
+        pairs(COUNT, null);
+        Histogram h = FPTest.newHistogram();
+        pairs(COUNT, h);
+        return new TimerCalibration(h.getMean(), h.getStdDeviation(), h.getValueAtPercentile(50), resolution(),
+                COUNT);
+    }
+
+    private static void pairs(int count, Histogram h) {
+        long start;
+        long end;
+        for (int i = 0; i < count; i++) {
+            start = System.nanoTime();
+            end = System.nanoTime();
+            if (h != null) {
+                h.recordValue(end - start);
+            }
+        }
+    }
+
+    // Smallest nonzero step between successive readings.
+    private static long resolution() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long t0 = System.nanoTime();
+            long t1;
+            do {
+                t1 = System.nanoTime();
+            } while (t1 == t0);
+            min = Math.min(min, t1 - t0);
+        }
+        return min;
+    }
+
+    // Mean minus the timer overhead, and the 95% bound on that difference from
+    // both samples' spread. Costs under the timer's resolution, or not
+    // distinguishable from zero, are rejected: only batch mode can time those.
+    final class Corrected {
+        final double mean;
+        final double bound;
+
+        Corrected(Histogram h) {
+            long n = h.getTotalCount();
+            double sd = h.getStdDeviation();
+            mean = h.getMean() - overhead;
+            bound = Z * Math.sqrt(sd * sd / n + overheadStdDev * overheadStdDev / count);
+        }
+
+        boolean resolved() {
+            return mean >= resolution && mean - bound > 0;
+        }
+
+        // Why the mean was rejected, if it was.
+        String status() {
+            if (mean < resolution) {
+                return "below_resolution";
+            }
+            return mean - bound > 0 ? "ok" : "ci_includes_zero";
+        }
+    }
+
+    void log(String fname, InputProfile profile, List<FloatBackend<?>> backends, Histogram... hists)
+            throws IOException {
+        FileWriter writer = new FileWriter(FPTest.statsFile(fname, profile, "_corrected"));
+        writer.write("op, backend, count, mean, overhead, corrected, bound, resolution, status\n");
+        for (int b = 0; b < hists.length; b++) {
+            Corrected c = new Corrected(hists[b]);
+            String status = c.status();
+            if (status.equals("below_resolution")) {
+                System.out.println(String.format("%s %s: %.1f ns after timer overhead is below the %d ns"
+                        + " resolution; use --batch", backends.get(b).name(), fname, c.mean, resolution));
+            } else if (status.equals("ci_includes_zero")) {
+                System.out.println(String.format("%s %s: %.1f ns after timer overhead is within its 95%% bound"
+                        + " of %.1f ns; use --batch", backends.get(b).name(), fname, c.mean, c.bound));
+            }
+            writer.write(String.format("%s, %s, %d, %.3f, %.3f, %s, %.3f, %d, %s\n",
+                    fname,
+                    backends.get(b).name(),
+                    hists[b].getTotalCount(),
+                    hists[b].getMean(),
+                    overhead,
+                    c.resolved() ? String.format("%.3f", c.mean) : "",
+                    c.bound,
+                    resolution,
+                    status));
+        }
+        writer.close();
+    }
+
+    // Same columns as fp_test's timer.csv.
+    void log() throws IOException {
+        FileWriter writer = new FileWriter(FPTest.STATS_PREFIX + "timer.csv");
+        writer.write("timer, count, overhead, stddev, p50, resolution\n");
+        writer.write(String.format("nanoTime, %d, %.3f, %.3f, %d, %d\n",
+                count, overhead, overheadStdDev, overheadMedian, resolution));
+        writer.close();
+    }
+}
@@ -0,0 +1,85 @@
+package dedis.fp;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API loops for add/sub/mul/div/sqrt. These are correctly rounded in
+// IEEE 754 and Java never contracts them into FMAs, so lanes give the same bits
+// as the scalar loops. The transcendental lanewise ops are not specified to be
+// reproducible, so those are inherited from StrictMath only to complete the
+// interface; supports() keeps them out of the vector rows.
+// Needs --add-modules jdk.incubator.vector.
+final class VectorBulkOps extends StrictMathBulkOps {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "vector";
+    }
+
+    @Override
+    public boolean supports(Op op) {
+        return op.isPrimitive() || op == Op.SQRT;
+    }
+
+    @Override
+    public void add(double[] a, double[] b, double[] out) {
+        int i = 0;
+        int upper = SPECIES.loopBound(out.length);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).add(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+        }
+        for (; i < out.length; i++) {
+            out[i] = a[i] + b[i];
+        }
+    }
+
+    @Override
+    public void sub(double[] a, double[] b, double[] out) {
+        int i = 0;
+        int upper = SPECIES.loopBound(out.length);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).sub(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+        }
+        for (; i < out.length; i++) {
+            out[i] = a[i] - b[i];
+        }
+    }
+
+    @Override
+    public void mul(double[] a, double[] b, double[] out) {
+        int i = 0;
+        int upper = SPECIES.loopBound(out.length);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+        }
+        for (; i < out.length; i++) {
+            out[i] = a[i] * b[i];
+        }
+    }
+
+    @Override
+    public void div(double[] a, double[] b, double[] out) {
+        int i = 0;
+        int upper = SPECIES.loopBound(out.length);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).div(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+        }
+        for (; i < out.length; i++) {
+            out[i] = a[i] / b[i];
+        }
+    }
+
+    @Override
+    public void sqrt(double[] in, double[] out) {
+        int i = 0;
+        int upper = SPECIES.loopBound(out.length);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, in, i).sqrt().intoArray(out, i);
+        }
+        for (; i < out.length; i++) {
+            out[i] = StrictMath.sqrt(in[i]);
+        }
+    }
+}
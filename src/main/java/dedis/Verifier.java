@@ -0,0 +1,322 @@
+package dedis.fp;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Checks every backend bit-for-bit against the correctly rounded MPFR result
+// (BigFloat at BINARY64, round to nearest even). Inputs are split into chunks
+// that run on all cores; chunk k always sees the same inputs for a given
+// profile and seed.
+//
+// With a store directory, inputs and all outputs are kept in memory-mapped
+// files instead, and a status slot per chunk lets an interrupted run resume:
+// chunks with stored inputs reuse them, verified chunks are only re-tallied.
+final class Verifier {
+
+    static final int CHUNK_SIZE = 1 << 16;
+    // Range and resolution boundaries of Fixed and Fixed128, where results
+    // can land on the ERROR bit pattern; every pair runs through the
+    // non-binary64 backends on top of the profile's inputs.
+    static final double[] EDGES = {0.0, 0x1p-64, 0x1p-32, 0.5, 1.0, 2.0, 32768.0, 65536.0, 0x1p31, 0x1p32,
+            0x1p62, 0x1p63, -0x1p-64, -0x1p-32, -0.5, -1.0, -2.0, -32768.0, -65536.0, -0x1p31, -0x1p32,
+            -0x1p62, -0x1p63};
+
+    private Verifier() {
+    }
+
+    public static void run(String fname, long count, InputProfile profile, long seed, Path storeDir)
+            throws IOException {
+        final Op op = Op.fromName(fname);
+        final List<FloatBackend<?>> backends = new ArrayList<>(Backends.forOp(op));
+        backends.remove(Backends.MPFR);
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final List<Future<Result>> chunks = new ArrayList<>();
+        final Store store = storeDir == null ? null : Store.open(storeDir, fname, profile, seed, count, backends);
+
+        for (long from = 0; from < count; from += CHUNK_SIZE) {
+            final long chunk = from / CHUNK_SIZE;
+            final int n = (int) Math.min(CHUNK_SIZE, count - from);
+            chunks.add(pool.submit(() -> verifyChunk(op, backends, profile, seed, chunk, n, store)));
+        }
+        Result total = edges(op, backends);
+        try {
+            for (Future<Result> f : chunks) {
+                total.merge(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+            if (store != null) {
+                store.close();
+            }
+        }
+
+        // Columns: op, backend, inputs, mismatches (any difference in the bits,
+        // NaN payloads aside), max ulp error and the inputs that produced it,
+        // how many mismatches were 0 ulp apart: zeros of the wrong sign, and
+        // how many results were NaN or ERROR where MPFR's is finite, edges
+        // included.
+        String out = FPTest.statsFile(fname, profile, "_verify");
+        FileWriter writer = new FileWriter(out);
+        for (int b = 0; b < backends.size(); b++) {
+            writer.write(String.format("%s, %s, %d, %d, %d, %s, %s, %d, %d\n",
+                    fname,
+                    backends.get(b).name(),
+                    count,
+                    total.mismatches[b],
+                    total.maxUlp[b],
+                    Double.toHexString(total.worstX[b]),
+                    Double.toHexString(total.worstY[b]),
+                    total.signedZeros[b],
+                    total.spuriousErrors[b]));
+        }
+        writer.close();
+        FPTest.logFallbacks(fname, profile);
+    }
+
+    private static Result verifyChunk(Op op, List<FloatBackend<?>> shared, InputProfile profile, long seed,
+                                      long chunk, int n, Store store) {
+        final long base = chunk * CHUNK_SIZE;
+        if (store != null && store.status.getLong(chunk) == Store.VERIFIED) {
+            return store.tally(op, base, n);
+        }
+        if (store != null && store.status.getLong(chunk) == Store.NEW) {
+            final SplittableRandom random = new SplittableRandom(seed + chunk * 0x9E3779B97F4A7C15L);
+            for (int i = 0; i < n; i++) {
+                store.inputs.setDouble(2 * (base + i), profile.nextX(random));
+                store.inputs.setDouble(2 * (base + i) + 1, profile.nextY(random));
+            }
+            store.inputs.force(2 * base, 2L * n);
+            store.setStatus(chunk, Store.INPUTS);
+        }
+
+        final FloatBackend<?> ref = Backends.MPFR.perThread();
+        final List<FloatBackend<?>> backends = new ArrayList<>();
+        for (FloatBackend<?> b : shared) {
+            backends.add(b.perThread());
+        }
+        final SplittableRandom random = new SplittableRandom(seed + chunk * 0x9E3779B97F4A7C15L);
+        final Result result = new Result(op, backends.size());
+
+        for (int i = 0; i < n; i++) {
+            double x = store == null ? profile.nextX(random) : store.inputs.getDouble(2 * (base + i));
+            double y = store == null ? profile.nextY(random) : store.inputs.getDouble(2 * (base + i) + 1);
+            double expected = ref.apply(op, x, y);
+            for (int b = 0; b < backends.size(); b++) {
+                double actual = backends.get(b).apply(op, x, y);
+                if (store != null) {
+                    store.outputs[b].setDouble(base + i, actual);
+                }
+                result.record(b, x, y, expected, actual);
+            }
+            if (store != null) {
+                store.expected.setDouble(base + i, expected);
+            }
+        }
+        if (store != null) {
+            store.expected.force(base, n);
+            for (MappedStore out : store.outputs) {
+                out.force(base, n);
+            }
+            store.setStatus(chunk, Store.VERIFIED);
+        }
+        return result;
+    }
+
+    // Only spurious errors are kept from the EDGES pairs: they are not the
+    // profile's inputs, so they do not count as mismatches.
+    private static Result edges(Op op, List<FloatBackend<?>> backends) {
+        Result result = new Result(op, backends.size());
+        FloatBackend<?> ref = Backends.MPFR.perThread();
+        for (int b = 0; b < backends.size(); b++) {
+            FloatBackend<?> backend = backends.get(b);
+            if (backend.binary64()) {
+                continue;
+            }
+            backend = backend.perThread();
+            for (double x : EDGES) {
+                for (double y : op.isBinary() ? EDGES : new double[] {0.0}) {
+                    if (result.spuriousError(x, ref.apply(op, x, y), backend.apply(op, x, y))) {
+                        result.spuriousErrors[b]++;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Distance in units in the last place; NaNs of any payload are equal, and
+    // NaN against a number is infinitely far. +0.0 and -0.0 are 0 ulp apart, so
+    // this alone does not decide a mismatch; see Result.record.
+    static long ulps(double expected, double actual) {
+        long e = Double.doubleToLongBits(expected);
+        long a = Double.doubleToLongBits(actual);
+        if (e == a) {
+            return 0;
+        }
+        if (Double.isNaN(expected) || Double.isNaN(actual)) {
+            return Long.MAX_VALUE;
+        }
+        // Map sign-magnitude bits onto a monotonic two's complement line.
+        e = e < 0 ? Long.MIN_VALUE - e : e;
+        a = a < 0 ? Long.MIN_VALUE - a : a;
+        try {
+            return Math.abs(Math.subtractExact(e, a));
+        } catch (ArithmeticException overflow) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    // <op>[_profile]_<seed>_<count>_inputs.bin holds x, y pairs; one file per
+    // backend (and for the MPFR reference) holds outputs; _status.bin holds
+    // one NEW/INPUTS/VERIFIED slot per chunk. All are plain little-endian.
+    static final class Store implements AutoCloseable {
+
+        static final long NEW = 0;
+        static final long INPUTS = 1;
+        static final long VERIFIED = 2;
+
+        final MappedStore inputs;
+        final MappedStore expected;
+        final MappedStore[] outputs;
+        final MappedStore status;
+
+        private Store(MappedStore inputs, MappedStore expected, MappedStore[] outputs, MappedStore status) {
+            this.inputs = inputs;
+            this.expected = expected;
+            this.outputs = outputs;
+            this.status = status;
+        }
+
+        static Store open(Path dir, String fname, InputProfile profile, long seed, long count,
+                          List<FloatBackend<?>> backends) throws IOException {
+            Files.createDirectories(dir);
+            String p = profile == InputProfile.UNIT ? "" : "_" + profile.profileName();
+            String base = fname + p + "_" + seed + "_" + count + "_";
+            long chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            MappedStore inputs = MappedStore.open(dir.resolve(base + "inputs.bin"), 2 * count);
+            MappedStore expected = MappedStore.open(dir.resolve(base + Backends.MPFR.name() + ".bin"), count);
+            MappedStore[] outputs = new MappedStore[backends.size()];
+            boolean outputsReused = expected.reused();
+            for (int b = 0; b < outputs.length; b++) {
+                outputs[b] = MappedStore.open(dir.resolve(base + backends.get(b).name() + ".bin"), count);
+                outputsReused &= outputs[b].reused();
+            }
+            MappedStore status = MappedStore.open(dir.resolve(base + "status.bin"), chunks);
+            // A chunk only counts as done if every file it depends on survived.
+            for (long c = 0; c < chunks; c++) {
+                if (!inputs.reused()) {
+                    status.setLong(c, NEW);
+                } else if (!outputsReused && status.getLong(c) == VERIFIED) {
+                    status.setLong(c, INPUTS);
+                }
+            }
+            return new Store(inputs, expected, outputs, status);
+        }
+
+        void setStatus(long chunk, long value) {
+            status.setLong(chunk, value);
+            status.force(chunk, 1);
+        }
+
+        // Recomputes a verified chunk's Result from the stored outputs.
+        Result tally(Op op, long base, int n) {
+            Result result = new Result(op, outputs.length);
+            for (int i = 0; i < n; i++) {
+                double x = inputs.getDouble(2 * (base + i));
+                double y = inputs.getDouble(2 * (base + i) + 1);
+                double e = expected.getDouble(base + i);
+                for (int b = 0; b < outputs.length; b++) {
+                    result.record(b, x, y, e, outputs[b].getDouble(base + i));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void close() {
+            inputs.close();
+            expected.close();
+            for (MappedStore out : outputs) {
+                out.close();
+            }
+            status.close();
+        }
+    }
+
+    static final class Result {
+
+        final Op op;
+        final long[] mismatches;
+        final long[] signedZeros;
+        final long[] spuriousErrors;
+        final long[] maxUlp;
+        final double[] worstX;
+        final double[] worstY;
+
+        Result(Op op, int backends) {
+            this.op = op;
+            mismatches = new long[backends];
+            signedZeros = new long[backends];
+            spuriousErrors = new long[backends];
+            maxUlp = new long[backends];
+            worstX = new double[backends];
+            worstY = new double[backends];
+        }
+
+        void record(int b, double x, double y, double expected, double actual) {
+            if (Double.doubleToLongBits(expected) == Double.doubleToLongBits(actual)) {
+                return;
+            }
+            mismatches[b]++;
+            if (spuriousError(x, expected, actual)) {
+                spuriousErrors[b]++;
+            }
+            long ulp = ulps(expected, actual);
+            if (ulp == 0) {
+                signedZeros[b]++;
+            }
+            // The first mismatch stands as the worst until a larger one, so a
+            // backend whose only mismatches are signed zeros still names inputs.
+            if (ulp > maxUlp[b] || mismatches[b] == 1) {
+                maxUlp[b] = ulp;
+                worstX[b] = x;
+                worstY[b] = y;
+            }
+        }
+
+        // A NaN or ERROR result for a finite reference. Fixed-point pow
+        // rejects every x < 0, even where the real result exists.
+        boolean spuriousError(double x, double expected, double actual) {
+            return Double.isNaN(actual) && Double.isFinite(expected) && !(op == Op.POW && x < 0);
+        }
+
+        void merge(Result other) {
+            for (int b = 0; b < mismatches.length; b++) {
+                boolean first = mismatches[b] == 0 && other.mismatches[b] > 0;
+                mismatches[b] += other.mismatches[b];
+                signedZeros[b] += other.signedZeros[b];
+                spuriousErrors[b] += other.spuriousErrors[b];
+                if (other.maxUlp[b] > maxUlp[b] || first) {
+                    maxUlp[b] = other.maxUlp[b];
+                    worstX[b] = other.worstX[b];
+                    worstY[b] = other.worstY[b];
+                }
+            }
+        }
+    }
+}
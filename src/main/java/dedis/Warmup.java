@@ -0,0 +1,214 @@
+package dedis.fp;
+
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Adaptive warmup. Runs the driver in batches of BATCH_SIZE ops and takes the
+// median ns/op over each window of batches. Past MIN_COUNT ops, warmup ends
+// once STABLE_WINDOWS consecutive windows each moved by less than TOLERANCE
+// from the one before while the JIT was close to idle (busy for under
+// JIT_QUIET of the window's wall time); it ends after MAX_COUNT ops
+// (-Dfptest.warmupMax) regardless. Windows double in length (up to
+// MAX_WINDOW_MS, and never past MAX_COUNT), so a tiered-compilation plateau,
+// where C1 code is also stable for a while, has to outlast a doubling of the
+// run to pass for steady state. MIN_COUNT only keeps the first few windows,
+// still in the interpreter, from passing for stable.
+//
+// -Dfptest.warmupJfr=true instead waits until JFR has reported a C2 compile
+// of this driver's timeBatch loop, in place of the JVM-wide JIT check (JFR
+// keeps the JIT busy itself). JFR delivers events about once a second, so
+// this may run past MAX_COUNT, for at most JFR_WAIT_MS.
+// -Dfptest.fixedWarmup=true restores the plain warmup of fixedCount ops.
+//
+// Other timed loops (bulk arrays, kernels) warm up the same way through
+// Loop, in batches of their own size; they always use the JIT check.
+final class Warmup {
+
+    static final int BATCH_SIZE = 1000;
+    static final int FIRST_WINDOW = 16;
+    static final int MIN_COUNT = 50_000;
+    static final long MAX_COUNT = Long.getLong("fptest.warmupMax", 20_000_000L);
+    static final long MAX_WINDOW_MS = 200;
+    static final int STABLE_WINDOWS = 2;
+    static final double TOLERANCE = 0.05;
+    static final double JIT_QUIET = 0.05;
+    static final long JFR_WAIT_MS = 5000;
+    static final boolean FIXED = Boolean.getBoolean("fptest.fixedWarmup");
+    static final boolean JFR = Boolean.getBoolean("fptest.warmupJfr");
+
+    private static final CompilationMXBean JIT = ManagementFactory.getCompilationMXBean();
+
+    private final String backend;
+    // One point per window: ops so far, elapsed ms, median ns/op, JIT time
+    // during the window (ms), C2 seen.
+    private final List<double[]> curve = new ArrayList<>();
+    private long ops;
+    private boolean converged;
+
+    private Warmup(String backend) {
+        this.backend = backend;
+    }
+
+    // Times batchSize ops starting at input `from`, in ns.
+    interface Loop {
+        long timeBatch(int from, int batchSize);
+    }
+
+    static Warmup run(String backend, Driver driver, int inputCount, int fixedCount) {
+        if (FIXED) {
+            Warmup w = new Warmup(backend);
+            driver.warmup(fixedCount);
+            w.ops = fixedCount;
+            return w;
+        }
+        return run(backend, driver::timeBatch, inputCount, BATCH_SIZE, JFR);
+    }
+
+    // For a Loop whose batches are batchSize ops, e.g. one pass over an
+    // array of that many elements. inputCount is passed back as `from`
+    // modulo it.
+    static Warmup run(String backend, Loop loop, int inputCount, int fixedCount, int batchSize) {
+        if (FIXED) {
+            Warmup w = new Warmup(backend);
+            while (w.ops < fixedCount) {
+                loop.timeBatch((int) (w.ops % inputCount), batchSize);
+                w.ops += batchSize;
+            }
+            return w;
+        }
+        return run(backend, loop, inputCount, batchSize, false);
+    }
+
+    private static Warmup run(String backend, Loop loop, int inputCount, int batchSize, boolean jfr) {
+        Warmup w = new Warmup(backend);
+        if (jfr) {
+            Compiles.start();
+        }
+        Instant since = Instant.now();
+        long start = System.nanoTime();
+        long deadline = start + JFR_WAIT_MS * 1_000_000;
+        double previous = Double.NaN;
+        int stable = 0;
+        int batches = windowUpTo(FIRST_WINDOW, 0, batchSize);
+        while (true) {
+            long jit = jitMillis();
+            long windowStart = System.nanoTime();
+            long[] window = new long[batches];
+            for (int k = 0; k < batches; k++) {
+                window[k] = loop.timeBatch((int) (w.ops % inputCount), batchSize);
+                w.ops += batchSize;
+            }
+            long now = System.nanoTime();
+            jit = jitMillis() - jit;
+            Arrays.sort(window);
+            double nsPerOp = (double) window[batches / 2] / batchSize;
+            boolean compiled = !jfr || Compiles.since(since);
+            w.curve.add(new double[]{w.ops, (now - start) / 1e6, nsPerOp, jit, compiled ? 1 : 0});
+
+            boolean idle = jfr || jit * 1e6 <= JIT_QUIET * (now - windowStart);
+            stable = idle && Math.abs(nsPerOp - previous) <= TOLERANCE * previous ? stable + 1 : 0;
+            previous = nsPerOp;
+            if (stable >= STABLE_WINDOWS && w.ops >= MIN_COUNT && compiled) {
+                w.converged = true;
+                break;
+            }
+            if (w.ops >= MAX_COUNT && (compiled || now > deadline)) {
+                break;
+            }
+            if (now - windowStart < MAX_WINDOW_MS * 1_000_000 / 2) {
+                batches *= 2;
+            }
+            batches = windowUpTo(batches, w.ops, batchSize);
+        }
+        return w;
+    }
+
+    // Batches in the next window, cut so that it ends at MAX_COUNT rather than
+    // past it; at least one once the cap is reached (JFR may still wait).
+    private static int windowUpTo(int batches, long ops, int batchSize) {
+        return (int) Math.max(1, Math.min(batches, (MAX_COUNT - ops) / batchSize));
+    }
+
+    // Total JIT time so far, or 0 if the JVM does not track it.
+    private static long jitMillis() {
+        return JIT != null && JIT.isCompilationTimeMonitoringSupported() ? JIT.getTotalCompilationTime() : 0;
+    }
+
+    long ops() {
+        return ops;
+    }
+
+    boolean converged() {
+        return converged;
+    }
+
+    // Columns: op, backend, ops so far, elapsed ms, median ns/op of the
+    // window, JIT ms during the window, C2 compile seen (blank without JFR),
+    // converged at the end.
+    static void log(String fname, InputProfile profile, Warmup... warmups) throws IOException {
+        FileWriter writer = new FileWriter(FPTest.statsFile(fname, profile, "_warmup"));
+        writer.write("op, backend, ops, ms, ns_per_op, jit_ms, c2, converged\n");
+        for (Warmup w : warmups) {
+            for (double[] p : w.curve) {
+                writer.write(String.format("%s, %s, %d, %.3f, %.3f, %d, %s, %s\n",
+                        fname,
+                        w.backend,
+                        (long) p[0],
+                        p[1],
+                        p[2],
+                        (long) p[3],
+                        JFR ? Integer.toString((int) p[4]) : "",
+                        w.converged ? 1 : 0));
+            }
+        }
+        writer.close();
+    }
+
+    // Latest C2 (tier 4) compile of OpDriver.timeBatch. Every isolated driver
+    // has its own copy of that method, so a compile that started after a
+    // warmup began belongs to that warmup's driver.
+    private static final class Compiles {
+
+        private static volatile Instant latest = Instant.MIN;
+
+        static {
+            RecordingStream stream = new RecordingStream();
+            stream.enable("jdk.Compilation").withThreshold(Duration.ZERO);
+            stream.onEvent("jdk.Compilation", e -> {
+                RecordedMethod m = e.getValue("method");
+                if (e.getInt("compileLevel") == 4
+                        && m.getName().equals("timeBatch")
+                        && m.getType().getName().equals(OpDriver.class.getName())
+                        && e.getStartTime().isAfter(latest)) {
+                    latest = e.getStartTime();
+                }
+            });
+            stream.setReuse(true);
+            // startAsync would keep the JVM alive after main returns.
+            Thread consumer = new Thread(stream::start, "fptest-jfr");
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+
+        private Compiles() {
+        }
+
+        // Runs the static initializer.
+        static void start() {
+        }
+
+        static boolean since(Instant start) {
+            return latest.isAfter(start);
+        }
+    }
+}
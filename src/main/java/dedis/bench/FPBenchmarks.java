@@ -0,0 +1,22 @@
+package dedis.fp.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class FPBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        // Optional regex to restrict the run, e.g. "MpfrBenchmark.pow"
+        String include = args.length > 0 ? args[0] : FPBenchmarks.class.getPackage().getName() + ".*Benchmark";
+        String out = args.length > 1 ? args[1] : "jmh-results.json";
+        Options opts = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(out)
+                .build();
+        new Runner(opts).run();
+    }
+}
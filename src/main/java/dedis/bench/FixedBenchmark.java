@@ -0,0 +1,113 @@
+package dedis.fp.bench;
+
+import dedis.fp.Fixed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Inputs are the profile's doubles converted to Q32.32, which saturates those
+// beyond +-2^31.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@OperationsPerInvocation(Inputs.COUNT)
+public class FixedBenchmark {
+
+    @Benchmark
+    public void add(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs, ys = in.fys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.add(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void sub(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs, ys = in.fys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.sub(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void mul(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs, ys = in.fys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.mul(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void div(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs, ys = in.fys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.div(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void sqrt(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.sqrt(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void log(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.log(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void exp(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.exp(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void pow(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs, ys = in.fys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.pow(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void sin(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.sin(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void cos(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.cos(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void tan(Inputs in, Blackhole bh) {
+        long[] xs = in.fxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(Fixed.tan(xs[i]));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package dedis.fp.bench;
+
+import dedis.fp.Fixed;
+import dedis.fp.InputProfile;
+import org.kframework.mpfr.BigFloat;
+import org.kframework.mpfr.BinaryMathContext;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.RoundingMode;
+
+// Every benchmark method sweeps all COUNT inputs once per invocation and
+// declares @OperationsPerInvocation(Inputs.COUNT), so the count is fixed
+// rather than a @Param that could disagree with it.
+@State(Scope.Thread)
+public class Inputs {
+
+    public static final int COUNT = 1000;
+
+    static final BinaryMathContext MC = BinaryMathContext.BINARY64.withRoundingMode(RoundingMode.HALF_EVEN);
+
+    @Param({"42"})
+    public long seed;
+
+    @Param({"unit"})
+    public String profile;
+
+    public double[] xs;
+    public double[] ys;
+    public long[] lxs;
+    public long[] lys;
+    public long[] fxs;
+    public long[] fys;
+    public BigFloat[] bfXs;
+    public BigFloat[] bfYs;
+
+    @Setup
+    public void setup() {
+        double[][] inputs = InputProfile.fromName(profile).generate(seed, COUNT);
+        xs = inputs[0];
+        ys = inputs[1];
+        lxs = new long[COUNT];
+        lys = new long[COUNT];
+        fxs = new long[COUNT];
+        fys = new long[COUNT];
+        bfXs = new BigFloat[COUNT];
+        bfYs = new BigFloat[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            lxs[i] = Double.doubleToLongBits(xs[i]);
+            lys[i] = Double.doubleToLongBits(ys[i]);
+            fxs[i] = Fixed.fromDouble(xs[i]);
+            fys[i] = Fixed.fromDouble(ys[i]);
+            bfXs[i] = new BigFloat(xs[i], MC);
+            bfYs[i] = new BigFloat(ys[i], MC);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dedis.fp.bench;
+
+import net.dclausen.microfloat.MicroDouble;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@OperationsPerInvocation(Inputs.COUNT)
+public class MicroDoubleBenchmark {
+
+    @Benchmark
+    public void add(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs, ys = in.lys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.add(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void sub(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs, ys = in.lys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.sub(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void mul(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs, ys = in.lys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.mul(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void div(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs, ys = in.lys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.div(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void sqrt(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.sqrt(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void log(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.log(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void exp(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.exp(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void pow(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs, ys = in.lys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.pow(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void sin(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.sin(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void cos(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.cos(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void tan(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(MicroDouble.tan(xs[i]));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dedis.fp.bench;
+
+import org.kframework.mpfr.BigFloat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@OperationsPerInvocation(Inputs.COUNT)
+public class MpfrBenchmark {
+
+    @Benchmark
+    public void add(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs, ys = in.bfYs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].add(ys[i], Inputs.MC));
+        }
+    }
+
+    @Benchmark
+    public void sub(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs, ys = in.bfYs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].subtract(ys[i], Inputs.MC));
+        }
+    }
+
+    @Benchmark
+    public void mul(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs, ys = in.bfYs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].multiply(ys[i], Inputs.MC));
+        }
+    }
+
+    @Benchmark
+    public void div(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs, ys = in.bfYs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].divide(ys[i], Inputs.MC));
+        }
+    }
+
+    @Benchmark
+    public void sqrt(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].sqrt(Inputs.MC));
+        }
+    }
+
+    @Benchmark
+    public void log(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].log(Inputs.MC));
+        }
+    }
+
+    @Benchmark
+    public void exp(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].exp(Inputs.MC));
+        }
+    }
+
+    @Benchmark
+    public void pow(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs, ys = in.bfYs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].pow(ys[i], Inputs.MC));
+        }
+    }
+
+    @Benchmark
+    public void sin(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].sin(Inputs.MC));
+        }
+    }
+
+    @Benchmark
+    public void cos(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].cos(Inputs.MC));
+        }
+    }
+
+    @Benchmark
+    public void tan(Inputs in, Blackhole bh) {
+        BigFloat[] xs = in.bfXs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(xs[i].tan(Inputs.MC));
+        }
+    }
+}
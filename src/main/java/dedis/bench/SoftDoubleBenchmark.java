@@ -0,0 +1,63 @@
+package dedis.fp.bench;
+
+import dedis.fp.SoftDouble;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@OperationsPerInvocation(Inputs.COUNT)
+public class SoftDoubleBenchmark {
+
+    @Benchmark
+    public void add(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs, ys = in.lys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(SoftDouble.add(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void sub(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs, ys = in.lys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(SoftDouble.sub(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void mul(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs, ys = in.lys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(SoftDouble.mul(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void div(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs, ys = in.lys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(SoftDouble.div(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void sqrt(Inputs in, Blackhole bh) {
+        long[] xs = in.lxs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(SoftDouble.sqrt(xs[i]));
+        }
+    }
+}
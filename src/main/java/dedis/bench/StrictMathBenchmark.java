@@ -0,0 +1,80 @@
+package dedis.fp.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// add/sub/mul/div compile to the same bytecode as in MathBenchmark, so only the
+// library calls are benchmarked here.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@OperationsPerInvocation(Inputs.COUNT)
+public class StrictMathBenchmark {
+
+    @Benchmark
+    public void sqrt(Inputs in, Blackhole bh) {
+        double[] xs = in.xs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(StrictMath.sqrt(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void log(Inputs in, Blackhole bh) {
+        double[] xs = in.xs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(StrictMath.log(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void exp(Inputs in, Blackhole bh) {
+        double[] xs = in.xs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(StrictMath.exp(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void pow(Inputs in, Blackhole bh) {
+        double[] xs = in.xs, ys = in.ys;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(StrictMath.pow(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void sin(Inputs in, Blackhole bh) {
+        double[] xs = in.xs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(StrictMath.sin(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void cos(Inputs in, Blackhole bh) {
+        double[] xs = in.xs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(StrictMath.cos(xs[i]));
+        }
+    }
+
+    @Benchmark
+    public void tan(Inputs in, Blackhole bh) {
+        double[] xs = in.xs;
+        for (int i = 0; i < xs.length; i++) {
+            bh.consume(StrictMath.tan(xs[i]));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package dedis.fp;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+// Direct downcalls into libmpfr through java.lang.foreign, with no C shim.
+// Values are mpfr_t structs whose limbs are placed next to them in a
+// caller-owned arena through MPFR's custom interface, so MPFR itself never
+// allocates and nothing needs mpfr_clear. Types assume LP64 and MPFR's
+// default (long) precision and exponent types.
+//
+// -Dfptest.mpfr=<path or name> overrides the library; it defaults to
+// libmpfr.so (libmpfr.dylib on macOS) on the system library path.
+final class MpfrFfm {
+
+    static final int RNDN = 0;
+    static final int ZERO_KIND = 2;
+
+    // struct { mpfr_prec_t prec; mpfr_sign_t sign; mpfr_exp_t exp; mp_limb_t *d; }
+    static final MemoryLayout MPFR_T = MemoryLayout.structLayout(
+            JAVA_LONG.withName("prec"),
+            JAVA_INT.withName("sign"),
+            MemoryLayout.paddingLayout(4),
+            JAVA_LONG.withName("exp"),
+            ADDRESS.withName("d"));
+
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup LIBRARY = lookup();
+    static final boolean AVAILABLE = LIBRARY != null;
+
+    private static final FunctionDescriptor BINARY = FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS, JAVA_INT);
+    private static final FunctionDescriptor UNARY = FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT);
+
+    private static final MethodHandle CUSTOM_GET_SIZE = handle("mpfr_custom_get_size", FunctionDescriptor.of(JAVA_LONG, JAVA_LONG));
+    private static final MethodHandle CUSTOM_INIT = handle("mpfr_custom_init", FunctionDescriptor.ofVoid(ADDRESS, JAVA_LONG));
+    private static final MethodHandle CUSTOM_INIT_SET = handle("mpfr_custom_init_set",
+            FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT, JAVA_LONG, JAVA_LONG, ADDRESS));
+    private static final MethodHandle SET_D = handle("mpfr_set_d", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_DOUBLE, JAVA_INT));
+    private static final MethodHandle GET_D = handle("mpfr_get_d", FunctionDescriptor.of(JAVA_DOUBLE, ADDRESS, JAVA_INT));
+    private static final MethodHandle ADD = handle("mpfr_add", BINARY);
+    private static final MethodHandle SUB = handle("mpfr_sub", BINARY);
+    private static final MethodHandle MUL = handle("mpfr_mul", BINARY);
+    private static final MethodHandle DIV = handle("mpfr_div", BINARY);
+    private static final MethodHandle POW = handle("mpfr_pow", BINARY);
+    private static final MethodHandle SQRT = handle("mpfr_sqrt", UNARY);
+    private static final MethodHandle LOG = handle("mpfr_log", UNARY);
+    private static final MethodHandle EXP = handle("mpfr_exp", UNARY);
+    private static final MethodHandle SIN = handle("mpfr_sin", UNARY);
+    private static final MethodHandle COS = handle("mpfr_cos", UNARY);
+    private static final MethodHandle TAN = handle("mpfr_tan", UNARY);
+
+    private MpfrFfm() {
+    }
+
+    private static SymbolLookup lookup() {
+        String name = System.getProperty("fptest.mpfr", System.mapLibraryName("mpfr"));
+        try {
+            return SymbolLookup.libraryLookup(name, Arena.global());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // MPFR calls neither block nor call back into Java, so they can skip the
+    // thread state transition that a regular downcall pays for.
+    private static MethodHandle handle(String name, FunctionDescriptor descriptor) {
+        if (LIBRARY == null) {
+            return null;
+        }
+        MemorySegment symbol = LIBRARY.find(name)
+                .orElseThrow(() -> new IllegalStateException("No " + name + " in libmpfr"));
+        return LINKER.downcallHandle(symbol, descriptor, Linker.Option.critical(false));
+    }
+
+    // A zero of the given precision, struct and limbs both from arena.
+    static MemorySegment init(Arena arena, int precision) {
+        try {
+            long limbBytes = (long) CUSTOM_GET_SIZE.invokeExact((long) precision);
+            MemorySegment m = arena.allocate(MPFR_T);
+            MemorySegment limbs = arena.allocate(limbBytes, Long.BYTES);
+            CUSTOM_INIT.invokeExact(limbs, (long) precision);
+            CUSTOM_INIT_SET.invokeExact(m, ZERO_KIND, 0L, (long) precision, limbs);
+            return m;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    static void set(MemorySegment r, double x) {
+        try {
+            int t = (int) SET_D.invokeExact(r, x, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static double get(MemorySegment x) {
+        try {
+            return (double) GET_D.invokeExact(x, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void add(MemorySegment r, MemorySegment x, MemorySegment y) {
+        try {
+            int t = (int) ADD.invokeExact(r, x, y, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void sub(MemorySegment r, MemorySegment x, MemorySegment y) {
+        try {
+            int t = (int) SUB.invokeExact(r, x, y, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void mul(MemorySegment r, MemorySegment x, MemorySegment y) {
+        try {
+            int t = (int) MUL.invokeExact(r, x, y, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void div(MemorySegment r, MemorySegment x, MemorySegment y) {
+        try {
+            int t = (int) DIV.invokeExact(r, x, y, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void pow(MemorySegment r, MemorySegment x, MemorySegment y) {
+        try {
+            int t = (int) POW.invokeExact(r, x, y, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void sqrt(MemorySegment r, MemorySegment x) {
+        try {
+            int t = (int) SQRT.invokeExact(r, x, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void log(MemorySegment r, MemorySegment x) {
+        try {
+            int t = (int) LOG.invokeExact(r, x, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void exp(MemorySegment r, MemorySegment x) {
+        try {
+            int t = (int) EXP.invokeExact(r, x, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void sin(MemorySegment r, MemorySegment x) {
+        try {
+            int t = (int) SIN.invokeExact(r, x, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void cos(MemorySegment r, MemorySegment x) {
+        try {
+            int t = (int) COS.invokeExact(r, x, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void tan(MemorySegment r, MemorySegment x) {
+        try {
+            int t = (int) TAN.invokeExact(r, x, RNDN);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
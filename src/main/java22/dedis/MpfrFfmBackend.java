@@ -0,0 +1,159 @@
+package dedis.fp;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+// MpfrSlotBackend over FFM downcalls instead of the JNI shim: the same ring of
+// preallocated mpfr_t results, here laid out in an automatic arena that is
+// freed with the backend. fromDoubles values come from the same arena.
+// Built from src/main/java22 with --release 22; Backends finds it by name.
+final class MpfrFfmBackend implements FloatBackend<MemorySegment> {
+
+    static final int SLOTS = 1024;
+
+    private final int precision;
+    private final Arena arena = Arena.ofAuto();
+    private final MemorySegment[] slots = new MemorySegment[SLOTS];
+    private int next;
+
+    // Null when libmpfr cannot be found.
+    static MpfrFfmBackend create(int precision) {
+        return MpfrFfm.AVAILABLE ? new MpfrFfmBackend(precision) : null;
+    }
+
+    MpfrFfmBackend(int precision) {
+        this.precision = precision;
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = MpfrFfm.init(arena, precision);
+        }
+    }
+
+    @Override
+    public String name() {
+        return FPTest.MPFR_FFM;
+    }
+
+    @Override
+    public boolean binary64() {
+        return false;
+    }
+
+    // The ring is not thread-safe, so every thread gets its own.
+    @Override
+    public FloatBackend<MemorySegment> perThread() {
+        return new MpfrFfmBackend(precision);
+    }
+
+    @Override
+    public MemorySegment fromDouble(double x) {
+        MemorySegment r = result();
+        MpfrFfm.set(r, x);
+        return r;
+    }
+
+    @Override
+    public MemorySegment[] fromDoubles(double[] xs) {
+        MemorySegment[] out = new MemorySegment[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            out[i] = MpfrFfm.init(arena, precision);
+            MpfrFfm.set(out[i], xs[i]);
+        }
+        return out;
+    }
+
+    @Override
+    public double toDouble(MemorySegment x) {
+        return MpfrFfm.get(x);
+    }
+
+    @Override
+    public MemorySegment[] newArray(int length) {
+        return new MemorySegment[length];
+    }
+
+    @Override
+    public long consume(MemorySegment x) {
+        return 0;
+    }
+
+    private MemorySegment result() {
+        return slots[next++ & (SLOTS - 1)];
+    }
+
+    @Override
+    public MemorySegment add(MemorySegment x, MemorySegment y) {
+        MemorySegment r = result();
+        MpfrFfm.add(r, x, y);
+        return r;
+    }
+
+    @Override
+    public MemorySegment sub(MemorySegment x, MemorySegment y) {
+        MemorySegment r = result();
+        MpfrFfm.sub(r, x, y);
+        return r;
+    }
+
+    @Override
+    public MemorySegment mul(MemorySegment x, MemorySegment y) {
+        MemorySegment r = result();
+        MpfrFfm.mul(r, x, y);
+        return r;
+    }
+
+    @Override
+    public MemorySegment div(MemorySegment x, MemorySegment y) {
+        MemorySegment r = result();
+        MpfrFfm.div(r, x, y);
+        return r;
+    }
+
+    @Override
+    public MemorySegment sqrt(MemorySegment x) {
+        MemorySegment r = result();
+        MpfrFfm.sqrt(r, x);
+        return r;
+    }
+
+    @Override
+    public MemorySegment log(MemorySegment x) {
+        MemorySegment r = result();
+        MpfrFfm.log(r, x);
+        return r;
+    }
+
+    @Override
+    public MemorySegment exp(MemorySegment x) {
+        MemorySegment r = result();
+        MpfrFfm.exp(r, x);
+        return r;
+    }
+
+    @Override
+    public MemorySegment pow(MemorySegment x, MemorySegment y) {
+        MemorySegment r = result();
+        MpfrFfm.pow(r, x, y);
+        return r;
+    }
+
+    @Override
+    public MemorySegment sin(MemorySegment x) {
+        MemorySegment r = result();
+        MpfrFfm.sin(r, x);
+        return r;
+    }
+
+    @Override
+    public MemorySegment cos(MemorySegment x) {
+        MemorySegment r = result();
+        MpfrFfm.cos(r, x);
+        return r;
+    }
+
+    @Override
+    public MemorySegment tan(MemorySegment x) {
+        MemorySegment r = result();
+        MpfrFfm.tan(r, x);
+        return r;
+    }
+}
@@ -0,0 +1,69 @@
+#!/bin/sh
+#
+# Builds the fast-startup variants of FPTest and times all three:
+#   jit     plain JVM
+#   cds     JVM with an AppCDS archive of every class a short sweep loads
+#   native  GraalVM native image (skipped without native-image on PATH)
+# Each (mode, op, backend) is a fresh process running FPTest <op> --startup,
+# which appends time to first result and steady-state ns/op to
+# $OUT/java/startup.csv.
+#
+# Usage: startup.sh <classpath> [op ...]
+# The classpath must be jars only; AppCDS refuses class directories.
+# Environment: JAVA, JAVA_OPTS (e.g. -Djava.library.path=... or
+# --add-modules jdk.incubator.vector), NATIVE_OPTS, BACKENDS, RUNS, OUT.
+
+set -e
+if [ $# -lt 1 ]; then
+    echo "Usage: startup.sh <classpath> [op ...]"
+    exit 1
+fi
+CP=$1
+shift
+OPS=${*:-"add exp"}
+JAVA=${JAVA:-java}
+BACKENDS=${BACKENDS:-math smath mpfr mf dmath sf}
+RUNS=${RUNS:-5}
+OUT=${OUT:-startup}
+JSA=$OUT/fptest.jsa
+IMAGE=$OUT/fptest
+CONFIG=$OUT/native-config
+# Short measurements; warmup keeps its default cap, so steady state is C2 code
+COUNTS="-Dfptest.exec=100000 -Dfptest.history=none"
+
+mkdir -p $OUT
+
+# Training run: one short sweep over every op and backend, so the archive
+# holds Guava, MPFR and microfloat as well as our own classes. A fixed
+# warmup keeps it short; adaptive warmup would run up to fptest.warmupMax.
+TRAIN="-Dfptest.warmup=1000 -Dfptest.exec=1000 -Dfptest.fixedWarmup=true -Dfptest.out=$OUT/train -Dfptest.history=none"
+if [ ! -f $JSA ]; then
+    $JAVA $JAVA_OPTS -XX:ArchiveClassesAtExit=$JSA $TRAIN -cp $CP dedis.fp.Runner --ops all > /dev/null
+fi
+
+# The tracing agent records the JNI, reflection and resources MPFR needs, on
+# the shared driver the image will use.
+if command -v native-image > /dev/null && [ ! -x $IMAGE ]; then
+    for op in add sub mul div sqrt log exp pow sin cos tan; do
+        $JAVA $JAVA_OPTS -agentlib:native-image-agent=config-merge-dir=$CONFIG -Dfptest.sharedDriver=true \
+            $TRAIN -cp $CP dedis.fp.FPTest $op --startup agent > /dev/null
+    done
+    native-image $NATIVE_OPTS --no-fallback -H:ConfigurationFileDirectories=$CONFIG \
+        -cp $CP -o $IMAGE dedis.fp.FPTest
+fi
+
+for op in $OPS; do
+    for b in $BACKENDS; do
+        for r in $(seq $RUNS); do
+            $JAVA $JAVA_OPTS $COUNTS -Dfptest.out=$OUT -Dfptest.backends=$b \
+                -Dfptest.launchNanos=$(date +%s%N) -cp $CP dedis.fp.FPTest $op --startup jit
+            $JAVA $JAVA_OPTS -XX:SharedArchiveFile=$JSA $COUNTS -Dfptest.out=$OUT -Dfptest.backends=$b \
+                -Dfptest.launchNanos=$(date +%s%N) -cp $CP dedis.fp.FPTest $op --startup cds
+            if [ -x $IMAGE ]; then
+                $IMAGE $COUNTS -Dfptest.out=$OUT -Dfptest.backends=$b \
+                    -Dfptest.launchNanos=$(date +%s%N) $op --startup native
+            fi
+        done
+    done
+done
+cat $OUT/java/startup.csv